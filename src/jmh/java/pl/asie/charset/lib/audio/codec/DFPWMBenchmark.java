@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pl.asie.charset.lib.audio.codec;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the DFPWM codec against the original bit-at-a-time
+ * implementation. Run with "gradlew jmh".
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DFPWMBenchmark {
+	// in compressed bytes; 1024 is a little over a packet's worth of audio
+	@Param({"1024", "16384"})
+	public int length;
+
+	private byte[] pcm, compressed;
+	private byte[] pcmOut, compressedOut;
+	private ByteBuffer pcmDirect, compressedDirect, pcmOutDirect, compressedOutDirect;
+
+	private ICodec codec, reference;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Random random = new Random(1234);
+		pcm = new byte[length * 8];
+		for (int i = 0; i < pcm.length; i++) {
+			// a tone with some noise and the odd clipped square wave
+			double v = Math.sin(i * 0.05) * 90 + random.nextGaussian() * 12;
+			if ((i / 2048) % 4 == 3) {
+				v = (i / 40) % 2 == 0 ? 127 : -128;
+			}
+			pcm[i] = (byte) Math.max(-128, Math.min(127, (int) v));
+		}
+
+		compressed = new byte[length];
+		new DFPWMReference().compress(compressed, pcm, 0, 0, length);
+		pcmOut = new byte[length * 8];
+		compressedOut = new byte[length];
+
+		pcmDirect = ByteBuffer.allocateDirect(pcm.length);
+		pcmDirect.put(pcm).flip();
+		compressedDirect = ByteBuffer.allocateDirect(compressed.length);
+		compressedDirect.put(compressed).flip();
+		pcmOutDirect = ByteBuffer.allocateDirect(pcmOut.length);
+		compressedOutDirect = ByteBuffer.allocateDirect(compressedOut.length);
+
+		verify();
+
+		codec = new DFPWM();
+		reference = new DFPWMReference();
+	}
+
+	private void verify() {
+		byte[] a = new byte[length];
+		byte[] b = new byte[length];
+		new DFPWM().compress(a, pcm, 0, 0, length);
+		new DFPWMReference().compress(b, pcm, 0, 0, length);
+		if (!Arrays.equals(a, b)) {
+			throw new IllegalStateException("DFPWM compression does not match the reference implementation!");
+		}
+
+		a = new byte[length * 8];
+		b = new byte[length * 8];
+		new DFPWM().decompress(a, compressed, 0, 0, length);
+		new DFPWMReference().decompress(b, compressed, 0, 0, length);
+		if (!Arrays.equals(a, b)) {
+			throw new IllegalStateException("DFPWM decompression does not match the reference implementation!");
+		}
+	}
+
+	@Benchmark
+	public byte[] compress() {
+		codec.compress(compressedOut, pcm, 0, 0, length);
+		return compressedOut;
+	}
+
+	@Benchmark
+	public byte[] compressReference() {
+		reference.compress(compressedOut, pcm, 0, 0, length);
+		return compressedOut;
+	}
+
+	@Benchmark
+	public byte[] decompress() {
+		codec.decompress(pcmOut, compressed, 0, 0, length);
+		return pcmOut;
+	}
+
+	@Benchmark
+	public byte[] decompressReference() {
+		reference.decompress(pcmOut, compressed, 0, 0, length);
+		return pcmOut;
+	}
+
+	@Benchmark
+	public int compressDirectBuffer() {
+		pcmDirect.rewind();
+		compressedOutDirect.clear();
+		return codec.compress(compressedOutDirect, pcmDirect);
+	}
+
+	@Benchmark
+	public int decompressDirectBuffer() {
+		compressedDirect.rewind();
+		pcmOutDirect.clear();
+		return codec.decompress(pcmOutDirect, compressedDirect);
+	}
+}
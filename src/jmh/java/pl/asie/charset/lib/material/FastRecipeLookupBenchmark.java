@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pl.asie.charset.lib.material;
+
+import net.minecraft.init.Bootstrap;
+import net.minecraft.init.Items;
+import net.minecraft.inventory.InventoryCrafting;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.*;
+import net.minecraft.util.NonNullList;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.common.crafting.IShapedRecipe;
+import net.minecraftforge.fml.common.registry.ForgeRegistries;
+import net.minecraftforge.oredict.ShapedOreRecipe;
+import net.minecraftforge.oredict.ShapelessOreRecipe;
+import org.openjdk.jmh.annotations.*;
+import pl.asie.charset.lib.CharsetLib;
+import pl.asie.charset.lib.utils.RecipeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares FastRecipeLookup against vanilla's CraftingManager on the
+ * vanilla recipe set, optionally padded with generated recipes to the size
+ * of a large modpack. Run with "gradlew jmh".
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FastRecipeLookupBenchmark {
+	private static final int GRID_COUNT = 1024;
+
+	@Param({"0", "20000"})
+	public int extraRecipes;
+
+	// 0 measures the recipe index alone
+	@Param({"0", "1024"})
+	public int recipeCacheSize;
+
+	private InventoryCrafting[] grids;
+	private int index;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Bootstrap.register();
+		Random random = new Random(1234);
+
+		List<Item> items = new ArrayList<>();
+		for (Item item : Item.REGISTRY) {
+			// filled maps need a world to be matched
+			if (item != Items.AIR && item != Items.FILLED_MAP) {
+				items.add(item);
+			}
+		}
+
+		for (int i = 0; i < extraRecipes; i++) {
+			ItemStack result = new ItemStack(items.get(random.nextInt(items.size())));
+			IRecipe recipe;
+			if (random.nextInt(3) == 0) {
+				NonNullList<Ingredient> ingredients = NonNullList.create();
+				int count = 2 + random.nextInt(4);
+				for (int j = 0; j < count; j++) {
+					ingredients.add(Ingredient.fromItem(items.get(random.nextInt(items.size()))));
+				}
+				recipe = new ShapelessRecipes("charset_benchmark", result, ingredients);
+			} else {
+				int width, height;
+				do {
+					width = 1 + random.nextInt(3);
+					height = 1 + random.nextInt(3);
+				} while (width * height < 2);
+
+				NonNullList<Ingredient> ingredients = NonNullList.withSize(width * height, Ingredient.EMPTY);
+				for (int j = 0; j < ingredients.size(); j++) {
+					ingredients.set(j, Ingredient.fromItem(items.get(random.nextInt(items.size()))));
+				}
+				recipe = new ShapedRecipes("charset_benchmark", width, height, ingredients, result);
+			}
+
+			ForgeRegistries.RECIPES.register(recipe.setRegistryName(new ResourceLocation("charset_benchmark", "recipe_" + i)));
+		}
+
+		CharsetLib.recipeCacheSize = recipeCacheSize;
+		FastRecipeLookup.clearRecipeLists();
+		FastRecipeLookup.initRecipeLists();
+
+		List<IRecipe> recipes = new ArrayList<>();
+		for (IRecipe recipe : ForgeRegistries.RECIPES) {
+			Class c = recipe.getClass();
+			if (c == ShapedRecipes.class || c == ShapelessRecipes.class || c == ShapedOreRecipe.class || c == ShapelessOreRecipe.class) {
+				recipes.add(recipe);
+			}
+		}
+
+		// mostly craftable grids, at random positions, and some misses
+		grids = new InventoryCrafting[GRID_COUNT];
+		for (int i = 0; i < grids.length; i++) {
+			InventoryCrafting grid = null;
+			if (random.nextInt(4) != 0) {
+				grid = createGrid(recipes.get(random.nextInt(recipes.size())), random);
+			}
+			if (grid == null) {
+				grid = RecipeUtils.getCraftingInventory(3, 3);
+				int count = 1 + random.nextInt(9);
+				for (int j = 0; j < count; j++) {
+					grid.setInventorySlotContents(random.nextInt(9), new ItemStack(items.get(random.nextInt(items.size()))));
+				}
+			}
+			grids[i] = grid;
+		}
+
+		int mismatches = 0;
+		for (InventoryCrafting grid : grids) {
+			IRecipe a = CraftingManager.findMatchingRecipe(grid, null);
+			IRecipe b = FastRecipeLookup.findMatchingRecipe(grid, null);
+			ItemStack resultA = a != null ? a.getCraftingResult(grid) : ItemStack.EMPTY;
+			ItemStack resultB = b != null ? b.getCraftingResult(grid) : ItemStack.EMPTY;
+			if (!ItemStack.areItemStacksEqual(resultA, resultB)) {
+				mismatches++;
+			}
+		}
+
+		// grids matching more than one recipe can legitimately differ
+		System.out.println(recipes.size() + " plain recipes, " + mismatches + "/" + grids.length + " grids with a different result than vanilla");
+	}
+
+	private static InventoryCrafting createGrid(IRecipe recipe, Random random) {
+		NonNullList<Ingredient> ingredients = recipe.getIngredients();
+		int width, height;
+		if (recipe instanceof IShapedRecipe) {
+			width = ((IShapedRecipe) recipe).getRecipeWidth();
+			height = ((IShapedRecipe) recipe).getRecipeHeight();
+		} else {
+			if (ingredients.size() > 9) {
+				return null;
+			}
+			width = 3;
+			height = (ingredients.size() + 2) / 3;
+		}
+
+		if (width > 3 || height > 3 || ingredients.size() > width * height) {
+			return null;
+		}
+
+		int x = random.nextInt(4 - width);
+		int y = random.nextInt(4 - height);
+		InventoryCrafting grid = RecipeUtils.getCraftingInventory(3, 3);
+		for (int i = 0; i < ingredients.size(); i++) {
+			Ingredient ingredient = ingredients.get(i);
+			if (ingredient != Ingredient.EMPTY) {
+				ItemStack[] stacks = ingredient.getMatchingStacks();
+				if (stacks.length == 0) {
+					return null;
+				}
+				grid.setInventorySlotContents((y + i / width) * 3 + x + (i % width), stacks[0].copy());
+			}
+		}
+		return grid;
+	}
+
+	private InventoryCrafting nextGrid() {
+		index = (index + 1) & (GRID_COUNT - 1);
+		return grids[index];
+	}
+
+	@Benchmark
+	public IRecipe vanilla() {
+		return CraftingManager.findMatchingRecipe(nextGrid(), null);
+	}
+
+	@Benchmark
+	public IRecipe fast() {
+		return FastRecipeLookup.findMatchingRecipe(nextGrid(), null);
+	}
+}
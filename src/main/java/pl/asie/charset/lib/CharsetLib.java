@@ -33,6 +33,7 @@ import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.event.*;
 import net.minecraftforge.fml.common.eventhandler.EventPriority;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
 import net.minecraftforge.fml.relauncher.ReflectionHelper;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
@@ -109,6 +110,8 @@ public class CharsetLib {
 	public static boolean enableDebugInfo;
 	public static boolean showAllItemTypes;
 	public static int doubleClickDuration;
+	public static int modelCacheSize, modelCachePrewarmCount, recipeCacheSize;
+	public static boolean parallelMaterialScanning, cacheMaterialScanning;
 
 	@SubscribeEvent
 	@SideOnly(Side.CLIENT)
@@ -117,6 +120,14 @@ public class CharsetLib {
 		ColorLookupHandler.INSTANCE.clear();
 	}
 
+	@SubscribeEvent
+	@SideOnly(Side.CLIENT)
+	public void onClientTick(TickEvent.ClientTickEvent event) {
+		if (event.phase == TickEvent.Phase.END) {
+			ModelFactory.prewarmCaches();
+		}
+	}
+
 	@Mod.EventHandler
 	@SideOnly(Side.CLIENT)
 	@SuppressWarnings("unchecked")
@@ -146,6 +157,12 @@ public class CharsetLib {
 		FastRecipeLookup.ENABLED = !ConfigUtils.getBoolean(config, "general", "disableRecipeOptimizations", false, "Set to true to disable recipe optimizations. Use only if weird behaviour exhibited, and always contact the developer first!", false);
 
 		doubleClickDuration = ConfigUtils.getInt(config, "general", "doubleClickDuration", 10, 0, 60*20, "The duration of ticks that can pass between two clicks to be registered as a double-click.", false);
+		modelCacheSize = ConfigUtils.getInt(config, "expert", "modelCacheSize", 4096, 64, 1048576, "The maximum amount of baked models kept per dynamic model type.", true);
+		modelCachePrewarmCount = ConfigUtils.getInt(config, "expert", "modelCachePrewarmCount", 256, 0, 1048576, "The amount of the most used baked models per dynamic model type to bake again right after resources are reloaded. Set to 0 to disable.", false);
+		recipeCacheSize = ConfigUtils.getInt(config, "expert", "recipeCacheSize", 1024, 0, 1048576, "The maximum amount of crafting grids whose matching recipe is remembered by Charset's crafting lookups (pocket table, compression crafter, etc.). Set to 0 to disable.", true);
+		parallelMaterialScanning = ConfigUtils.getBoolean(config, "expert", "parallelMaterialScanning", true, "Run the crafting lookups of the material scan on multiple threads. Disable if a mod's recipes misbehave when looked up concurrently.", true);
+		cacheMaterialScanning = ConfigUtils.getBoolean(config, "expert", "cacheMaterialScanning", false, "Store the results of the material scan on disk and reuse them as long as the mod list, recipes and ore dictionary stay the same.", true);
+		Scheduler.INSTANCE.setMaxEventsPerTick(ConfigUtils.getInt(config, "expert", "schedulerMaxEventsPerTick", 0, 0, Integer.MAX_VALUE, "The maximum amount of scheduled events run per world per tick. Events over the limit are deferred to the next tick. Set to 0 to disable the limit.", false));
 
 		boolean oldShowAllItemTypes = showAllItemTypes;
 		showAllItemTypes = ConfigUtils.getBoolean(config, "general","showAllItemTypes", ModCharset.INDEV, "Make mods such as JEI show all combinations of a given item (within reason), as opposed to a random selection.", false);
@@ -192,6 +209,7 @@ public class CharsetLib {
 		CommandCharset.register(new SubCommandClientCmdList("night", "Makes it night", "/time set 18000"));
 		CommandCharset.register(new SubCommandClientCmdList("nice", "Makes it a sunny morning", "/time set 1200", "/weather clear"));
 		CommandCharset.register(new SubCommandFog());
+		CommandCharset.register(new SubCommandModelCache());
 		CommandCharset.register(new SubCommandSetupTestWorld());
 	}
 
@@ -227,6 +245,8 @@ public class CharsetLib {
 
 		CommandCharset.register(new SubCommandHand());
 		CommandCharset.register(new SubCommandAt());
+		CommandCharset.register(new SubCommandScheduler());
+		CommandCharset.register(new SubCommandRecipeCache());
 	}
 
 	@Mod.EventHandler
@@ -30,10 +30,12 @@ package pl.asie.charset.lib.audio.codec;
  * also the main() function takes unsigned 8-bit data and converts it to suit
  */
 public class DFPWM implements ICodec {
-	private final int RESP_INC = 1;
-	private final int RESP_DEC = 1;
-	private final int RESP_PREC = 10;
-	private final int LPF_STRENGTH = 140;
+	private static final int RESP_INC = 1;
+	private static final int RESP_DEC = 1;
+	private static final int RESP_PREC = 10;
+	private static final int RESP_MAX = (1<<RESP_PREC)-1;
+	private static final int RESP_MIN = (RESP_PREC > 8) ? (2<<(RESP_PREC-8)) : 0;
+	private static final int LPF_STRENGTH = 140;
 
 	private int response = 0;
 	private int level = 0;
@@ -44,80 +46,117 @@ public class DFPWM implements ICodec {
 
 	public DFPWM() {}
 
-	private void ctx_update(boolean curbit)
-	{
-		int target = (curbit ? 127 : -128);
-		int nlevel = (level + ((response*(target - level)
-				+ (1<<(RESP_PREC-1)))>>RESP_PREC));
-		if(nlevel == level && level != target)
-			nlevel += (curbit ? 1 : -1);
-
-		int rtarget, rdelta;
-		if(curbit == lastbit)
-		{
-			rtarget = (1<<RESP_PREC)-1;
-			rdelta = RESP_INC;
-		} else {
-			rtarget = 0;
-			rdelta = RESP_DEC;
-		}
-
-		int nresponse = response;
-		if(response != rtarget)
-			nresponse += (curbit == lastbit ? 1 : -1);
-
-		if(RESP_PREC > 8)
-		{
-			if(nresponse < (2<<(RESP_PREC-8)))
-				nresponse = (2<<(RESP_PREC-8));
-		}
-
-		response = nresponse;
-		lastbit = curbit;
-		level = nlevel;
-	}
+	/*
+	 * The codec loops below keep the whole context in local variables and
+	 * inline the context update, which the JIT handles much better than
+	 * the original per-bit ctx_update() method writing back to fields.
+	 * The arithmetic is kept identical, so the output is bit-exact.
+	 *
+	 * Context update, for reference:
+	 *
+	 * target = curbit ? 127 : -128
+	 * nlevel = level + ((response * (target - level) + (1<<(RESP_PREC-1))) >> RESP_PREC)
+	 * if nlevel == level && level != target: nlevel += curbit ? 1 : -1
+	 * response moves towards RESP_MAX if curbit == lastbit, towards 0 otherwise,
+	 * and is clamped to at least RESP_MIN
+	 */
 
 	public void decompress(byte[] dest, byte[] src, int destoffs, int srcoffs, int len)
 	{
+		int response = this.response;
+		int level = this.level;
+		int lastbit = this.lastbit ? 1 : 0;
+		int flastlevel = this.flastlevel;
+		int lpflevel = this.lpflevel;
+
 		for(int i = 0; i < len; i++)
 		{
-			byte d = (byte) (src[srcoffs++] ^ 0x55);
+			int d = (src[srcoffs++] ^ 0x55) & 0xFF;
 			for(int j = 0; j < 8; j++)
 			{
 				// apply context
-				boolean curbit = ((d&1) != 0);
-				boolean lastbit = this.lastbit;
-				ctx_update(curbit);
+				int curbit = d & 1;
 				d >>= 1;
 
-				// apply noise shaping
-				int blevel = (byte)(curbit == lastbit
-						? level
-						: ((flastlevel + level + 1)>>1));
-				flastlevel = level;
+				int target = (-curbit & 0xFF) - 128;
+				int nlevel = level + ((response*(target - level) + (1<<(RESP_PREC-1)))>>RESP_PREC);
+				if(nlevel == level && level != target)
+					nlevel += (curbit << 1) - 1;
+
+				int blevel;
+				if(curbit == lastbit)
+				{
+					if(response != RESP_MAX)
+						response += RESP_INC;
+					blevel = nlevel;
+				} else {
+					if(response != 0)
+						response -= RESP_DEC;
+					// apply noise shaping
+					blevel = (flastlevel + nlevel + 1)>>1;
+				}
+				if(response < RESP_MIN)
+					response = RESP_MIN;
+
+				lastbit = curbit;
+				level = nlevel;
+				flastlevel = nlevel;
 
 				// apply low-pass filter
-				lpflevel += ((LPF_STRENGTH * (blevel - lpflevel) + 0x80)>>8);
+				lpflevel += ((LPF_STRENGTH * ((byte) blevel - lpflevel) + 0x80)>>8);
 				dest[destoffs++] = (byte)(lpflevel);
 			}
 		}
+
+		this.response = response;
+		this.level = level;
+		this.lastbit = lastbit != 0;
+		this.flastlevel = flastlevel;
+		this.lpflevel = lpflevel;
 	}
 
 	public void compress(byte[] dest, byte[] src, int destoffs, int srcoffs, int len)
 	{
+		int response = this.response;
+		int level = this.level;
+		int lastbit = this.lastbit ? 1 : 0;
+
+		loop:
 		for(int i = 0; i < len; i++)
 		{
 			int d = 0;
 			for(int j = 0; j < 8; j++)
 			{
-				if (srcoffs >= src.length) return;
+				if (srcoffs >= src.length) break loop;
 				int inlevel = src[srcoffs++];
-				boolean curbit = (inlevel > level || (inlevel == level && level == 127));
-				d = (curbit ? (d>>1)+128 : d>>1);
-				ctx_update(curbit);
+				int curbit = (inlevel > level || (inlevel == level && level == 127)) ? 1 : 0;
+				d = (d >> 1) | (curbit << 7);
+
+				int target = (-curbit & 0xFF) - 128;
+				int nlevel = level + ((response*(target - level) + (1<<(RESP_PREC-1)))>>RESP_PREC);
+				if(nlevel == level && level != target)
+					nlevel += (curbit << 1) - 1;
+
+				if(curbit == lastbit)
+				{
+					if(response != RESP_MAX)
+						response += RESP_INC;
+				} else {
+					if(response != 0)
+						response -= RESP_DEC;
+				}
+				if(response < RESP_MIN)
+					response = RESP_MIN;
+
+				lastbit = curbit;
+				level = nlevel;
 			}
 			dest[destoffs++] = (byte) (d ^ 0x55);
 		}
+
+		this.response = response;
+		this.level = level;
+		this.lastbit = lastbit != 0;
 	}
 
 	public static void main(String[] args) throws Exception // FUCK THE POLICE
@@ -19,7 +19,61 @@
 
 package pl.asie.charset.lib.audio.codec;
 
+import java.nio.ByteBuffer;
+
 public interface ICodec {
+    int BULK_CHUNK_SIZE = 512;
+
     void compress(byte[] dest, byte[] src, int destoffs, int srcoffs, int len);
     void decompress(byte[] dest, byte[] src, int destoffs, int srcoffs, int len);
+
+    /**
+     * Compresses as many whole bytes of compressed data as both buffers
+     * allow, advancing their positions.
+     *
+     * @return The number of compressed bytes written.
+     */
+    default int compress(ByteBuffer dest, ByteBuffer src) {
+        int len = Math.min(dest.remaining(), src.remaining() / 8);
+        if (dest.hasArray() && src.hasArray()) {
+            compress(dest.array(), src.array(), dest.arrayOffset() + dest.position(), src.arrayOffset() + src.position(), len);
+            dest.position(dest.position() + len);
+            src.position(src.position() + len * 8);
+        } else {
+            byte[] in = new byte[Math.min(len, BULK_CHUNK_SIZE) * 8];
+            byte[] out = new byte[Math.min(len, BULK_CHUNK_SIZE)];
+            for (int i = 0; i < len; i += BULK_CHUNK_SIZE) {
+                int chunk = Math.min(len - i, BULK_CHUNK_SIZE);
+                src.get(in, 0, chunk * 8);
+                compress(out, in, 0, 0, chunk);
+                dest.put(out, 0, chunk);
+            }
+        }
+        return len;
+    }
+
+    /**
+     * Decompresses as many whole bytes of compressed data as both buffers
+     * allow, advancing their positions.
+     *
+     * @return The number of compressed bytes read.
+     */
+    default int decompress(ByteBuffer dest, ByteBuffer src) {
+        int len = Math.min(dest.remaining() / 8, src.remaining());
+        if (dest.hasArray() && src.hasArray()) {
+            decompress(dest.array(), src.array(), dest.arrayOffset() + dest.position(), src.arrayOffset() + src.position(), len);
+            dest.position(dest.position() + len * 8);
+            src.position(src.position() + len);
+        } else {
+            byte[] in = new byte[Math.min(len, BULK_CHUNK_SIZE)];
+            byte[] out = new byte[Math.min(len, BULK_CHUNK_SIZE) * 8];
+            for (int i = 0; i < len; i += BULK_CHUNK_SIZE) {
+                int chunk = Math.min(len - i, BULK_CHUNK_SIZE);
+                src.get(in, 0, chunk);
+                decompress(out, in, 0, 0, chunk);
+                dest.put(out, 0, chunk * 8);
+            }
+        }
+        return len;
+    }
 }
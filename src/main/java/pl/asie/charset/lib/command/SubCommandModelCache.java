@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pl.asie.charset.lib.command;
+
+import com.google.common.cache.CacheStats;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraftforge.fml.relauncher.Side;
+import pl.asie.charset.lib.render.model.ModelFactory;
+
+public class SubCommandModelCache extends SubCommand {
+    public SubCommandModelCache() {
+        super("modelCache", Side.CLIENT);
+    }
+
+    @Override
+    public String getUsage() {
+        return "Get baked model cache statistics.";
+    }
+
+    @Override
+    public void execute(MinecraftServer server, ICommandSender sender, String[] args) {
+        if (ModelFactory.DISABLE_CACHE) {
+            sender.sendMessage(new TextComponentString("Model caching is disabled."));
+            return;
+        }
+
+        for (ModelFactory factory : ModelFactory.getFactories()) {
+            CacheStats stats = factory.getCacheStats();
+            sender.sendMessage(new TextComponentString(String.format("%s: %d cached, %.1f%% hits (%d/%d), %d bakes (avg %.3f ms), %d evicted",
+                    factory.getClass().getSimpleName(), factory.getCacheSize(),
+                    stats.hitRate() * 100, stats.hitCount(), stats.requestCount(),
+                    stats.loadCount(), stats.averageLoadPenalty() / 1000000.0, stats.evictionCount())));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pl.asie.charset.lib.command;
+
+import com.google.common.cache.CacheStats;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraftforge.fml.relauncher.Side;
+import pl.asie.charset.lib.material.FastRecipeLookup;
+
+public class SubCommandRecipeCache extends SubCommand {
+    public SubCommandRecipeCache() {
+        super("recipeCache", Side.SERVER);
+    }
+
+    @Override
+    public String getUsage() {
+        return "Get crafting recipe cache statistics.";
+    }
+
+    @Override
+    public void execute(MinecraftServer server, ICommandSender sender, String[] args) {
+        CacheStats stats = FastRecipeLookup.getResultCacheStats();
+        if (stats == null) {
+            sender.sendMessage(new TextComponentString("Recipe caching is disabled or has not been used yet."));
+            return;
+        }
+
+        sender.sendMessage(new TextComponentString(String.format("%d cached, %.1f%% hits (%d/%d), %d evicted",
+                FastRecipeLookup.getResultCacheSize(),
+                stats.hitRate() * 100, stats.hitCount(), stats.requestCount(), stats.evictionCount())));
+    }
+}
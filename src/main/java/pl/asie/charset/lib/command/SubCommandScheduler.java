@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.lib.command;
+
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.world.World;
+import net.minecraftforge.fml.relauncher.Side;
+import pl.asie.charset.lib.scheduler.Scheduler;
+
+import java.util.Map;
+
+public class SubCommandScheduler extends SubCommand {
+    public SubCommandScheduler() {
+        super("scheduler", Side.SERVER);
+    }
+
+    @Override
+    public String getUsage() {
+        return "Report pending and deferred scheduled events per world.";
+    }
+
+    @Override
+    public void execute(MinecraftServer server, ICommandSender sender, String[] args) {
+        for (Map.Entry<World, Scheduler.WorldSchedule> entry : Scheduler.INSTANCE.getSchedules().entrySet()) {
+            if (entry.getKey().isRemote) {
+                continue;
+            }
+
+            sender.sendMessage(new TextComponentString("Dimension " + entry.getKey().provider.getDimension()
+                    + ": " + entry.getValue().getPendingCount() + " pending, "
+                    + entry.getValue().getDeferredCount() + " deferred"));
+        }
+    }
+}
@@ -19,6 +19,9 @@
 
 package pl.asie.charset.lib.material;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import gnu.trove.map.TIntObjectMap;
 import gnu.trove.map.TObjectIntMap;
 import gnu.trove.map.hash.TIntObjectHashMap;
@@ -29,13 +32,16 @@ import net.minecraft.inventory.InventoryCrafting;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.crafting.*;
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.NonNullList;
 import net.minecraft.world.World;
 import net.minecraftforge.common.crafting.IShapedRecipe;
 import net.minecraftforge.common.crafting.IngredientNBT;
 import net.minecraftforge.fml.common.registry.ForgeRegistries;
+import net.minecraftforge.oredict.OreIngredient;
 import net.minecraftforge.oredict.ShapedOreRecipe;
 import net.minecraftforge.oredict.ShapelessOreRecipe;
+import pl.asie.charset.lib.CharsetLib;
 import pl.asie.charset.lib.recipe.RecipeCharset;
 import pl.asie.charset.lib.utils.RecipeUtils;
 
@@ -88,10 +94,203 @@ public class FastRecipeLookup {
 
 	private static List<Collection<IRecipe>> recipeLists = new ArrayList<>();
 	private static TIntObjectMap<Collection<IRecipe>> shapelessOneElement = new TIntObjectHashMap<>();
+	// 0-17: item ID -> recipes, mirroring the shapeless/shaped recipeLists
+	// buckets; recipes which cannot be indexed stay in recipeLists
+	private static List<TIntObjectMap<Collection<IRecipe>>> recipeIndex = new ArrayList<>();
+
+	// recipes of classes not known to be sane, mirroring recipeLists 18-27;
+	// these may depend on more than the items in the grid
+	private static List<Collection<IRecipe>> unsaneRecipeLists = new ArrayList<>();
+	private static Set<IRecipe> weirdRecipes = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	private static Cache<GridKey, Optional<IRecipe>> resultCache;
+
+	private static final class GridKey {
+		// the weird recipes are matched against the untrimmed grid, so its
+		// size and the position of the trimmed area are part of the key
+		private final int gridWidth, gridHeight, x, y;
+		private final int width, height;
+		private final Item[] items;
+		private final int[] metas;
+		private final NBTTagCompound[] tags;
+		private final int hash;
+
+		private GridKey(int gridWidth, int gridHeight, int x, int y, int width, int height, Item[] items, int[] metas, NBTTagCompound[] tags) {
+			this.gridWidth = gridWidth;
+			this.gridHeight = gridHeight;
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+			this.items = items;
+			this.metas = metas;
+			this.tags = tags;
+
+			int h = ((gridWidth * 7 + gridHeight) * 7 + x) * 7 + y;
+			h = h * 31 + width * 3 + height;
+			for (int i = 0; i < items.length; i++) {
+				h = h * 31 + System.identityHashCode(items[i]);
+				h = h * 31 + metas[i];
+				h = h * 31 + (tags[i] != null ? tags[i].hashCode() : 0);
+			}
+			this.hash = h;
+		}
+
+		private static GridKey create(InventoryCrafting craftMatrix, int x, int y, int width, int height) {
+			Item[] items = new Item[width * height];
+			int[] metas = new int[width * height];
+			NBTTagCompound[] tags = new NBTTagCompound[width * height];
+
+			for (int iy = 0; iy < height; iy++) {
+				for (int ix = 0; ix < width; ix++) {
+					ItemStack stack = craftMatrix.getStackInRowAndColumn(x + ix, y + iy);
+					int i = iy * width + ix;
+					if (!stack.isEmpty()) {
+						items[i] = stack.getItem();
+						metas[i] = stack.getMetadata();
+						tags[i] = stack.getTagCompound();
+					}
+				}
+			}
+
+			return new GridKey(craftMatrix.getWidth(), craftMatrix.getHeight(), x, y, width, height, items, metas, tags);
+		}
+
+		/**
+		 * @return A copy of this key which does not share NBT tags with the grid's stacks.
+		 */
+		private GridKey copy() {
+			NBTTagCompound[] tagsCopy = new NBTTagCompound[tags.length];
+			for (int i = 0; i < tags.length; i++) {
+				if (tags[i] != null) {
+					tagsCopy[i] = tags[i].copy();
+				}
+			}
+			return new GridKey(gridWidth, gridHeight, x, y, width, height, items, metas, tagsCopy);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (o == this) {
+				return true;
+			} else if (!(o instanceof GridKey)) {
+				return false;
+			}
+
+			GridKey other = (GridKey) o;
+			return other.hash == hash && other.width == width && other.height == height
+					&& other.gridWidth == gridWidth && other.gridHeight == gridHeight && other.x == x && other.y == y
+					&& Arrays.equals(other.items, items) && Arrays.equals(other.metas, metas) && Arrays.equals(other.tags, tags);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
 
 	public static void clearRecipeLists() {
 		recipeLists.clear();
 		shapelessOneElement.clear();
+		recipeIndex.clear();
+		unsaneRecipeLists.clear();
+		weirdRecipes.clear();
+		if (resultCache != null) {
+			resultCache.invalidateAll();
+		}
+	}
+
+	@Nullable
+	public static CacheStats getResultCacheStats() {
+		return resultCache != null ? resultCache.stats() : null;
+	}
+
+	public static long getResultCacheSize() {
+		return resultCache != null ? resultCache.size() : 0;
+	}
+
+	/**
+	 * @return The set of item IDs an ingredient can match, or null if it
+	 * cannot be determined up front.
+	 */
+	@Nullable
+	private static TIntSet getIdentifiers(Ingredient ing) {
+		Class c = ing.getClass();
+		if (c != Ingredient.class && c != IngredientNBT.class && c != OreIngredient.class) {
+			return null;
+		}
+
+		ItemStack[] stacks = ing.getMatchingStacks();
+		if (stacks.length == 0) {
+			return null;
+		}
+
+		TIntSet set = new TIntHashSet();
+		for (ItemStack stack : stacks) {
+			set.add(toIntIdentifier(stack));
+		}
+		return set;
+	}
+
+	private static void addIndexed(IRecipe recipe, int bucket, TIntSet identifiers) {
+		TIntObjectMap<Collection<IRecipe>> map = recipeIndex.get(bucket);
+		identifiers.forEach((i) -> {
+			Collection<IRecipe> list = map.get(i);
+			if (list == null) {
+				list = new ArrayList<>();
+				map.put(i, list);
+			}
+			list.add(recipe);
+			return true;
+		});
+	}
+
+	private static void addShaped(IRecipe recipe, int width, int height) {
+		int bucket = 9 + (width - 1) * 3 + (height - 1);
+		NonNullList<Ingredient> ingredients = recipe.getIngredients();
+
+		// The recipe cannot be trimmed, so its top row is also the top row
+		// of any matching (trimmed) grid. Index it by the first non-empty
+		// ingredient of that row - and by the last one, in case of mirroring.
+		int first = 0;
+		while (ingredients.get(first) == Ingredient.EMPTY) {
+			first++;
+		}
+		int last = width - 1;
+		while (ingredients.get(last) == Ingredient.EMPTY) {
+			last--;
+		}
+
+		TIntSet identifiers = getIdentifiers(ingredients.get(first));
+		TIntSet identifiersMirrored = first == last ? identifiers : getIdentifiers(ingredients.get(last));
+		if (identifiers == null || identifiersMirrored == null) {
+			recipeLists.get(bucket).add(recipe);
+		} else {
+			if (identifiersMirrored != identifiers) {
+				identifiers.addAll(identifiersMirrored);
+			}
+			addIndexed(recipe, bucket, identifiers);
+		}
+	}
+
+	private static void addShapeless(IRecipe recipe, int count) {
+		int bucket = count - 1;
+
+		// Every ingredient has to be present in a matching grid, so it is
+		// enough to index the recipe by the most specific one.
+		TIntSet identifiers = null;
+		for (Ingredient ing : recipe.getIngredients()) {
+			TIntSet set = getIdentifiers(ing);
+			if (set != null && (identifiers == null || identifiers.size() > set.size())) {
+				identifiers = set;
+			}
+		}
+
+		if (identifiers == null) {
+			recipeLists.get(bucket).add(recipe);
+		} else {
+			addIndexed(recipe, bucket, identifiers);
+		}
 	}
 
 	private static void addShapelessOneElement(IRecipe recipe, int i) {
@@ -137,6 +336,13 @@ public class FastRecipeLookup {
 			return;
 		}
 
+		if (resultCache == null && CharsetLib.recipeCacheSize > 0) {
+			resultCache = CacheBuilder.newBuilder()
+					.maximumSize(CharsetLib.recipeCacheSize)
+					.recordStats()
+					.build();
+		}
+
 		if (recipeLists.isEmpty()) {
 			// 0-8: shapeless 1-9 ingredients
 			// 9-17: shaped 1-9 w/h
@@ -197,8 +403,7 @@ public class FastRecipeLookup {
 							if (width * height == 1) {
 								addShapelessOneElement(irecipe);
 							} else {
-								int wh = (width - 1) * 3 + (height - 1);
-								recipeLists.get(9 + wh).add(irecipe);
+								addShaped(irecipe, width, height);
 							}
 						}
 					} else {
@@ -216,7 +421,7 @@ public class FastRecipeLookup {
 							if (ings.size() == 1) {
 								addShapelessOneElement(irecipe);
 							} else {
-								recipeLists.get(ings.size() - 1).add(irecipe);
+								addShapeless(irecipe, ings.size());
 							}
 						}
 					}
@@ -246,13 +451,24 @@ public class FastRecipeLookup {
 				}
 			}
 
+			for (int i = 18; i < 28; i++) {
+				Collection<IRecipe> unsaneRecipes = new ArrayList<>();
+				for (IRecipe irecipe : recipeLists.get(i)) {
+					weirdRecipes.add(irecipe);
+					if (!saneClasses.contains(irecipe.getClass())) {
+						unsaneRecipes.add(irecipe);
+					}
+				}
+				unsaneRecipeLists.add(unsaneRecipes);
+			}
+
 			if (DEBUG) {
 				System.out.println("SHAPELESS ONE ELEMENT = " + shapelessOneElement.size() + " lists");
 				for (int i = 0; i < 9; i++) {
-					System.out.println("SHAPELESS " + (i + 1) + " = " + recipeLists.get(i).size());
+					System.out.println("SHAPELESS " + (i + 1) + " = " + recipeLists.get(i).size() + " unindexed, " + recipeIndex.get(i).size() + " keys");
 				}
 				for (int i = 0; i < 9; i++) {
-					System.out.println("SHAPED " + ((i % 3) + 1) + "x" + ((i / 3) + 1) + " = " + recipeLists.get(i + 9).size());
+					System.out.println("SHAPED " + ((i / 3) + 1) + "x" + ((i % 3) + 1) + " = " + recipeLists.get(i + 9).size() + " unindexed, " + recipeIndex.get(i + 9).size() + " keys");
 				}
 				for (int i = 0; i < 9; i++) {
 					System.out.println("WEIRD " + (i + 1) + " = " + recipeLists.get(i + 18).size());
@@ -350,6 +566,58 @@ public class FastRecipeLookup {
 			}
 		}
 
+		initRecipeLists();
+		if (resultCache == null) {
+			return findMatchingRecipeTrimmed(craftMatrix, x, y, width, height, worldIn);
+		}
+
+		GridKey key = GridKey.create(craftMatrix, x, y, width, height);
+		Optional<IRecipe> cached = resultCache.getIfPresent(key);
+		if (cached != null) {
+			return cached.orElse(null);
+		}
+
+		IRecipe recipe = findMatchingRecipeTrimmed(craftMatrix, x, y, width, height, worldIn);
+		// Only the sane recipe classes are known not to care about stack
+		// sizes, capabilities and the like, which are not part of the key.
+		// Misses, as well as matches among the weird recipes, can also be
+		// the result of other recipes saying no, which must be sane too.
+		// (Whitespace-dependent sane recipes are covered by the key, which
+		// also holds the grid size and the position of the trimmed area.)
+		boolean cacheable;
+		if (recipe != null && !saneClasses.contains(recipe.getClass())) {
+			cacheable = false;
+		} else if (recipe == null || weirdRecipes.contains(recipe)) {
+			cacheable = !canConsultUnsaneRecipes(width, height, craftMatrix.getWidth(), craftMatrix.getHeight());
+		} else {
+			cacheable = true;
+		}
+
+		if (cacheable) {
+			resultCache.put(key.copy(), Optional.ofNullable(recipe));
+		}
+		return recipe;
+	}
+
+	/**
+	 * @return Whether a lookup which does not find a recipe would have
+	 * consulted a recipe of a class not known to be sane.
+	 */
+	private static boolean canConsultUnsaneRecipes(int width, int height, int untrimmedWidth, int untrimmedHeight) {
+		// mirrors the canFit checks of findMatchingRecipeQuickly
+		int base = width * height - 1;
+		for (int r = 0; r < 9; r++) {
+			for (IRecipe irecipe : unsaneRecipeLists.get(r)) {
+				if (r <= base ? irecipe.canFit(width, height) : irecipe.canFit(untrimmedWidth, untrimmedHeight)) {
+					return true;
+				}
+			}
+		}
+
+		return !unsaneRecipeLists.get(9).isEmpty();
+	}
+
+	private static IRecipe findMatchingRecipeTrimmed(InventoryCrafting craftMatrix, int x, int y, int width, int height, World worldIn) {
 		// create trimmed matrix
 		if (width == craftMatrix.getWidth() && height == craftMatrix.getHeight()) {
 			int nonEmptyStacks = 0;
@@ -378,6 +646,19 @@ public class FastRecipeLookup {
 		}
 	}
 
+	@Nullable
+	private static IRecipe findMatchingRecipe(@Nullable Collection<IRecipe> recipes, InventoryCrafting craftMatrix, World worldIn) {
+		if (recipes != null) {
+			for (IRecipe irecipe : recipes) {
+				if (irecipe.matches(craftMatrix, worldIn)) {
+					return irecipe;
+				}
+			}
+		}
+
+		return null;
+	}
+
 	protected static IRecipe findMatchingRecipeQuickly(boolean noShapeless, int nonEmptyStacks, InventoryCrafting craftMatrix, World worldIn) {
 		return findMatchingRecipeQuickly(noShapeless, nonEmptyStacks, craftMatrix, null, worldIn);
 	}
@@ -394,11 +675,24 @@ public class FastRecipeLookup {
 
 		// shaped tree
 		if ((width * height) >= 2) {
-			for (IRecipe irecipe : recipeLists.get(9 + (width - 1) * 3 + (height - 1))) {
-				if (irecipe.matches(craftMatrix, worldIn)) {
-					return irecipe;
+			int bucket = 9 + (width - 1) * 3 + (height - 1);
+			ItemStack first = ItemStack.EMPTY;
+			for (int i = 0; i < width; i++) {
+				first = craftMatrix.getStackInSlot(i);
+				if (!first.isEmpty()) break;
+			}
+
+			if (!first.isEmpty()) {
+				IRecipe recipe = findMatchingRecipe(recipeIndex.get(bucket).get(toIntIdentifier(first)), craftMatrix, worldIn);
+				if (recipe != null) {
+					return recipe;
 				}
 			}
+
+			IRecipe recipe = findMatchingRecipe(recipeLists.get(bucket), craftMatrix, worldIn);
+			if (recipe != null) {
+				return recipe;
+			}
 		}
 
 		if (nonEmptyStacks == 1) {
@@ -422,12 +716,39 @@ public class FastRecipeLookup {
 					return recipe;
 				}
 			}
-		} else if (!noShapeless && nonEmptyStacks > 1) {
-			for (IRecipe irecipe : recipeLists.get(nonEmptyStacks - 1)) {
-				if (irecipe.matches(craftMatrix, worldIn)) {
-					return irecipe;
+		} else if (!noShapeless && nonEmptyStacks > 1 && nonEmptyStacks <= 9) {
+			TIntObjectMap<Collection<IRecipe>> map = recipeIndex.get(nonEmptyStacks - 1);
+			if (!map.isEmpty()) {
+				int[] checked = new int[nonEmptyStacks];
+				int checkedCount = 0;
+
+				for (int i = 0; i < (width * height); i++) {
+					ItemStack stack = craftMatrix.getStackInSlot(i);
+					if (stack.isEmpty()) continue;
+
+					int id = toIntIdentifier(stack);
+					boolean isChecked = false;
+					for (int j = 0; j < checkedCount; j++) {
+						if (checked[j] == id) {
+							isChecked = true;
+							break;
+						}
+					}
+
+					if (!isChecked && checkedCount < checked.length) {
+						checked[checkedCount++] = id;
+						IRecipe recipe = findMatchingRecipe(map.get(id), craftMatrix, worldIn);
+						if (recipe != null) {
+							return recipe;
+						}
+					}
 				}
 			}
+
+			IRecipe recipe = findMatchingRecipe(recipeLists.get(nonEmptyStacks - 1), craftMatrix, worldIn);
+			if (recipe != null) {
+				return recipe;
+			}
 		}
 
 		// first, check recipes which are smaller
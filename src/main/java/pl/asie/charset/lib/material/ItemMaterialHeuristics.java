@@ -20,6 +20,8 @@
 package pl.asie.charset.lib.material;
 
 import com.google.common.base.Joiner;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import gnu.trove.map.TIntObjectMap;
 import gnu.trove.map.hash.TIntObjectHashMap;
 import net.minecraft.block.Block;
@@ -30,15 +32,20 @@ import net.minecraft.inventory.InventoryCrafting;
 import net.minecraft.item.ItemBlock;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.crafting.*;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.NonNullList;
 import net.minecraft.world.World;
 import net.minecraftforge.common.crafting.IShapedRecipe;
+import net.minecraftforge.fml.common.Loader;
+import net.minecraftforge.fml.common.ModContainer;
 import net.minecraftforge.fml.common.ProgressManager;
 import net.minecraftforge.fml.common.registry.ForgeRegistries;
 import net.minecraftforge.oredict.OreDictionary;
 import net.minecraftforge.oredict.ShapedOreRecipe;
 import net.minecraftforge.oredict.ShapelessOreRecipe;
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import pl.asie.charset.ModCharset;
 import pl.asie.charset.lib.CharsetLib;
 import pl.asie.charset.lib.recipe.RecipeCharset;
@@ -50,11 +57,15 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public final class ItemMaterialHeuristics {
     private static int initPhase = 0;
@@ -87,74 +98,114 @@ public final class ItemMaterialHeuristics {
         }
     }
 
-    private static void findSlab(ItemMaterial base) {
+    /**
+     * Runs a probe - a function which only looks up crafting results and
+     * does not touch the registry - for every input, in parallel if enabled.
+     * The results are returned in input order, so that applying them keeps
+     * the registration order of a serial scan. An input whose probe throws
+     * gets a null result.
+     */
+    private static <T> List<ItemStack[]> probeAll(List<T> inputs, Function<T, ItemStack[]> probe) {
+        Stream<T> stream = CharsetLib.parallelMaterialScanning ? inputs.parallelStream() : inputs.stream();
+        return stream.map((input) -> {
+            try {
+                return probe.apply(input);
+            } catch (Exception e) {
+                ModCharset.logger.warn("Could not probe material heuristics for " + input + "!", e);
+                return null;
+            }
+        }).collect(Collectors.toList());
+    }
+
+    private static ItemStack[] probeSlabAndStair(ItemMaterial base) {
+        if (!base.getTypes().contains("block"))
+            return null;
+
+        ItemStack slab = ItemStack.EMPTY;
+        ItemStack stair = ItemStack.EMPTY;
+
+        if (base.getRelated("slab") == null) {
+            slab = FastRecipeLookup.getCraftingResultQuickly(true, 3, null, 3, 1,
+                    base.getStack(), base.getStack(), base.getStack());
+        }
+
+        if (base.getRelated("stairs") == null) {
+            stair = FastRecipeLookup.getCraftingResultQuickly(true, 6, null, 3, 3,
+                    base.getStack(), null, null,
+                    base.getStack(), base.getStack(), null,
+                    base.getStack(), base.getStack(), base.getStack());
+        }
+
+        return new ItemStack[] { slab, stair };
+    }
+
+    private static void findSlab(ItemMaterial base, ItemStack slab) {
         if (!base.getTypes().contains("block") || base.getRelated("slab") != null)
             return;
 
-        ItemStack slab = FastRecipeLookup.getCraftingResultQuickly(true, 3, null, 3, 1,
-                base.getStack(), base.getStack(), base.getStack());
         if (isBlock(slab)) {
             addResultingBlock(base, slab, "block", "slab");
         }
     }
 
-    private static void findStair(ItemMaterial base) {
+    private static void findStair(ItemMaterial base, ItemStack stair) {
         if (!base.getTypes().contains("block") || base.getRelated("stairs") != null)
             return;
 
-        ItemStack stair = FastRecipeLookup.getCraftingResultQuickly(true, 6, null, 3, 3,
-                base.getStack(), null, null,
-                base.getStack(), base.getStack(), null,
-                base.getStack(), base.getStack(), base.getStack());
         if (isBlock(stair)) {
             addResultingBlock(base, stair, "block", "stairs");
         }
     }
 
-    private static void initLogMaterial(ItemStack log) {
+    private static ItemStack[] probeLog(ItemStack log) {
         if (!isBlock(log))
-            return;
+            return null;
 
+        // We look for the plank first to ensure only valid logs
+        // get registered.
+
+        ItemStack plank = FastRecipeLookup.getCraftingResultQuickly(false, 1,null, 1, 1, log);
+        if (!isBlock(plank) || !ItemUtils.isOreType(plank, "plankWood"))
+            return null;
+
+        plank.setCount(1);
+        ItemStack stick = FastRecipeLookup.getCraftingResultQuickly(true, 2, null, 1, 2,
+                plank,
+                plank);
+        if (!stick.isEmpty() && !ItemUtils.isOreType(stick, "stickWood")) {
+            stick = ItemStack.EMPTY;
+        }
+
+        if (stick.isEmpty()) {
+            stick = new ItemStack(Items.STICK);
+        } else {
+            stick.setCount(1);
+        }
+
+        return new ItemStack[] { plank, stick };
+    }
+
+    private static void initLogMaterial(ItemStack log, ItemStack plank, ItemStack stick) {
         // Check if already registered
         ItemMaterial material = reg.getMaterialIfPresent(log);
         if (material != null && material.getTypes().contains("log")) {
             return;
         }
 
-        // We look for the plank first to ensure only valid logs
-        // get registered.
-
-        ItemStack plank = FastRecipeLookup.getCraftingResultQuickly(false, 1,null, 1, 1, log);
-        if (isBlock(plank) && ItemUtils.isOreType(plank, "plankWood")) {
-            ItemMaterial logMaterial = reg.getOrCreateMaterial(log);
-            if (reg.registerTypes(logMaterial, "log", "wood", "block")) {
-                plank.setCount(1);
-                ItemMaterial plankMaterial = reg.getOrCreateMaterial(plank);
-                if (reg.registerTypes(plankMaterial, "plank", "wood", "block")) {
-                    reg.registerRelation(logMaterial, plankMaterial, "plank", "log");
-
-                    ItemStack stick = FastRecipeLookup.getCraftingResultQuickly(true, 2, null, 1, 2,
-                            plank,
-                            plank);
-                    if (!stick.isEmpty() && !ItemUtils.isOreType(stick, "stickWood")) {
-                        stick = ItemStack.EMPTY;
-                    }
-
-                    if (stick.isEmpty()) {
-                        stick = new ItemStack(Items.STICK);
+        ItemMaterial logMaterial = reg.getOrCreateMaterial(log);
+        if (reg.registerTypes(logMaterial, "log", "wood", "block")) {
+            ItemMaterial plankMaterial = reg.getOrCreateMaterial(plank);
+            if (reg.registerTypes(plankMaterial, "plank", "wood", "block")) {
+                reg.registerRelation(logMaterial, plankMaterial, "plank", "log");
+
+                ItemMaterial stickMaterial = reg.getOrCreateMaterial(stick);
+                if (reg.registerTypes(stickMaterial, "stick", "wood", "item")) {
+                    if (stick.getItem() != Items.STICK) {
+                        reg.registerRelation(plankMaterial, stickMaterial, "stick", "plank");
+                        reg.registerRelation(logMaterial, stickMaterial, "stick", "log");
                     } else {
-                        stick.setCount(1);
-                    }
-
-                    ItemMaterial stickMaterial = reg.getOrCreateMaterial(stick);
-                    if (reg.registerTypes(stickMaterial, "stick", "wood", "item")) {
-                        if (stick.getItem() != Items.STICK) {
-                            reg.registerRelation(plankMaterial, stickMaterial, "stick", "plank");
-                            reg.registerRelation(logMaterial, stickMaterial, "stick", "log");
-                        } else {
-                            reg.registerRelation(plankMaterial, stickMaterial, "stick");
-                            reg.registerRelation(logMaterial, stickMaterial, "stick");
-                        }
+                        reg.registerRelation(plankMaterial, stickMaterial, "stick");
+                        reg.registerRelation(logMaterial, stickMaterial, "stick");
                     }
                 }
             }
@@ -175,8 +226,43 @@ public final class ItemMaterialHeuristics {
         return -1;
     }
 
+    private static ItemStack[] probeIngotLike(String oreName, ItemStack stack) {
+        int splitPoint = indexOfUpper(oreName, 0);
+        if (splitPoint < 0) return null;
+
+        String prefix = oreName.substring(0, splitPoint);
+        String suffixU = oreName.substring(splitPoint);
+
+        if (prefix.equals("ingot") && suffixU.startsWith("Brick")) {
+            // Try crafting a block
+            ItemStack block = FastRecipeLookup.getCraftingResultQuickly(true, 4, null, 2, 2,
+                    stack, stack,
+                    stack, stack);
+            return new ItemStack[] { block };
+        }
+
+        // Try crafting a nugget
+        ItemStack nugget = ItemStack.EMPTY;
+        if (prefix.equals("ingot")) {
+            nugget = FastRecipeLookup.getCraftingResultQuickly(false, 1, null, 1, 1,
+                    stack);
+        }
+
+        // Try crafting a block
+        ItemStack block = FastRecipeLookup.getCraftingResultQuickly(false, 9, null, 3, 3,
+                stack, stack, stack,
+                stack, stack, stack,
+                stack, stack, stack);
+        ItemStack reverse = ItemStack.EMPTY;
+        if (!block.isEmpty() && !containsOreDict(block, "block" + suffixU) && block.getItem() instanceof ItemBlock) {
+            reverse = FastRecipeLookup.getCraftingResultQuickly(false, 1, null, 1, 1, block.copy());
+        }
+
+        return new ItemStack[] { nugget, block, reverse };
+    }
+
     // TODO: Tie ores to ingots
-    private static void initIngotLikeMaterial(String oreName, ItemStack stack) {
+    private static void initIngotLikeMaterial(String oreName, ItemStack stack, ItemStack[] probes) {
         int splitPoint = indexOfUpper(oreName, 0);
         if (splitPoint < 0) return;
 
@@ -194,10 +280,7 @@ public final class ItemMaterialHeuristics {
                     reg.registerType(ingotMat, suffix2);
                 }
 
-                // Try crafting a block
-                ItemStack block = FastRecipeLookup.getCraftingResultQuickly(true, 4, null, 2, 2,
-                        stack, stack,
-                        stack, stack);
+                ItemStack block = probes[0];
                 if (!block.isEmpty() && block.getItem() instanceof ItemBlock) {
                     ItemMaterial blockMat = reg.getOrCreateMaterial(block);
                     reg.registerTypes(blockMat, suffix, "block");
@@ -209,10 +292,8 @@ public final class ItemMaterialHeuristics {
         }
 
         if (reg.registerTypes(ingotMat, prefix, suffix, "item")) {
-            // Try crafting a nugget
             if (prefix.equals("ingot")) {
-                ItemStack nugget = FastRecipeLookup.getCraftingResultQuickly(false, 1, null, 1, 1,
-                        stack);
+                ItemStack nugget = probes[0];
                 if (!nugget.isEmpty() && containsOreDict(nugget, "nugget" + suffixU)) {
                     ItemMaterial nuggetMat = reg.getOrCreateMaterial(nugget);
                     reg.registerTypes(nuggetMat, "nugget", suffix, "item");
@@ -220,18 +301,14 @@ public final class ItemMaterialHeuristics {
                 }
             }
 
-            // Try crafting a block
-            ItemStack block = FastRecipeLookup.getCraftingResultQuickly(false, 9, null, 3, 3,
-                    stack, stack, stack,
-                    stack, stack, stack,
-                    stack, stack, stack);
+            ItemStack block = probes[1];
             if (!block.isEmpty()) {
                 // Fancy heuristics for non-oredict-reg'd variants (Base Metals obsidian, redstone ingots)
                 boolean isBlockVariant = containsOreDict(block, "block" + suffixU);
                 if (!isBlockVariant) {
                     isBlockVariant = (block.getItem() instanceof ItemBlock);
                     if (isBlockVariant) {
-                        ItemStack reverse = FastRecipeLookup.getCraftingResultQuickly(false, 1, null, 1, 1, block.copy());
+                        ItemStack reverse = probes[2];
                         if (!reverse.isEmpty() && ItemUtils.equals(reverse, stack, false, true, true) && reverse.getCount() == 9) {
                             isBlockVariant = true;
                         }
@@ -261,8 +338,17 @@ public final class ItemMaterialHeuristics {
         }));
     }
 
-    private static void initStoneMaterial(String oreName, ItemStack stack) {
-        if (oreName.endsWith("Polished") || !isBlock(stack)) return;
+    private static ItemStack[] probeStone(String oreName, ItemStack stack) {
+        if (oreName.endsWith("Polished") || !isBlock(stack)) return null;
+
+        // Try crafting a brick
+        ItemStack block = FastRecipeLookup.getCraftingResultQuickly(true, 4, null, 2, 2,
+                stack, stack,
+                stack, stack);
+        return new ItemStack[] { block };
+    }
+
+    private static void initStoneMaterial(String oreName, ItemStack stack, ItemStack[] probes) {
 
         String prefix = "stone";
         String suffixU = oreName.substring(prefix.length());
@@ -270,10 +356,7 @@ public final class ItemMaterialHeuristics {
 
         ItemMaterial stoneMat = reg.getOrCreateMaterial(stack);
         if (reg.registerTypes(stoneMat, "stone", suffix, "block")) {
-            // Try crafting a brick
-            ItemStack block = FastRecipeLookup.getCraftingResultQuickly(true, 4, null, 2, 2,
-                    stack, stack,
-                    stack, stack);
+            ItemStack block = probes[0];
             if (!block.isEmpty()) {
                 ItemMaterial brickMat = reg.getOrCreateMaterial(block);
                 reg.registerTypes(brickMat, "stone", "brick", suffix, "block");
@@ -313,6 +396,93 @@ public final class ItemMaterialHeuristics {
         }
     }
 
+    private static void hashStack(Hasher hasher, ItemStack stack) {
+        hasher.putString(String.valueOf(stack.getItem().getRegistryName()), StandardCharsets.UTF_8);
+        hasher.putInt(stack.getMetadata());
+        hasher.putInt(stack.getCount());
+        if (stack.hasTagCompound()) {
+            hasher.putString(stack.getTagCompound().toString(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * @return A hash of everything the modded scan depends on: the mod list,
+     * the crafting and smelting recipes and the ore dictionary.
+     */
+    private static String getCacheHash() {
+        Hasher hasher = Hashing.sha1().newHasher();
+
+        for (ModContainer container : Loader.instance().getActiveModList()) {
+            hasher.putString(container.getModId(), StandardCharsets.UTF_8);
+            hasher.putString(container.getVersion(), StandardCharsets.UTF_8);
+        }
+
+        for (IRecipe recipe : ForgeRegistries.RECIPES) {
+            hasher.putString(String.valueOf(recipe.getRegistryName()), StandardCharsets.UTF_8);
+            hasher.putString(recipe.getClass().getName(), StandardCharsets.UTF_8);
+            hashStack(hasher, recipe.getRecipeOutput());
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                hasher.putString(ingredient.getClass().getName(), StandardCharsets.UTF_8);
+                for (ItemStack stack : ingredient.getMatchingStacks()) {
+                    hashStack(hasher, stack);
+                }
+            }
+        }
+
+        for (Map.Entry<ItemStack, ItemStack> entry : FurnaceRecipes.instance().getSmeltingList().entrySet()) {
+            hashStack(hasher, entry.getKey());
+            hashStack(hasher, entry.getValue());
+        }
+
+        for (String oreName : OreDictionary.getOreNames()) {
+            hasher.putString(oreName, StandardCharsets.UTF_8);
+            for (ItemStack stack : OreDictionary.getOres(oreName, false)) {
+                hashStack(hasher, stack);
+            }
+        }
+
+        return hasher.hash().toString();
+    }
+
+    private static File getCacheFile() {
+        return new File(new File(ModCharset.getConfigDir(), "cache"), "lib.itemMaterials.dat");
+    }
+
+    private static boolean loadCache(String hash) {
+        File file = getCacheFile();
+        if (!file.isFile()) {
+            return false;
+        }
+
+        try {
+            NBTTagCompound compound = CompressedStreamTools.read(file);
+            if (compound == null || !hash.equals(compound.getString("hash"))) {
+                return false;
+            }
+
+            return reg.deserialize(compound.getCompoundTag("registry"));
+        } catch (Exception e) {
+            ModCharset.logger.warn("Could not read cached material heuristics!", e);
+            return false;
+        }
+    }
+
+    private static void saveCache(String hash) {
+        File file = getCacheFile();
+        try {
+            if (!file.getParentFile().isDirectory()) {
+                file.getParentFile().mkdirs();
+            }
+
+            NBTTagCompound compound = new NBTTagCompound();
+            compound.setString("hash", hash);
+            compound.setTag("registry", reg.serialize());
+            CompressedStreamTools.safeWrite(compound, file);
+        } catch (IOException e) {
+            ModCharset.logger.warn("Could not write cached material heuristics!", e);
+        }
+    }
+
     public static void init(boolean modded) {
         FastRecipeLookup.clearRecipeLists();
         if (modded) {
@@ -323,11 +493,27 @@ public final class ItemMaterialHeuristics {
         if (initPhase >= (modded ? 2 : 1))
             return;
 
-        ProgressManager.ProgressBar bar = ProgressManager.push("Material scanning", 6);
-
         reg = ItemMaterialRegistry.INSTANCE;
         initPhase = (modded ? 2 : 1);
 
+        String cacheHash = null;
+        if (modded && CharsetLib.cacheMaterialScanning) {
+            try {
+                cacheHash = getCacheHash();
+            } catch (Exception e) {
+                ModCharset.logger.warn("Could not hash the material heuristics inputs - not caching!", e);
+            }
+
+            if (cacheHash != null && loadCache(cacheHash)) {
+                time = System.currentTimeMillis() - time;
+                ModCharset.logger.info("Charset material heuristics time (phase " + initPhase + ", cached): " + time + "ms");
+                dumpDebugInfo();
+                return;
+            }
+        }
+
+        ProgressManager.ProgressBar bar = ProgressManager.push("Material scanning", 6);
+
         bar.step("Wood");
         // Pre-initialize impl woods
         if (!modded) {
@@ -349,7 +535,15 @@ public final class ItemMaterialHeuristics {
                 }
             }
         } else {
-            supplyExpandedStacks(OreDictionary.getOres("logWood", false), ItemMaterialHeuristics::initLogMaterial);
+            List<ItemStack> logs = new ArrayList<>();
+            supplyExpandedStacks(OreDictionary.getOres("logWood", false), logs::add);
+            List<ItemStack[]> probes = probeAll(logs, ItemMaterialHeuristics::probeLog);
+            for (int i = 0; i < logs.size(); i++) {
+                ItemStack[] p = probes.get(i);
+                if (p != null) {
+                    initLogMaterial(logs.get(i), p[0], p[1]);
+                }
+            }
         }
 
         bar.step("Ores");
@@ -365,9 +559,18 @@ public final class ItemMaterialHeuristics {
         bar.step("Ingots/Dusts/Gems");
 
         if (modded) {
+            List<Pair<String, ItemStack>> stacks = new ArrayList<>();
             for (String oreName : OreDictionary.getOreNames()) {
                 if (oreName.startsWith("ingot") || oreName.startsWith("dust") || oreName.startsWith("gem")) {
-                    supplyExpandedStacks(OreDictionary.getOres(oreName, false), (s -> ItemMaterialHeuristics.initIngotLikeMaterial(oreName, s)));
+                    supplyExpandedStacks(OreDictionary.getOres(oreName, false), (s -> stacks.add(Pair.of(oreName, s))));
+                }
+            }
+
+            List<ItemStack[]> probes = probeAll(stacks, (p -> probeIngotLike(p.getLeft(), p.getRight())));
+            for (int i = 0; i < stacks.size(); i++) {
+                ItemStack[] p = probes.get(i);
+                if (p != null) {
+                    initIngotLikeMaterial(stacks.get(i).getLeft(), stacks.get(i).getRight(), p);
                 }
             }
         }
@@ -375,9 +578,18 @@ public final class ItemMaterialHeuristics {
         bar.step("Stones");
 
         if (modded) {
+            List<Pair<String, ItemStack>> stacks = new ArrayList<>();
             for (String oreName : OreDictionary.getOreNames()) {
                 if (oreName.startsWith("stone")) {
-                    supplyExpandedStacks(OreDictionary.getOres(oreName, false), (s -> ItemMaterialHeuristics.initStoneMaterial(oreName, s)));
+                    supplyExpandedStacks(OreDictionary.getOres(oreName, false), (s -> stacks.add(Pair.of(oreName, s))));
+                }
+            }
+
+            List<ItemStack[]> probes = probeAll(stacks, (p -> probeStone(p.getLeft(), p.getRight())));
+            for (int i = 0; i < stacks.size(); i++) {
+                ItemStack[] p = probes.get(i);
+                if (p != null) {
+                    initStoneMaterial(stacks.get(i).getLeft(), stacks.get(i).getRight(), p);
                 }
             }
 
@@ -395,17 +607,29 @@ public final class ItemMaterialHeuristics {
         bar.step("Slabs/Stairs");
 
         if (modded) {
-            for (ItemMaterial material : reg.getMaterialsByType("block")) {
-                findSlab(material);
-                findStair(material);
+            List<ItemMaterial> materials = new ArrayList<>(reg.getMaterialsByType("block"));
+            List<ItemStack[]> probes = probeAll(materials, ItemMaterialHeuristics::probeSlabAndStair);
+            for (int i = 0; i < materials.size(); i++) {
+                ItemStack[] p = probes.get(i);
+                if (p != null) {
+                    findSlab(materials.get(i), p[0]);
+                    findStair(materials.get(i), p[1]);
+                }
             }
         }
 
         ProgressManager.pop(bar);
 
+        if (cacheHash != null) {
+            saveCache(cacheHash);
+        }
+
         time = System.currentTimeMillis() - time;
         ModCharset.logger.info("Charset material heuristics time (phase " + initPhase + "): " + time + "ms");
+        dumpDebugInfo();
+    }
 
+    private static void dumpDebugInfo() {
         if (CharsetLib.enableDebugInfo && initPhase == 2) {
             try {
                 File outputFile = new File("charsetItemMaterials.txt");
@@ -24,7 +24,9 @@ import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTBase;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
 import net.minecraft.nbt.NBTTagString;
+import net.minecraftforge.common.util.Constants;
 import net.minecraft.util.text.translation.I18n;
 import pl.asie.charset.lib.utils.ItemUtils;
 
@@ -214,6 +216,99 @@ public class ItemMaterialRegistry {
 		return materialsById.values();
 	}
 
+	protected NBTTagCompound serialize() {
+		NBTTagCompound compound = new NBTTagCompound();
+
+		NBTTagList materials = new NBTTagList();
+		for (ItemMaterial material : materialsById.values()) {
+			NBTTagCompound materialCpd = new NBTTagCompound();
+			materialCpd.setString("id", material.getId());
+			materialCpd.setTag("stack", material.getStack().writeToNBT(new NBTTagCompound()));
+			NBTTagCompound relations = new NBTTagCompound();
+			for (Map.Entry<String, ItemMaterial> entry : material.getRelations().entrySet()) {
+				relations.setString(entry.getKey(), entry.getValue().getId());
+			}
+			materialCpd.setTag("relations", relations);
+			materials.appendTag(materialCpd);
+		}
+		compound.setTag("materials", materials);
+
+		// The per-type order decides the default material of a type, so it has to be kept.
+		NBTTagCompound types = new NBTTagCompound();
+		for (String type : materialsByType.keySet()) {
+			NBTTagList list = new NBTTagList();
+			for (ItemMaterial material : materialsByType.get(type)) {
+				list.appendTag(new NBTTagString(material.getId()));
+			}
+			types.setTag(type, list);
+		}
+		compound.setTag("types", types);
+
+		return compound;
+	}
+
+	/**
+	 * Adds the materials, types and relations stored by {@link #serialize()}
+	 * to the registry. Nothing is added if any of the stored materials is
+	 * no longer valid.
+	 *
+	 * @return Whether the data was added.
+	 */
+	protected boolean deserialize(NBTTagCompound compound) {
+		NBTTagList materials = compound.getTagList("materials", Constants.NBT.TAG_COMPOUND);
+		NBTTagCompound types = compound.getCompoundTag("types");
+		Map<String, ItemStack> stacks = new LinkedHashMap<>();
+
+		for (int i = 0; i < materials.tagCount(); i++) {
+			NBTTagCompound materialCpd = materials.getCompoundTagAt(i);
+			ItemStack stack = new ItemStack(materialCpd.getCompoundTag("stack"));
+			if (stack.isEmpty() || !createId(stack).equals(materialCpd.getString("id"))) {
+				return false;
+			}
+			stacks.put(materialCpd.getString("id"), stack);
+		}
+
+		for (int i = 0; i < materials.tagCount(); i++) {
+			NBTTagCompound relations = materials.getCompoundTagAt(i).getCompoundTag("relations");
+			for (String key : relations.getKeySet()) {
+				if (!stacks.containsKey(relations.getString(key))) {
+					return false;
+				}
+			}
+		}
+
+		for (String type : types.getKeySet()) {
+			NBTTagList list = types.getTagList(type, Constants.NBT.TAG_STRING);
+			for (int i = 0; i < list.tagCount(); i++) {
+				if (!stacks.containsKey(list.getStringTagAt(i))) {
+					return false;
+				}
+			}
+		}
+
+		for (ItemStack stack : stacks.values()) {
+			getOrCreateMaterial(stack);
+		}
+
+		for (String type : types.getKeySet()) {
+			NBTTagList list = types.getTagList(type, Constants.NBT.TAG_STRING);
+			for (int i = 0; i < list.tagCount(); i++) {
+				registerType(getMaterial(list.getStringTagAt(i)), type);
+			}
+		}
+
+		for (int i = 0; i < materials.tagCount(); i++) {
+			NBTTagCompound materialCpd = materials.getCompoundTagAt(i);
+			ItemMaterial source = getMaterial(materialCpd.getString("id"));
+			NBTTagCompound relations = materialCpd.getCompoundTag("relations");
+			for (String key : relations.getKeySet()) {
+				registerRelation(source, getMaterial(relations.getString(key)), key);
+			}
+		}
+
+		return true;
+	}
+
 	public boolean matches(ItemStack stack, ItemMaterial mat) {
 		return ItemUtils.canMerge(mat.getStack(), stack);
 	}
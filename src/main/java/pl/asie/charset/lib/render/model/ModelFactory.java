@@ -21,7 +21,9 @@ package pl.asie.charset.lib.render.model;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.block.model.BakedQuad;
@@ -39,18 +41,37 @@ import net.minecraftforge.client.model.ModelLoader;
 import net.minecraftforge.common.property.IExtendedBlockState;
 import net.minecraftforge.common.property.IUnlistedProperty;
 import pl.asie.charset.ModCharset;
+import pl.asie.charset.lib.CharsetLib;
 import pl.asie.charset.lib.utils.RenderUtils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 public abstract class ModelFactory<T extends IRenderComparable<T>> extends BaseBakedModel implements IStateParticleBakedModel {
     public static final boolean DISABLE_CACHE = ModCharset.INDEV;
     private static final Set<ModelFactory> FACTORIES = new HashSet<>();
+    private static final Collection<ModelFactory> FACTORIES_VIEW = Collections.unmodifiableCollection(FACTORIES);
+    private static boolean prewarmPending;
+
+    private static class CacheEntry {
+        private final IBakedModel model;
+        // Approximate, as it is updated from several render threads.
+        private int hits;
+
+        private CacheEntry(IBakedModel model) {
+            this.model = model;
+        }
+    }
 
     private static class MFItemOverride extends ItemOverrideList {
         public static final MFItemOverride INSTANCE = new MFItemOverride();
@@ -75,7 +96,9 @@ public abstract class ModelFactory<T extends IRenderComparable<T>> extends BaseB
         }
     }
 
-    private final Cache<ModelKey<T>, IBakedModel> cache;
+    private volatile Cache<ModelKey<T>, CacheEntry> cache;
+    private CacheStats pastStats = new CacheStats(0, 0, 0, 0, 0, 0);
+    private List<ModelKey<T>> prewarmKeys = Collections.emptyList();
     private final IUnlistedProperty<T> property;
     private final ResourceLocation particle;
 
@@ -84,16 +107,72 @@ public abstract class ModelFactory<T extends IRenderComparable<T>> extends BaseB
         FACTORIES.add(this);
 
         this.particle = particle;
-        this.cache = CacheBuilder.newBuilder().softValues().expireAfterAccess(1, TimeUnit.MINUTES).build();
+        this.cache = createCache();
         this.property = property;
     }
 
+    private static <K, V> Cache<K, V> createCache() {
+        return CacheBuilder.newBuilder()
+                .maximumSize(CharsetLib.modelCacheSize)
+                .expireAfterAccess(10, TimeUnit.MINUTES)
+                .recordStats()
+                .build();
+    }
+
+    public static Collection<ModelFactory> getFactories() {
+        return FACTORIES_VIEW;
+    }
+
+    /**
+     * Drops all cached models, remembering the most used keys so that they
+     * can be baked again by {@link #prewarmCaches()} once the new textures
+     * and models are available.
+     */
     public static void clearCaches() {
         for (ModelFactory factory : FACTORIES) {
-            factory.cache.invalidateAll();
+            factory.resetCache();
+        }
+        prewarmPending = CharsetLib.modelCachePrewarmCount > 0;
+    }
+
+    public static void prewarmCaches() {
+        if (prewarmPending) {
+            prewarmPending = false;
+            for (ModelFactory factory : FACTORIES) {
+                factory.prewarm();
+            }
         }
     }
 
+    private void resetCache() {
+        Cache<ModelKey<T>, CacheEntry> oldCache = cache;
+        pastStats = pastStats.plus(oldCache.stats());
+        if (CharsetLib.modelCachePrewarmCount > 0 && !DISABLE_CACHE) {
+            prewarmKeys = oldCache.asMap().entrySet().stream()
+                    .sorted(Comparator.comparingInt((Map.Entry<ModelKey<T>, CacheEntry> e) -> e.getValue().hits).reversed())
+                    .limit(CharsetLib.modelCachePrewarmCount)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        }
+        cache = createCache();
+    }
+
+    private void prewarm() {
+        List<ModelKey<T>> keys = prewarmKeys;
+        prewarmKeys = Collections.emptyList();
+        for (ModelKey<T> key : keys) {
+            getModel(key.object, key.layer);
+        }
+    }
+
+    public long getCacheSize() {
+        return cache.size();
+    }
+
+    public CacheStats getCacheStats() {
+        return pastStats.plus(cache.stats());
+    }
+
     public IUnlistedProperty<T> getProperty() {
         return property;
     }
@@ -106,17 +185,22 @@ public abstract class ModelFactory<T extends IRenderComparable<T>> extends BaseB
             return null;
         }
 
-        ModelKey<T> key = new ModelKey<>(object, layer);
         if (DISABLE_CACHE) {
             return bake(object, layer == null, layer);
         } else {
-            IBakedModel model = cache.getIfPresent(key);
-            if (model != null) {
-                return model;
-            } else {
-                model = bake(object, layer == null, layer);
-                cache.put(key, model);
-                return model;
+            // Concurrent requests for the same key wait for a single bake.
+            try {
+                CacheEntry entry = cache.get(new ModelKey<>(object, layer), () -> new CacheEntry(bake(object, layer == null, layer)));
+                entry.hits++;
+                return entry.model;
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            } catch (UncheckedExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                } else {
+                    throw e;
+                }
             }
         }
     }
@@ -21,10 +21,14 @@ package pl.asie.charset.lib.scheduler;
 
 public final class ScheduledEvent {
 	private final Runnable runnable;
+	private final long time;
 	private boolean executed;
+	// intrusive list link, used by TimingWheel
+	ScheduledEvent next;
 
-	ScheduledEvent(Runnable runnable) {
+	ScheduledEvent(Runnable runnable, long time) {
 		this.runnable = runnable;
+		this.time = time;
 		this.executed = false;
 	}
 
@@ -32,6 +36,22 @@ public final class ScheduledEvent {
 		return executed;
 	}
 
+	public long getTime() {
+		return time;
+	}
+
+	Runnable getRunnable() {
+		return runnable;
+	}
+
+	String getName() {
+		if (runnable instanceof IPersistentRunnable) {
+			return ((IPersistentRunnable) runnable).getPersistenceId().toString();
+		} else {
+			return runnable.getClass().getName();
+		}
+	}
+
 	boolean run() {
 		if (!executed) {
 			runnable.run();
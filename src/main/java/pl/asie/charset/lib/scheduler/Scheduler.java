@@ -19,39 +19,139 @@
 
 package pl.asie.charset.lib.scheduler;
 
-import gnu.trove.map.TLongObjectMap;
-import gnu.trove.map.hash.TLongObjectHashMap;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.util.ResourceLocation;
 import net.minecraft.world.World;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
+import pl.asie.charset.ModCharset;
 
-import java.util.ArrayDeque;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Queue;
 import java.util.WeakHashMap;
+import java.util.function.Function;
 
-// TODO: Implement saving? Ha, ha, I wish.
 public class Scheduler {
     public static final Scheduler INSTANCE = new Scheduler();
-    private final Map<World, TLongObjectMap<Queue<ScheduledEvent>>> schedule = new WeakHashMap<>();
+    private final Map<World, WorldSchedule> schedule = new WeakHashMap<>();
+    private final Map<ResourceLocation, Function<NBTTagCompound, ? extends IPersistentRunnable>> persistentTypes = new HashMap<>();
+    // 0 = no limit
+    private int maxEventsPerTick;
+
+    public static final class WorldSchedule {
+        private final TimingWheel wheel;
+        private long deferredCount;
+        private NBTTagList unknownPersistentEvents = new NBTTagList();
+
+        private WorldSchedule(long currentTime) {
+            this.wheel = new TimingWheel(currentTime);
+        }
+
+        public int getPendingCount() {
+            return wheel.size();
+        }
+
+        /**
+         * @return The amount of events which could not run on their tick due
+         * to the per-tick limit, since the world was loaded.
+         */
+        public long getDeferredCount() {
+            return deferredCount;
+        }
+
+        NBTTagList writeToNBT() {
+            NBTTagList list = unknownPersistentEvents.copy();
+            wheel.forEach((event) -> {
+                if (!event.hasExecuted() && event.getRunnable() instanceof IPersistentRunnable) {
+                    IPersistentRunnable runnable = (IPersistentRunnable) event.getRunnable();
+                    NBTTagCompound compound = new NBTTagCompound();
+                    compound.setString("id", runnable.getPersistenceId().toString());
+                    compound.setLong("time", event.getTime());
+                    compound.setTag("data", runnable.serializeNBT());
+                    list.appendTag(compound);
+                }
+            });
+            return list;
+        }
+    }
 
     public ScheduledEvent in(World world, int ticks, Runnable runnable) {
         return at(world, world.getTotalWorldTime() + ticks, runnable);
     }
 
     public ScheduledEvent at(World world, long targetTime, Runnable runnable) {
-        TLongObjectMap<Queue<ScheduledEvent>> requests = schedule.computeIfAbsent(world, k -> new TLongObjectHashMap<>());
-        Queue<ScheduledEvent> queue = requests.get(targetTime);
-        if (queue == null) {
-            queue = new ArrayDeque<>();
-            requests.put(targetTime, queue);
-        }
-        ScheduledEvent event = new ScheduledEvent(runnable);
-        queue.add(event);
+        ScheduledEvent event = new ScheduledEvent(runnable, targetTime);
+        getSchedule(world).wheel.add(event);
         return event;
     }
 
+    /**
+     * Register a deserializer for {@link IPersistentRunnable}s with the given ID.
+     * Scheduled persistent runnables are saved with the world and rescheduled
+     * for their original time when it is loaded again.
+     */
+    public void registerPersistent(ResourceLocation id, Function<NBTTagCompound, ? extends IPersistentRunnable> deserializer) {
+        persistentTypes.put(id, deserializer);
+    }
+
+    public void setMaxEventsPerTick(int maxEventsPerTick) {
+        this.maxEventsPerTick = maxEventsPerTick;
+    }
+
+    public Map<World, WorldSchedule> getSchedules() {
+        return schedule;
+    }
+
+    private WorldSchedule getSchedule(World world) {
+        WorldSchedule worldSchedule = schedule.get(world);
+        if (worldSchedule == null) {
+            // We tick at the *end* of a phase, so the world time has
+            // already had 1 added to it.
+            worldSchedule = new WorldSchedule(world.getTotalWorldTime() - 1);
+            schedule.put(world, worldSchedule);
+
+            if (!world.isRemote) {
+                SchedulerSavedData data = (SchedulerSavedData) world.getPerWorldStorage().getOrLoadData(SchedulerSavedData.class, SchedulerSavedData.NAME);
+                if (data == null) {
+                    data = new SchedulerSavedData(SchedulerSavedData.NAME);
+                    world.getPerWorldStorage().setData(SchedulerSavedData.NAME, data);
+                } else {
+                    readFromNBT(worldSchedule, data.getLoadedEvents());
+                }
+                data.setSchedule(worldSchedule);
+            }
+        }
+        return worldSchedule;
+    }
+
+    private void readFromNBT(WorldSchedule worldSchedule, NBTTagList list) {
+        for (int i = 0; i < list.tagCount(); i++) {
+            NBTTagCompound compound = list.getCompoundTagAt(i);
+            Function<NBTTagCompound, ? extends IPersistentRunnable> deserializer = persistentTypes.get(new ResourceLocation(compound.getString("id")));
+            if (deserializer == null) {
+                // Keep it around in case the relevant module is enabled again.
+                ModCharset.logger.warn("Unknown persistent scheduled event type " + compound.getString("id") + "!");
+                worldSchedule.unknownPersistentEvents.appendTag(compound);
+                continue;
+            }
+
+            IPersistentRunnable runnable = deserializer.apply(compound.getCompoundTag("data"));
+            if (runnable != null) {
+                worldSchedule.wheel.add(new ScheduledEvent(runnable, compound.getLong("time")));
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public void onWorldLoad(WorldEvent.Load event) {
+        if (!event.getWorld().isRemote && event.getWorld().getPerWorldStorage().getOrLoadData(SchedulerSavedData.class, SchedulerSavedData.NAME) != null) {
+            // Restore persistent events right away.
+            getSchedule(event.getWorld());
+        }
+    }
+
     @SubscribeEvent
     public void onWorldUnload(WorldEvent.Unload event) {
         schedule.remove(event.getWorld());
@@ -60,18 +160,28 @@ public class Scheduler {
     @SubscribeEvent
     public void onWorldTick(TickEvent.WorldTickEvent event) {
         if (event.phase == TickEvent.Phase.END) {
-            TLongObjectMap<Queue<ScheduledEvent>> requests = schedule.get(event.world);
-            if (requests != null) {
+            WorldSchedule worldSchedule = schedule.get(event.world);
+            if (worldSchedule != null) {
                 // We tick at the *end* of a phase, so the world time has
                 // already had 1 added to it.
                 long time = event.world.getTotalWorldTime() - 1;
-                Queue<ScheduledEvent> queue = requests.remove(time);
-                if (queue != null) {
-                    for (ScheduledEvent r : queue) {
-                        event.world.profiler.startSection(r.getClass().getName());
+                TimingWheel wheel = worldSchedule.wheel;
+                wheel.advance(time);
+
+                if (wheel.readySize() > 0) {
+                    event.world.profiler.startSection("charset_scheduler");
+                    int budget = maxEventsPerTick > 0 ? maxEventsPerTick : Integer.MAX_VALUE;
+                    ScheduledEvent r;
+                    while (budget-- > 0 && (r = wheel.poll()) != null) {
+                        event.world.profiler.startSection(r.getName());
                         r.run();
                         event.world.profiler.endSection();
                     }
+
+                    // Leftover events stay at the front of the ready list
+                    // and run on the next tick.
+                    worldSchedule.deferredCount += wheel.readySize();
+                    event.world.profiler.endSection();
                 }
             }
         }
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.lib.scheduler;
+
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.world.storage.WorldSavedData;
+import net.minecraftforge.common.util.Constants;
+
+public class SchedulerSavedData extends WorldSavedData {
+	public static final String NAME = "charset_scheduler";
+	private NBTTagList loadedEvents = new NBTTagList();
+	private Scheduler.WorldSchedule schedule;
+
+	public SchedulerSavedData(String name) {
+		super(name);
+	}
+
+	NBTTagList getLoadedEvents() {
+		return loadedEvents;
+	}
+
+	void setSchedule(Scheduler.WorldSchedule schedule) {
+		this.schedule = schedule;
+		this.loadedEvents = new NBTTagList();
+	}
+
+	@Override
+	public boolean isDirty() {
+		// The contents are taken from the live schedule on every save.
+		return schedule != null;
+	}
+
+	@Override
+	public void readFromNBT(NBTTagCompound nbt) {
+		loadedEvents = nbt.getTagList("events", Constants.NBT.TAG_COMPOUND);
+	}
+
+	@Override
+	public NBTTagCompound writeToNBT(NBTTagCompound compound) {
+		compound.setTag("events", schedule != null ? schedule.writeToNBT() : loadedEvents);
+		return compound;
+	}
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.lib.scheduler;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: four levels of 64 slots, each slot of a level
+ * covering a whole revolution of the level below it. Events are inserted
+ * into the lowest level whose revolution contains their target time, and
+ * moved down a level whenever the wheel reaches their slot. Events further
+ * than the top level can cover are kept in an overflow list.
+ */
+final class TimingWheel {
+	private static final int LEVELS = 4;
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+
+	private final ScheduledEvent[] heads = new ScheduledEvent[LEVELS * SLOTS];
+	private final ScheduledEvent[] tails = new ScheduledEvent[LEVELS * SLOTS];
+	private ScheduledEvent overflowHead, overflowTail;
+	private ScheduledEvent readyHead, readyTail;
+	// the next time which has not been expired yet
+	private long currentTime;
+	private int size, readySize;
+
+	TimingWheel(long currentTime) {
+		this.currentTime = currentTime;
+	}
+
+	long getCurrentTime() {
+		return currentTime;
+	}
+
+	/**
+	 * @return The amount of events, including ones which have already
+	 * expired but not been polled yet.
+	 */
+	int size() {
+		return size;
+	}
+
+	int readySize() {
+		return readySize;
+	}
+
+	void add(ScheduledEvent event) {
+		size++;
+		insert(event);
+	}
+
+	private void insert(ScheduledEvent event) {
+		event.next = null;
+		long time = event.getTime();
+
+		if (time < currentTime) {
+			// Missed its time; run it as soon as possible.
+			readySize++;
+			if (readyTail == null) {
+				readyHead = readyTail = event;
+			} else {
+				readyTail.next = event;
+				readyTail = event;
+			}
+			return;
+		}
+
+		for (int level = 0; level < LEVELS; level++) {
+			int shift = SLOT_BITS * (level + 1);
+			if ((time >> shift) == (currentTime >> shift)) {
+				int slot = level * SLOTS + (int) ((time >> (SLOT_BITS * level)) & SLOT_MASK);
+				if (tails[slot] == null) {
+					heads[slot] = tails[slot] = event;
+				} else {
+					tails[slot].next = event;
+					tails[slot] = event;
+				}
+				return;
+			}
+		}
+
+		if (overflowTail == null) {
+			overflowHead = overflowTail = event;
+		} else {
+			overflowTail.next = event;
+			overflowTail = event;
+		}
+	}
+
+	private void reinsertAll(ScheduledEvent event) {
+		while (event != null) {
+			ScheduledEvent next = event.next;
+			insert(event);
+			event = next;
+		}
+	}
+
+	private void cascade(int level) {
+		int slot = level * SLOTS + (int) ((currentTime >> (SLOT_BITS * level)) & SLOT_MASK);
+		ScheduledEvent event = heads[slot];
+		heads[slot] = tails[slot] = null;
+		reinsertAll(event);
+	}
+
+	/**
+	 * Expires all events with a target time up to and including the given
+	 * time, moving them to the ready list.
+	 */
+	void advance(long time) {
+		while (currentTime <= time) {
+			if ((currentTime & SLOT_MASK) == 0) {
+				// Cascade from the top, so that events move down as far
+				// as they need to.
+				int level = 1;
+				while (level < LEVELS && (currentTime & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+					level++;
+				}
+
+				if (level == LEVELS) {
+					ScheduledEvent event = overflowHead;
+					overflowHead = overflowTail = null;
+					reinsertAll(event);
+				}
+
+				for (int i = level - 1; i >= 1; i--) {
+					cascade(i);
+				}
+			}
+
+			int slot = (int) (currentTime & SLOT_MASK);
+			ScheduledEvent head = heads[slot];
+			if (head != null) {
+				int count = 0;
+				for (ScheduledEvent event = head; event != null; event = event.next) {
+					count++;
+				}
+
+				if (readyTail == null) {
+					readyHead = head;
+				} else {
+					readyTail.next = head;
+				}
+				readyTail = tails[slot];
+				readySize += count;
+				heads[slot] = tails[slot] = null;
+			}
+
+			currentTime++;
+		}
+	}
+
+	ScheduledEvent poll() {
+		ScheduledEvent event = readyHead;
+		if (event != null) {
+			readyHead = event.next;
+			if (readyHead == null) {
+				readyTail = null;
+			}
+			event.next = null;
+			readySize--;
+			size--;
+		}
+		return event;
+	}
+
+	void forEach(Consumer<ScheduledEvent> consumer) {
+		for (ScheduledEvent event = readyHead; event != null; event = event.next) {
+			consumer.accept(event);
+		}
+
+		for (int i = 0; i < heads.length; i++) {
+			for (ScheduledEvent event = heads[i]; event != null; event = event.next) {
+				consumer.accept(event);
+			}
+		}
+
+		for (ScheduledEvent event = overflowHead; event != null; event = event.next) {
+			consumer.accept(event);
+		}
+	}
+}
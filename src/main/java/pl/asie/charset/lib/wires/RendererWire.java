@@ -24,6 +24,7 @@ import net.minecraft.client.renderer.block.model.IBakedModel;
 import net.minecraft.client.renderer.block.model.ModelRotation;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
 import net.minecraft.client.renderer.texture.TextureMap;
+import net.minecraft.client.renderer.vertex.VertexFormat;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.BlockRenderLayer;
 import net.minecraft.util.EnumFacing;
@@ -33,9 +34,13 @@ import pl.asie.charset.api.wires.WireFace;
 import pl.asie.charset.lib.render.CharsetFaceBakery;
 import pl.asie.charset.lib.render.model.ModelFactory;
 import pl.asie.charset.lib.render.model.SimpleBakedModel;
+import pl.asie.charset.lib.utils.RenderUtils;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -49,43 +54,82 @@ public class RendererWire extends ModelFactory<Wire> {
             ModelRotation.X270_Y90
     };
 
+    /**
+     * A quad baked without a wire, along with what is needed to colour it
+     * (or to bake it again, should the handler pick a different texture)
+     * for a specific wire.
+     */
+    private static final class QuadTemplate {
+        private final BakedQuad quad;
+        private final WireRenderHandler.TextureType type;
+        private final EnumFacing colorDirection, textureDirection;
+        private final int connMask;
+        private final Vector3f from, to;
+        private final float[] uv;
+        private final EnumFacing face;
+        private final ModelRotation rot;
+        private final boolean uvLocked;
+
+        private QuadTemplate(BakedQuad quad, WireRenderHandler.TextureType type, EnumFacing colorDirection, EnumFacing textureDirection, int connMask,
+                             Vector3f from, Vector3f to, float[] uv, EnumFacing face, ModelRotation rot, boolean uvLocked) {
+            this.quad = quad;
+            this.type = type;
+            this.colorDirection = colorDirection;
+            this.textureDirection = textureDirection;
+            this.connMask = connMask;
+            this.from = from;
+            this.to = to;
+            this.uv = uv;
+            this.face = face;
+            this.rot = rot;
+            this.uvLocked = uvLocked;
+        }
+    }
+
+    // Template lists are indexed by location * 256 + (connection mask | corner mask << 4)
+    // for wires on a face, and by FREESTANDING_OFFSET + connection mask for freestanding ones.
+    private static final int FREESTANDING_OFFSET = 6 * 256;
+    private static final int TEMPLATE_COUNT = FREESTANDING_OFFSET + 64;
+
     private final Map<WireProvider, IWireRenderContainer> containerMap = new HashMap<>();
+    private volatile Map<WireRenderHandler, QuadTemplate[][]> templates = new IdentityHashMap<>();
 
     public RendererWire() {
         super(Wire.PROPERTY, TextureMap.LOCATION_MISSING_TEXTURE);
         addDefaultBlockTransforms();
     }
 
-    private <T> void addNonNull(Collection<T> coll, T object) {
-    	if (object != null) {
-    		coll.add(object);
-	    }
+    private void addQuad(Collection<QuadTemplate> quads, WireRenderHandler handler, WireRenderHandler.TextureType type,
+                         @Nullable EnumFacing colorDirection, @Nullable EnumFacing textureDirection, int connMask,
+                         Vector3f from, Vector3f to, @Nullable float[] uv, EnumFacing face, ModelRotation rot, boolean uvLocked) {
+        TextureAtlasSprite sprite = handler.getTexture(type, null, textureDirection, connMask);
+        if (sprite != null) {
+            // The vectors are copied, as some callers modify them afterwards.
+            from = new Vector3f(from);
+            to = new Vector3f(to);
+            BakedQuad quad = uv != null
+                    ? CharsetFaceBakery.INSTANCE.makeBakedQuad(from, to, -1, uv, sprite, face, rot, uvLocked)
+                    : CharsetFaceBakery.INSTANCE.makeBakedQuad(from, to, -1, sprite, face, rot, uvLocked);
+            if (quad != null) {
+                quads.add(new QuadTemplate(quad, type, colorDirection, textureDirection, connMask, from, to, uv, face, rot, uvLocked));
+            }
+        }
     }
 
     public IWireRenderContainer getContainer(WireProvider type) {
         return containerMap.get(type);
     }
 
-    private boolean wc(Wire wire, EnumFacing facing) {
-        return wire.connects(facing);
+    private boolean wc(int connMask, EnumFacing facing) {
+        return (connMask & (1 << facing.ordinal())) != 0;
     }
 
-    private boolean isCenterEdge(Wire wire, WireFace side) {
-        // TODO
-        //return wire.getWireType(side) != wire.getWireType(WireFace.CENTER);
-        return false;
-    }
-
-    private float getCL(WireRenderHandler handler, Wire wire, WireFace side) {
+    private float getCL(WireRenderHandler handler, int connMask, WireFace side) {
         // TODO
         //float h = wire != null && wire.hasWire(side) ? wire.getWireKind(side).height() : 0;
         float h = 0;
 
-        if (wire != null && isCenterEdge(wire, side)) {
-            h = 0;
-        }
-
-        if (!wc(wire, side.facing)) {
+        if (!wc(connMask, side.facing)) {
             h = 8.0f - (handler.getWidth() * 8);
         }
 
@@ -93,7 +137,7 @@ public class RendererWire extends ModelFactory<Wire> {
     }
 
     // NORTH SOUTH WEST EAST
-    protected void addTopFaceCplxInner(WireRenderHandler handler, Wire wire, EnumFacing facing, EnumFacing renderFace, EnumFacing[] dirs, int dirI, Vector3f from, Vector3f to, List<BakedQuad> quads, int connMask, ModelRotation rot) {
+    protected void addTopFaceCplxInner(WireRenderHandler handler, EnumFacing facing, EnumFacing renderFace, EnumFacing[] dirs, int dirI, Vector3f from, Vector3f to, List<QuadTemplate> quads, int connMask, ModelRotation rot) {
     	float minX = 8.0f - (handler.getWidth() * 8);
     	float maxX = 16.0f - minX;
     	float minZ = minX;
@@ -136,54 +180,43 @@ public class RendererWire extends ModelFactory<Wire> {
 			    break;
 	    }
 
-	    addNonNull(quads,
-			    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-					    from, to, handler.getColor(WireRenderHandler.TextureType.TOP, wire, dirI < 0 ? null : dirs[dirI]),
-					    new float[] { minX, minZ, maxX, maxZ },
-					    handler.getTexture(WireRenderHandler.TextureType.TOP, wire, dirI < 0 ? null : dirs[dirI], connMask),
-					    renderFace, rot, true
-			    )
-	    );
+	    addQuad(quads, handler, WireRenderHandler.TextureType.TOP, dirI < 0 ? null : dirs[dirI], dirI < 0 ? null : dirs[dirI], connMask,
+	            from, to, new float[] { minX, minZ, maxX, maxZ }, renderFace, rot, true);
     }
 
-    protected void makeTopFace(List<BakedQuad> quads, WireRenderHandler handler, Wire wire, Vector3f from, Vector3f to, int connMask, EnumFacing facing, EnumFacing renderFacing, ModelRotation rot) {
+    protected void makeTopFace(List<QuadTemplate> quads, WireRenderHandler handler, Vector3f from, Vector3f to, int connMask, EnumFacing facing, EnumFacing renderFacing, ModelRotation rot) {
     	if (!handler.isTopSimple()) {
     		// Render the top face as up to five quads
 		    EnumFacing[] dirs = WireUtils.getConnectionsForRender(WireFace.get(EnumFacing.byIndex(facing.ordinal() & (~1))));
-		    addTopFaceCplxInner(handler, wire, facing, renderFacing, dirs, -1, from, to, quads, connMask, rot);
-		    if ((connMask & 8) != 0) addTopFaceCplxInner(handler, wire, facing, renderFacing, dirs, 0, from, to, quads, connMask, rot);
-		    if ((connMask & 4) != 0) addTopFaceCplxInner(handler, wire, facing, renderFacing, dirs, 1, from, to, quads, connMask, rot);
-		    if ((connMask & 2) != 0) addTopFaceCplxInner(handler, wire, facing, renderFacing, dirs, 2, from, to, quads, connMask, rot);
-		    if ((connMask & 1) != 0) addTopFaceCplxInner(handler, wire, facing, renderFacing, dirs, 3, from, to, quads, connMask, rot);
+		    addTopFaceCplxInner(handler, facing, renderFacing, dirs, -1, from, to, quads, connMask, rot);
+		    if ((connMask & 8) != 0) addTopFaceCplxInner(handler, facing, renderFacing, dirs, 0, from, to, quads, connMask, rot);
+		    if ((connMask & 4) != 0) addTopFaceCplxInner(handler, facing, renderFacing, dirs, 1, from, to, quads, connMask, rot);
+		    if ((connMask & 2) != 0) addTopFaceCplxInner(handler, facing, renderFacing, dirs, 2, from, to, quads, connMask, rot);
+		    if ((connMask & 1) != 0) addTopFaceCplxInner(handler, facing, renderFacing, dirs, 3, from, to, quads, connMask, rot);
 		    return;
 	    }
 
-	    addNonNull(quads,
-			    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-					    from, to, handler.getColor(WireRenderHandler.TextureType.TOP, wire, null),
-					    handler.getTexture(WireRenderHandler.TextureType.TOP, wire, null, connMask),
-						renderFacing, rot, true
-			    )
-	    );
+	    addQuad(quads, handler, WireRenderHandler.TextureType.TOP, null, null, connMask,
+	            from, to, null, renderFacing, rot, true);
     }
 
-    public void addWireFreestanding(WireRenderHandler handler, Wire wire, List<BakedQuad> quads) {
+    protected void addWireFreestanding(WireRenderHandler handler, int connMask, List<QuadTemplate> quads) {
         float min = 8.0f - (handler.getWidth() * 8);
         float max = 16.0f - min;
-        Vector3f minX = new Vector3f(min, getCL(handler, wire, WireFace.DOWN), getCL(handler, wire, WireFace.NORTH));
-        Vector3f maxX = new Vector3f(min, getCL(handler, wire, WireFace.UP), getCL(handler, wire, WireFace.SOUTH));
-        Vector3f minY = new Vector3f(getCL(handler, wire, WireFace.WEST), min, getCL(handler, wire, WireFace.NORTH));
-        Vector3f maxY = new Vector3f(getCL(handler, wire, WireFace.EAST), min, getCL(handler, wire, WireFace.SOUTH));
-        Vector3f minZ = new Vector3f(getCL(handler, wire, WireFace.WEST), getCL(handler, wire, WireFace.DOWN), min);
-        Vector3f maxZ = new Vector3f(getCL(handler, wire, WireFace.EAST), getCL(handler, wire, WireFace.UP), min);
+        Vector3f minX = new Vector3f(min, getCL(handler, connMask, WireFace.DOWN), getCL(handler, connMask, WireFace.NORTH));
+        Vector3f maxX = new Vector3f(min, getCL(handler, connMask, WireFace.UP), getCL(handler, connMask, WireFace.SOUTH));
+        Vector3f minY = new Vector3f(getCL(handler, connMask, WireFace.WEST), min, getCL(handler, connMask, WireFace.NORTH));
+        Vector3f maxY = new Vector3f(getCL(handler, connMask, WireFace.EAST), min, getCL(handler, connMask, WireFace.SOUTH));
+        Vector3f minZ = new Vector3f(getCL(handler, connMask, WireFace.WEST), getCL(handler, connMask, WireFace.DOWN), min);
+        Vector3f maxZ = new Vector3f(getCL(handler, connMask, WireFace.EAST), getCL(handler, connMask, WireFace.UP), min);
 
-        int cmcX = (wc(wire, EnumFacing.UP) ? 8 : 0) | (wc(wire, EnumFacing.DOWN) ? 4 : 0) | (wc(wire, EnumFacing.NORTH) ? 2 : 0) | (wc(wire, EnumFacing.SOUTH) ? 1 : 0);
-        int cmcY = (wc(wire, EnumFacing.NORTH) ? 4 : 0) | (wc(wire, EnumFacing.SOUTH) ? 8 : 0) | (wc(wire, EnumFacing.WEST) ? 2 : 0) | (wc(wire, EnumFacing.EAST) ? 1 : 0);
-        int cmcZ = (wc(wire, EnumFacing.UP) ? 8 : 0) | (wc(wire, EnumFacing.DOWN) ? 4 : 0) | (wc(wire, EnumFacing.WEST) ? 1 : 0) | (wc(wire, EnumFacing.EAST) ? 2 : 0);
+        int cmcX = (wc(connMask, EnumFacing.UP) ? 8 : 0) | (wc(connMask, EnumFacing.DOWN) ? 4 : 0) | (wc(connMask, EnumFacing.NORTH) ? 2 : 0) | (wc(connMask, EnumFacing.SOUTH) ? 1 : 0);
+        int cmcY = (wc(connMask, EnumFacing.NORTH) ? 4 : 0) | (wc(connMask, EnumFacing.SOUTH) ? 8 : 0) | (wc(connMask, EnumFacing.WEST) ? 2 : 0) | (wc(connMask, EnumFacing.EAST) ? 1 : 0);
+        int cmcZ = (wc(connMask, EnumFacing.UP) ? 8 : 0) | (wc(connMask, EnumFacing.DOWN) ? 4 : 0) | (wc(connMask, EnumFacing.WEST) ? 1 : 0) | (wc(connMask, EnumFacing.EAST) ? 2 : 0);
 
-	    makeTopFace(quads, handler, wire, minX, maxX, cmcX, EnumFacing.WEST, EnumFacing.WEST, ModelRotation.X0_Y0);
-	    makeTopFace(quads, handler, wire, minY, maxY, cmcY, EnumFacing.DOWN, EnumFacing.DOWN, ModelRotation.X0_Y0);
-	    makeTopFace(quads, handler, wire, minZ, maxZ, cmcZ, EnumFacing.NORTH, EnumFacing.NORTH, ModelRotation.X0_Y0);
+	    makeTopFace(quads, handler, minX, maxX, cmcX, EnumFacing.WEST, EnumFacing.WEST, ModelRotation.X0_Y0);
+	    makeTopFace(quads, handler, minY, maxY, cmcY, EnumFacing.DOWN, EnumFacing.DOWN, ModelRotation.X0_Y0);
+	    makeTopFace(quads, handler, minZ, maxZ, cmcZ, EnumFacing.NORTH, EnumFacing.NORTH, ModelRotation.X0_Y0);
 
         // set to max
         minX.setX(max);
@@ -198,34 +231,27 @@ public class RendererWire extends ModelFactory<Wire> {
         cmcZ = (cmcZ & 0xC) | ((cmcZ & 0x2) >> 1) | ((cmcZ & 0x1) << 1);
         cmcX = (cmcX & 0xC) | ((cmcX & 0x2) >> 1) | ((cmcX & 0x1) << 1);
 
-	    makeTopFace(quads, handler, wire, minX, maxX, cmcX, EnumFacing.EAST, EnumFacing.EAST, ModelRotation.X0_Y0);
-	    makeTopFace(quads, handler, wire, minY, maxY, cmcY, EnumFacing.UP, EnumFacing.UP, ModelRotation.X0_Y0);
-	    makeTopFace(quads, handler, wire, minZ, maxZ, cmcZ, EnumFacing.SOUTH, EnumFacing.SOUTH, ModelRotation.X0_Y0);
+	    makeTopFace(quads, handler, minX, maxX, cmcX, EnumFacing.EAST, EnumFacing.EAST, ModelRotation.X0_Y0);
+	    makeTopFace(quads, handler, minY, maxY, cmcY, EnumFacing.UP, EnumFacing.UP, ModelRotation.X0_Y0);
+	    makeTopFace(quads, handler, minZ, maxZ, cmcZ, EnumFacing.SOUTH, EnumFacing.SOUTH, ModelRotation.X0_Y0);
 
         for (EnumFacing f : EnumFacing.VALUES) {
-            if (wc(wire, f)) {
-                addNonNull(quads,
-		                CharsetFaceBakery.INSTANCE.makeBakedQuad(
-				                new Vector3f(min, 0.0F, min), new Vector3f(max, 0.0f, max),
-				                handler.getColor(WireRenderHandler.TextureType.EDGE, wire, f),
-				                f.getAxisDirection() == EnumFacing.AxisDirection.POSITIVE ? new float[]{max, min, min, max} : new float[]{min, min, max, max},
-				                handler.getTexture(WireRenderHandler.TextureType.EDGE, wire, f, 15),
-				                EnumFacing.DOWN, ROTATIONS[f.ordinal()], true
-		                )
-                );
+            if (wc(connMask, f)) {
+                addQuad(quads, handler, WireRenderHandler.TextureType.EDGE, f, f, 15,
+                        new Vector3f(min, 0.0F, min), new Vector3f(max, 0.0f, max), f.getAxisDirection() == EnumFacing.AxisDirection.POSITIVE ? new float[]{max, min, min, max} : new float[]{min, min, max, max}, EnumFacing.DOWN, ROTATIONS[f.ordinal()], true);
             }
         }
     }
 
-    public void addCorner(WireRenderHandler handler, Wire wire, EnumFacing dir, List<BakedQuad> quads) {
-        if (wire.getProvider().isFlat()) {
+    protected void addCorner(WireRenderHandler handler, WireFace location, EnumFacing dir, List<QuadTemplate> quads) {
+        if (handler.provider.isFlat()) {
             return;
         }
 
         int width = (int) (handler.getWidth() * 16.0f);
         int height = (int) (handler.getHeight() * 16.0f);
 
-        ModelRotation rot = ROTATIONS[wire.getLocation().ordinal()];
+        ModelRotation rot = ROTATIONS[location.ordinal()];
         float min = 8.0f - (width / 2);
         float max = 16.0f - min;
 
@@ -237,169 +263,80 @@ public class RendererWire extends ModelFactory<Wire> {
         if (dir == EnumFacing.NORTH) {
             float[] topUV = new float[]{min, 16 - height, max, 16};
 
-            addNonNull(quads,
-                    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                            new Vector3f(min, 0, -height), new Vector3f(max, height, -height),
-                            handler.getColor(WireRenderHandler.TextureType.TOP, wire, EnumFacing.NORTH), edgeUVFlipped,
-		                    handler.getTexture(WireRenderHandler.TextureType.TOP, wire, null, 15), EnumFacing.NORTH, rot, false
-                    )
-            );
-
-            addNonNull(quads,
-                    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                            new Vector3f(min, height, -height), new Vector3f(max, height, 0),
-		                    handler.getColor(WireRenderHandler.TextureType.TOP, wire, EnumFacing.UP), topUV,
-		                    handler.getTexture(WireRenderHandler.TextureType.TOP, wire, null, 15), EnumFacing.UP, rot, false
-                    )
-            );
-
-            addNonNull(quads,
-                    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                            new Vector3f(min, 0, -height), new Vector3f(min, height, 0),
-                            handler.getColor(WireRenderHandler.TextureType.EDGE, wire, null), edgeUV,
-                            handler.getTexture(WireRenderHandler.TextureType.EDGE, wire, null, 15), EnumFacing.WEST, rot, false
-                    )
-            );
-
-            addNonNull(quads,
-                    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                            new Vector3f(max, 0, -height), new Vector3f(max, height, 0),
-                            handler.getColor(WireRenderHandler.TextureType.EDGE, wire, null), edgeUVFlipped,
-                            handler.getTexture(WireRenderHandler.TextureType.EDGE, wire, null, 15), EnumFacing.EAST, rot, false
-                    )
-            );
+            addQuad(quads, handler, WireRenderHandler.TextureType.TOP, EnumFacing.NORTH, null, 15,
+                    new Vector3f(min, 0, -height), new Vector3f(max, height, -height), edgeUVFlipped, EnumFacing.NORTH, rot, false);
+
+            addQuad(quads, handler, WireRenderHandler.TextureType.TOP, EnumFacing.UP, null, 15,
+                    new Vector3f(min, height, -height), new Vector3f(max, height, 0), topUV, EnumFacing.UP, rot, false);
+
+            addQuad(quads, handler, WireRenderHandler.TextureType.EDGE, null, null, 15,
+                    new Vector3f(min, 0, -height), new Vector3f(min, height, 0), edgeUV, EnumFacing.WEST, rot, false);
+
+            addQuad(quads, handler, WireRenderHandler.TextureType.EDGE, null, null, 15,
+                    new Vector3f(max, 0, -height), new Vector3f(max, height, 0), edgeUVFlipped, EnumFacing.EAST, rot, false);
         } else if (dir == EnumFacing.SOUTH) {
             float[] topUV = new float[]{min, 0, max, height};
 
-            addNonNull(quads,
-                    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                            new Vector3f(min, 0, 16 + height), new Vector3f(max, height, 16 + height),
-		                    handler.getColor(WireRenderHandler.TextureType.TOP, wire, EnumFacing.SOUTH), edgeUVFlipped,
-                            handler.getTexture(WireRenderHandler.TextureType.TOP, wire, null, 15), EnumFacing.SOUTH, rot, false
-                    )
-            );
-
-            addNonNull(quads,
-                    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                            new Vector3f(min, height, 16), new Vector3f(max, height, 16 + height),
-		                    handler.getColor(WireRenderHandler.TextureType.TOP, wire, EnumFacing.UP), topUV,
-                            handler.getTexture(WireRenderHandler.TextureType.TOP, wire, null, 15), EnumFacing.UP, rot, false
-                    )
-            );
-
-            addNonNull(quads,
-                    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                            new Vector3f(min, 0, 16), new Vector3f(min, height, 16 + height),
-                            handler.getColor(WireRenderHandler.TextureType.EDGE, wire, null), edgeUV,
-                            handler.getTexture(WireRenderHandler.TextureType.EDGE, wire, null, 15), EnumFacing.WEST, rot, false
-                    )
-            );
-
-            addNonNull(quads,
-                    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                            new Vector3f(max, 0, 16), new Vector3f(max, height, 16 + height),
-                            handler.getColor(WireRenderHandler.TextureType.EDGE, wire, null), edgeUVFlipped,
-                            handler.getTexture(WireRenderHandler.TextureType.EDGE, wire, null, 15), EnumFacing.EAST, rot, false
-                    )
-            );
+            addQuad(quads, handler, WireRenderHandler.TextureType.TOP, EnumFacing.SOUTH, null, 15,
+                    new Vector3f(min, 0, 16 + height), new Vector3f(max, height, 16 + height), edgeUVFlipped, EnumFacing.SOUTH, rot, false);
+
+            addQuad(quads, handler, WireRenderHandler.TextureType.TOP, EnumFacing.UP, null, 15,
+                    new Vector3f(min, height, 16), new Vector3f(max, height, 16 + height), topUV, EnumFacing.UP, rot, false);
+
+            addQuad(quads, handler, WireRenderHandler.TextureType.EDGE, null, null, 15,
+                    new Vector3f(min, 0, 16), new Vector3f(min, height, 16 + height), edgeUV, EnumFacing.WEST, rot, false);
+
+            addQuad(quads, handler, WireRenderHandler.TextureType.EDGE, null, null, 15,
+                    new Vector3f(max, 0, 16), new Vector3f(max, height, 16 + height), edgeUVFlipped, EnumFacing.EAST, rot, false);
         } else if (dir == EnumFacing.WEST) {
             float[] topUV = new float[]{16 - height, min, 16, max};
 
-            addNonNull(quads,
-                    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                            new Vector3f(-height, height, min), new Vector3f(0, height, max),
-		                    handler.getColor(WireRenderHandler.TextureType.TOP, wire, EnumFacing.UP), topUV,
-                            handler.getTexture(WireRenderHandler.TextureType.TOP, wire, null, 15), EnumFacing.UP, rot, false
-                    )
-            );
-
-            addNonNull(quads,
-                    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                            new Vector3f(-height, 0, min), new Vector3f(-height, height, max),
-		                    handler.getColor(WireRenderHandler.TextureType.TOP, wire, EnumFacing.WEST), edgeUV,
-                            handler.getTexture(WireRenderHandler.TextureType.TOP, wire, null, 15), EnumFacing.WEST, rot, false
-                    )
-            );
-
-            addNonNull(quads,
-                    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                            new Vector3f(-height, 0, min), new Vector3f(0, height, min),
-                            handler.getColor(WireRenderHandler.TextureType.EDGE, wire, null), edgeUVFlipped,
-                            handler.getTexture(WireRenderHandler.TextureType.EDGE, wire, null, 15), EnumFacing.NORTH, rot, false
-                    )
-            );
-
-            addNonNull(quads,
-                    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                            new Vector3f(-height, 0, max), new Vector3f(0, height, max),
-                            handler.getColor(WireRenderHandler.TextureType.EDGE, wire, null), edgeUV,
-                            handler.getTexture(WireRenderHandler.TextureType.EDGE, wire, null, 15), EnumFacing.SOUTH, rot, false
-                    )
-            );
+            addQuad(quads, handler, WireRenderHandler.TextureType.TOP, EnumFacing.UP, null, 15,
+                    new Vector3f(-height, height, min), new Vector3f(0, height, max), topUV, EnumFacing.UP, rot, false);
+
+            addQuad(quads, handler, WireRenderHandler.TextureType.TOP, EnumFacing.WEST, null, 15,
+                    new Vector3f(-height, 0, min), new Vector3f(-height, height, max), edgeUV, EnumFacing.WEST, rot, false);
+
+            addQuad(quads, handler, WireRenderHandler.TextureType.EDGE, null, null, 15,
+                    new Vector3f(-height, 0, min), new Vector3f(0, height, min), edgeUVFlipped, EnumFacing.NORTH, rot, false);
+
+            addQuad(quads, handler, WireRenderHandler.TextureType.EDGE, null, null, 15,
+                    new Vector3f(-height, 0, max), new Vector3f(0, height, max), edgeUV, EnumFacing.SOUTH, rot, false);
         } else if (dir == EnumFacing.EAST) {
             float[] topUV = new float[]{0, min, height, max};
 
-            addNonNull(quads,
-                    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                            new Vector3f(16, height, min), new Vector3f(16 + height, height, max),
-		                    handler.getColor(WireRenderHandler.TextureType.TOP, wire, EnumFacing.UP), topUV,
-                            handler.getTexture(WireRenderHandler.TextureType.TOP, wire, null, 15), EnumFacing.UP, rot, false
-                    )
-            );
-
-            addNonNull(quads,
-                    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                            new Vector3f(16 + height, 0, min), new Vector3f(16 + height, height, max),
-		                    handler.getColor(WireRenderHandler.TextureType.TOP, wire, EnumFacing.EAST), edgeUV,
-                            handler.getTexture(WireRenderHandler.TextureType.TOP, wire, null, 15), EnumFacing.EAST, rot, false
-                    )
-            );
-
-            addNonNull(quads,
-                    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                            new Vector3f(16, 0, min), new Vector3f(16 + height, height, min),
-                            handler.getColor(WireRenderHandler.TextureType.EDGE, wire, null), edgeUVFlipped,
-                            handler.getTexture(WireRenderHandler.TextureType.EDGE, wire, null, 15), EnumFacing.NORTH, rot, false
-                    )
-            );
-
-            addNonNull(quads,
-                    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                            new Vector3f(16, 0, max), new Vector3f(16 + height, height, max),
-                            handler.getColor(WireRenderHandler.TextureType.EDGE, wire, null), edgeUV,
-                            handler.getTexture(WireRenderHandler.TextureType.EDGE, wire, null, 15), EnumFacing.SOUTH, rot, false
-                    )
-            );
-        }
-    }
+            addQuad(quads, handler, WireRenderHandler.TextureType.TOP, EnumFacing.UP, null, 15,
+                    new Vector3f(16, height, min), new Vector3f(16 + height, height, max), topUV, EnumFacing.UP, rot, false);
 
-    public void addWire(WireRenderHandler handler, Wire wire, List<BakedQuad> quads) {
-        WireFace side = wire.getLocation();
+            addQuad(quads, handler, WireRenderHandler.TextureType.TOP, EnumFacing.EAST, null, 15,
+                    new Vector3f(16 + height, 0, min), new Vector3f(16 + height, height, max), edgeUV, EnumFacing.EAST, rot, false);
 
-        if (side == WireFace.CENTER) {
-            addWireFreestanding(handler, wire, quads);
-            return;
+            addQuad(quads, handler, WireRenderHandler.TextureType.EDGE, null, null, 15,
+                    new Vector3f(16, 0, min), new Vector3f(16 + height, height, min), edgeUVFlipped, EnumFacing.NORTH, rot, false);
+
+            addQuad(quads, handler, WireRenderHandler.TextureType.EDGE, null, null, 15,
+                    new Vector3f(16, 0, max), new Vector3f(16 + height, height, max), edgeUV, EnumFacing.SOUTH, rot, false);
         }
+    }
 
+    protected void addWire(WireRenderHandler handler, WireFace side, int cmc, int cornerMask, List<QuadTemplate> quads) {
         float min = 8.0f - (handler.getWidth() * 8f);
         float max = 16.0f - min;
         float minH = 0.0f;
         float maxH = handler.getHeight() * 16f;
-        EnumFacing[] dirs = WireUtils.getConnectionsForRender(side);
 
         boolean[] connectionMatrix = new boolean[]{
-                wire.connectsAny(dirs[0]),
-                wire.connectsAny(dirs[1]),
-		        wire.connectsAny(dirs[2]),
-		        wire.connectsAny(dirs[3])
+                (cmc & 8) != 0,
+                (cmc & 4) != 0,
+                (cmc & 2) != 0,
+                (cmc & 1) != 0
         };
-        int cmc = (connectionMatrix[0] ? 8 : 0) | (connectionMatrix[1] ? 4 : 0) | (connectionMatrix[2] ? 2 : 0) | (connectionMatrix[3] ? 1 : 0);
 
         boolean[] cornerConnectionMatrix = new boolean[]{
-		        wire.connectsCorner(dirs[0]),
-		        wire.connectsCorner(dirs[1]),
-		        wire.connectsCorner(dirs[2]),
-		        wire.connectsCorner(dirs[3])
+                (cornerMask & 1) != 0,
+                (cornerMask & 2) != 0,
+                (cornerMask & 4) != 0,
+                (cornerMask & 8) != 0
         };
 
         ModelRotation rot = ROTATIONS[side.ordinal()];
@@ -422,12 +359,12 @@ public class RendererWire extends ModelFactory<Wire> {
             to.setX(16.0f);
         }
 
-        makeTopFace(quads, handler, wire, from, to, cmc, wire.getLocation().facing, EnumFacing.UP, rot);
+        makeTopFace(quads, handler, from, to, cmc, side.facing, EnumFacing.UP, rot);
 
-        if (!wire.getProvider().isFlat()) {
+        if (!handler.provider.isFlat()) {
             from.setY(0.0F);
             to.setY(0.0F);
-	        makeTopFace(quads, handler, wire, from, to, cmc, wire.getLocation().facing, EnumFacing.DOWN, rot);
+	        makeTopFace(quads, handler, from, to, cmc, side.facing, EnumFacing.DOWN, rot);
 
             // Side faces
             Vector3f fromZ = new Vector3f(from.getX(), 0.0f, min);
@@ -443,22 +380,12 @@ public class RendererWire extends ModelFactory<Wire> {
 	        boolean renderSideZ = connectionMatrix[2] || connectionMatrix[3];
 
             // getIcon(false, cmc == 1, crossroadsX, EnumFacing.WEST)
-	        if (!connectionMatrix[2] || renderSideX) addNonNull(quads,
-                    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                            fromX, toX,
-                            handler.getColor(WireRenderHandler.TextureType.SIDE, wire, EnumFacing.WEST), new float[]{fromX.getZ(), fromX.getY(), toX.getZ(), toX.getY()},
-		                    handler.getTexture(WireRenderHandler.TextureType.SIDE, wire, EnumFacing.WEST, cmc), EnumFacing.WEST, rot, false
-                    )
-            );
+	        if (!connectionMatrix[2] || renderSideX) addQuad(quads, handler, WireRenderHandler.TextureType.SIDE, EnumFacing.WEST, EnumFacing.WEST, cmc,
+	                fromX, toX, new float[]{fromX.getZ(), fromX.getY(), toX.getZ(), toX.getY()}, EnumFacing.WEST, rot, false);
 
             // getIcon(false, cmc == 0 || cmc == 4, crossroadsZ, EnumFacing.NORTH)
-	        if (!connectionMatrix[0] || renderSideZ) addNonNull(quads,
-                    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                            fromZ, toZ,
-		                    handler.getColor(WireRenderHandler.TextureType.SIDE, wire, EnumFacing.NORTH), new float[]{toZ.getX(), fromZ.getY(), fromZ.getX(), toZ.getY()},
-		                    handler.getTexture(WireRenderHandler.TextureType.SIDE, wire, EnumFacing.NORTH, cmc), EnumFacing.NORTH, rot, false
-                    )
-            );
+	        if (!connectionMatrix[0] || renderSideZ) addQuad(quads, handler, WireRenderHandler.TextureType.SIDE, EnumFacing.NORTH, EnumFacing.NORTH, cmc,
+	                fromZ, toZ, new float[]{toZ.getX(), fromZ.getY(), fromZ.getX(), toZ.getY()}, EnumFacing.NORTH, rot, false);
 
             fromX.setX(max);
             toX.setX(max);
@@ -467,72 +394,128 @@ public class RendererWire extends ModelFactory<Wire> {
             toZ.setZ(max);
 
             // getIcon(false, cmc == 2, crossroadsX, EnumFacing.EAST)
-	        if (!connectionMatrix[3] || renderSideX) addNonNull(quads,
-                    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                            fromX, toX,
-		                    handler.getColor(WireRenderHandler.TextureType.SIDE, wire, EnumFacing.EAST), new float[]{toX.getZ(), fromX.getY(), fromX.getZ(), toX.getY()},
-                            handler.getTexture(WireRenderHandler.TextureType.SIDE, wire, EnumFacing.EAST, cmc), EnumFacing.EAST, rot, false
-                    )
-            );
+	        if (!connectionMatrix[3] || renderSideX) addQuad(quads, handler, WireRenderHandler.TextureType.SIDE, EnumFacing.EAST, EnumFacing.EAST, cmc,
+	                fromX, toX, new float[]{toX.getZ(), fromX.getY(), fromX.getZ(), toX.getY()}, EnumFacing.EAST, rot, false);
 
             // getIcon(false, cmc == 0 || cmc == 8, crossroadsZ, EnumFacing.SOUTH)
-	        if (!connectionMatrix[1] || renderSideZ) addNonNull(quads,
-                    CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                            fromZ, toZ,
-		                    handler.getColor(WireRenderHandler.TextureType.SIDE, wire, EnumFacing.SOUTH), new float[]{fromZ.getX(), fromZ.getY(), toZ.getX(), toZ.getY()},
-		                    handler.getTexture(WireRenderHandler.TextureType.SIDE, wire, EnumFacing.SOUTH, cmc), EnumFacing.SOUTH, rot, false
-                    )
-            );
+	        if (!connectionMatrix[1] || renderSideZ) addQuad(quads, handler, WireRenderHandler.TextureType.SIDE, EnumFacing.SOUTH, EnumFacing.SOUTH, cmc,
+	                fromZ, toZ, new float[]{fromZ.getX(), fromZ.getY(), toZ.getX(), toZ.getY()}, EnumFacing.SOUTH, rot, false);
 
             // Edge faces
             float[] edgeUV = new float[]{min, minH, max, maxH};
             float[] edgeUVFlipped = new float[]{max, minH, min, maxH};
 
             if (connectionMatrix[0]) {
-                addNonNull(quads,
-                        CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                                new Vector3f(min, minH, 0.0F), new Vector3f(max, maxH, 0.0F),
-                                handler.getColor(WireRenderHandler.TextureType.EDGE, wire, EnumFacing.NORTH), edgeUVFlipped,
-                                handler.getTexture(WireRenderHandler.TextureType.EDGE, wire, EnumFacing.NORTH, 15), EnumFacing.NORTH, rot, false
-                        )
-                );
+                addQuad(quads, handler, WireRenderHandler.TextureType.EDGE, EnumFacing.NORTH, EnumFacing.NORTH, 15,
+                        new Vector3f(min, minH, 0.0F), new Vector3f(max, maxH, 0.0F), edgeUVFlipped, EnumFacing.NORTH, rot, false);
             }
 
             if (connectionMatrix[1]) {
-                addNonNull(quads,
-                        CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                                new Vector3f(min, minH, 16.0F), new Vector3f(max, maxH, 16.0F),
-                                handler.getColor(WireRenderHandler.TextureType.EDGE, wire, EnumFacing.SOUTH), edgeUV,
-		                        handler.getTexture(WireRenderHandler.TextureType.EDGE, wire, EnumFacing.SOUTH, 15), EnumFacing.SOUTH, rot, false
-                        )
-                );
+                addQuad(quads, handler, WireRenderHandler.TextureType.EDGE, EnumFacing.SOUTH, EnumFacing.SOUTH, 15,
+                        new Vector3f(min, minH, 16.0F), new Vector3f(max, maxH, 16.0F), edgeUV, EnumFacing.SOUTH, rot, false);
             }
 
             if (connectionMatrix[2]) {
-                addNonNull(quads,
-                        CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                                new Vector3f(0.0F, minH, min), new Vector3f(0.0F, maxH, max),
-                                handler.getColor(WireRenderHandler.TextureType.EDGE, wire, EnumFacing.WEST), edgeUV,
-		                        handler.getTexture(WireRenderHandler.TextureType.EDGE, wire, EnumFacing.WEST, 15), EnumFacing.WEST, rot, false
-                        )
-                );
+                addQuad(quads, handler, WireRenderHandler.TextureType.EDGE, EnumFacing.WEST, EnumFacing.WEST, 15,
+                        new Vector3f(0.0F, minH, min), new Vector3f(0.0F, maxH, max), edgeUV, EnumFacing.WEST, rot, false);
             }
 
             if (connectionMatrix[3]) {
-                addNonNull(quads,
-                        CharsetFaceBakery.INSTANCE.makeBakedQuad(
-                                new Vector3f(16.0F, minH, min), new Vector3f(16.0F, maxH, max),
-                                handler.getColor(WireRenderHandler.TextureType.EDGE, wire, EnumFacing.EAST), edgeUVFlipped,
-		                        handler.getTexture(WireRenderHandler.TextureType.EDGE, wire, EnumFacing.EAST, 15), EnumFacing.EAST, rot, false
-                        )
-                );
+                addQuad(quads, handler, WireRenderHandler.TextureType.EDGE, EnumFacing.EAST, EnumFacing.EAST, 15,
+                        new Vector3f(16.0F, minH, min), new Vector3f(16.0F, maxH, max), edgeUVFlipped, EnumFacing.EAST, rot, false);
             }
 
             EnumFacing[] dirs0 = WireUtils.getConnectionsForRender(WireFace.DOWN);
             for (int i = 0; i < 4; i++) {
                 if (cornerConnectionMatrix[i]) {
-                    addCorner(handler, wire, dirs0[i], quads);
+                    addCorner(handler, side, dirs0[i], quads);
+                }
+            }
+        }
+    }
+
+    private List<QuadTemplate> createTemplates(WireRenderHandler handler, int index) {
+        List<QuadTemplate> quads = new ArrayList<>();
+        if (index >= FREESTANDING_OFFSET) {
+            addWireFreestanding(handler, index - FREESTANDING_OFFSET, quads);
+        } else {
+            addWire(handler, WireFace.VALUES[index >> 8], index & 15, (index >> 4) & 15, quads);
+        }
+        return quads;
+    }
+
+    private static int getTemplateIndex(Wire wire) {
+        WireFace side = wire.getLocation();
+        if (side == WireFace.CENTER) {
+            int connMask = 0;
+            for (EnumFacing facing : EnumFacing.VALUES) {
+                if (wire.connects(facing)) {
+                    connMask |= 1 << facing.ordinal();
+                }
+            }
+            return FREESTANDING_OFFSET + connMask;
+        } else {
+            EnumFacing[] dirs = WireUtils.getConnectionsForRender(side);
+            int cmc = (wire.connectsAny(dirs[0]) ? 8 : 0) | (wire.connectsAny(dirs[1]) ? 4 : 0) | (wire.connectsAny(dirs[2]) ? 2 : 0) | (wire.connectsAny(dirs[3]) ? 1 : 0);
+            int cornerMask = (wire.connectsCorner(dirs[0]) ? 1 : 0) | (wire.connectsCorner(dirs[1]) ? 2 : 0) | (wire.connectsCorner(dirs[2]) ? 4 : 0) | (wire.connectsCorner(dirs[3]) ? 8 : 0);
+            return (side.ordinal() << 8) | (cornerMask << 4) | cmc;
+        }
+    }
+
+    private QuadTemplate[] getTemplates(WireRenderHandler handler, Wire wire) {
+        int index = getTemplateIndex(wire);
+        QuadTemplate[][] handlerTemplates = templates.get(handler);
+        if (handlerTemplates == null) {
+            return createTemplates(handler, index).toArray(new QuadTemplate[0]);
+        }
+
+        // Races between render threads only lead to the same list being built twice.
+        QuadTemplate[] list = handlerTemplates[index];
+        if (list == null) {
+            list = createTemplates(handler, index).toArray(new QuadTemplate[0]);
+            handlerTemplates[index] = list;
+        }
+        return list;
+    }
+
+    private static BakedQuad recolorQuad(BakedQuad quad, int color) {
+        VertexFormat format = quad.getFormat();
+        int c = format.getColorOffset() / 4;
+        int v = format.getIntegerSize();
+        int[] vertexData = quad.getVertexData().clone();
+        for (int i = 0; i < 4; i++) {
+            vertexData[v * i + c] = RenderUtils.multiplyColor(vertexData[v * i + c], color);
+        }
+        return new BakedQuad(vertexData, quad.getTintIndex(), quad.getFace(), quad.getSprite(), quad.shouldApplyDiffuseLighting(), format);
+    }
+
+    /**
+     * Adds the quads of a wire by colouring the precomputed templates of
+     * its shape, instead of generating its geometry from scratch.
+     */
+    public void addWire(WireRenderHandler handler, Wire wire, List<BakedQuad> quads) {
+        for (QuadTemplate template : getTemplates(handler, wire)) {
+            TextureAtlasSprite sprite = handler.getTexture(template.type, wire, template.textureDirection, template.connMask);
+            if (sprite == null) {
+                continue;
+            }
+
+            int color = handler.getColor(template.type, wire, template.colorDirection);
+            if (sprite != template.quad.getSprite()) {
+                BakedQuad quad = template.uv != null
+                        ? CharsetFaceBakery.INSTANCE.makeBakedQuad(template.from, template.to, color, template.uv, sprite, template.face, template.rot, template.uvLocked)
+                        : CharsetFaceBakery.INSTANCE.makeBakedQuad(template.from, template.to, color, sprite, template.face, template.rot, template.uvLocked);
+                if (quad != null) {
+                    quads.add(quad);
                 }
+            } else if (color == -1) {
+                quads.add(template.quad);
+            } else if ((color & 0xFF000000) == 0) {
+                // Matches CharsetFaceBakery: colours without alpha are tint indices.
+                BakedQuad quad = template.quad;
+                quads.add(new BakedQuad(quad.getVertexData(), color, quad.getFace(), quad.getSprite(), quad.shouldApplyDiffuseLighting(), quad.getFormat()));
+            } else {
+                quads.add(recolorQuad(template.quad, color));
             }
         }
     }
@@ -579,11 +562,15 @@ public class RendererWire extends ModelFactory<Wire> {
 	}
 
 	protected void reloadTextures(TextureMap map) {
+    	Map<WireRenderHandler, QuadTemplate[][]> newTemplates = new IdentityHashMap<>();
     	for (IWireRenderContainer container : containerMap.values()) {
     		for (int i = 0; i < container.getLayerCount(); i++) {
     			WireRenderHandler handler = container.get(i);
     			handler.refresh(map);
+    			// Templates are built lazily, once the sprites have been stitched.
+    			newTemplates.put(handler, new QuadTemplate[TEMPLATE_COUNT][]);
 		    }
 	    }
+	    templates = newTemplates;
 	}
 }
@@ -26,7 +26,6 @@ import net.minecraft.block.state.IBlockState;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.EnumFacing;
-import net.minecraft.util.ITickable;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraftforge.common.capabilities.Capability;
@@ -34,18 +33,35 @@ import pl.asie.charset.api.wires.WireFace;
 import pl.asie.charset.lib.block.TileBase;
 import pl.asie.charset.lib.scheduler.Scheduler;
 
-public class TileWire extends TileBase implements IMultipartTile, ITickable, IWireContainer {
+public class TileWire extends TileBase implements IMultipartTile, IWireContainer {
     protected Wire wire;
 
     @Override
-    public void update() {
-        super.update();
+    public void onLoad() {
+        super.onLoad();
+        if (!world.isRemote) {
+            if (wire != null) {
+                // Run any pending connection checks and logic updates.
+                wire.requestUpdate();
+            } else {
+                // Newly placed wires only receive their wire in onPlacedBy,
+                // which runs after onLoad - so check again a tick later.
+                // Modifying it instantly will cause a CME in MCMultiPart.
+                // We only get here upon module removal anyway, so...
+                Scheduler.INSTANCE.in(world, 0, () -> {
+                    if (wire == null && !isInvalid()) {
+                        world.setBlockToAir(getPos());
+                    }
+                });
+            }
+        }
+    }
+
+    @Override
+    public void invalidate(InvalidationType type) {
+        super.invalidate(type);
         if (wire != null) {
-            wire.update();
-        } else {
-            // Modifying it instantly will cause a CME in MCMultiPart.
-            // We only get here upon module removal anyway, so...
-            Scheduler.INSTANCE.in(world, 0, () -> world.setBlockToAir(getPos()));
+            wire.invalidate(type);
         }
     }
 
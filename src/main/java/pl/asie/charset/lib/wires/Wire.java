@@ -20,10 +20,11 @@
 package pl.asie.charset.lib.wires;
 
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
-import net.minecraft.util.ITickable;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.capabilities.CapabilityDispatcher;
@@ -32,6 +33,7 @@ import net.minecraftforge.common.property.IUnlistedProperty;
 import net.minecraftforge.event.AttachCapabilitiesEvent;
 import org.apache.commons.lang3.tuple.Pair;
 import pl.asie.charset.api.wires.WireFace;
+import pl.asie.charset.lib.block.TileBase;
 import pl.asie.charset.lib.render.model.IRenderComparable;
 import pl.asie.charset.lib.utils.OcclusionUtils;
 import pl.asie.charset.lib.utils.UnlistedPropertyGeneric;
@@ -40,7 +42,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.*;
 
-public abstract class Wire implements ITickable, ICapabilityProvider, IRenderComparable<Wire> {
+public abstract class Wire implements ICapabilityProvider, IRenderComparable<Wire> {
     public static final IUnlistedProperty<Wire> PROPERTY = new UnlistedPropertyGeneric<>("wire", Wire.class);
 
     private final @Nonnull IWireContainer container;
@@ -50,6 +52,8 @@ public abstract class Wire implements ITickable, ICapabilityProvider, IRenderCom
 
     private byte internalConnections, externalConnections, cornerConnections, occludedSides, cornerOccludedSides;
     private boolean connectionCheckDirty;
+    // WireUpdateQueue state
+    boolean updateQueued;
 
     protected Wire(@Nonnull IWireContainer container, @Nonnull WireProvider factory, @Nonnull WireFace location) {
         this.container = container;
@@ -63,6 +67,18 @@ public abstract class Wire implements ITickable, ICapabilityProvider, IRenderCom
 
     protected final void scheduleConnectionUpdate() {
         connectionCheckDirty = true;
+        requestUpdate();
+    }
+
+    /**
+     * Requests {@link #update()} to be called at the end of the current
+     * server tick.
+     */
+    protected final void requestUpdate() {
+        World world = getContainer().world();
+        if (world != null && !world.isRemote) {
+            WireUpdateQueue.get(world).add(this);
+        }
     }
 
     private ICapabilityProvider getCapabilityProviderRemoteBlock(BlockPos pos) {
@@ -246,13 +262,23 @@ public abstract class Wire implements ITickable, ICapabilityProvider, IRenderCom
         };
     }
 
-    @Override
+    /**
+     * Called by the world's {@link WireUpdateQueue} after {@link #requestUpdate()}.
+     * Wires do not tick, so any pending work has to be requested this way.
+     */
     public void update() {
         if (connectionCheckDirty) {
             updateConnections();
         }
     }
 
+    /**
+     * Called when the wire's container is removed or unloaded.
+     */
+    public void invalidate(TileBase.InvalidationType type) {
+
+    }
+
     public void readNBTData(NBTTagCompound nbt, boolean isClient) {
         internalConnections = nbt.getByte("iC");
         externalConnections = nbt.getByte("eC");
@@ -288,6 +314,8 @@ public abstract class Wire implements ITickable, ICapabilityProvider, IRenderCom
         connectionCheckDirty = true;
         if (remote && getContainer().pos() != null) {
             updateConnections();
+        } else {
+            requestUpdate();
         }
     }
 
@@ -295,6 +323,13 @@ public abstract class Wire implements ITickable, ICapabilityProvider, IRenderCom
         return -1;
     }
 
+    /**
+     * @return Whether the wire's container has been removed or unloaded.
+     */
+    public final boolean isRemoved() {
+        return container instanceof TileEntity && ((TileEntity) container).isInvalid();
+    }
+
     public final IWireContainer getContainer() {
         return container;
     }
@@ -58,8 +58,13 @@ public abstract class WireRenderHandler {
 	@SideOnly(Side.CLIENT)
 	public abstract void refresh(TextureMap map);
 
+	/**
+	 * The wire is null when the renderer builds its quad templates; the
+	 * texture the face would have if it were visible should be returned
+	 * then.
+	 */
 	@SideOnly(Side.CLIENT)
-	public abstract TextureAtlasSprite getTexture(TextureType type, Wire wire, EnumFacing facing, int connMask);
+	public abstract TextureAtlasSprite getTexture(TextureType type, @Nullable Wire wire, EnumFacing facing, int connMask);
 
 	@SideOnly(Side.CLIENT)
 	public abstract int getColor(TextureType type, Wire wire, @Nullable EnumFacing direction);
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pl.asie.charset.lib.wires;
+
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wires do not tick. Instead, a wire which has a pending connection check
+ * or logic update adds itself to its world's queue, which is drained once
+ * at the end of every server tick.
+ */
+public final class WireUpdateQueue {
+    private static final Map<World, WireUpdateQueue> queues = new IdentityHashMap<>();
+
+    private List<Wire> pending = new ArrayList<>();
+    private List<Wire> processing = new ArrayList<>();
+
+    private WireUpdateQueue() {
+
+    }
+
+    public static WireUpdateQueue get(World world) {
+        return queues.computeIfAbsent(world, (w) -> new WireUpdateQueue());
+    }
+
+    public static WireUpdateQueue getIfPresent(World world) {
+        return queues.get(world);
+    }
+
+    public static void remove(World world) {
+        queues.remove(world);
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    void add(Wire wire) {
+        if (!wire.updateQueued) {
+            wire.updateQueued = true;
+            pending.add(wire);
+        }
+    }
+
+    /**
+     * Updates all wires queued so far. Wires queued during the update are
+     * left for the next call.
+     */
+    public void update() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Wire> wires = pending;
+        pending = processing;
+        processing = wires;
+
+        for (int i = 0; i < wires.size(); i++) {
+            Wire wire = wires.get(i);
+            wire.updateQueued = false;
+            if (!wire.isRemoved()) {
+                wire.update();
+            }
+        }
+
+        wires.clear();
+    }
+}
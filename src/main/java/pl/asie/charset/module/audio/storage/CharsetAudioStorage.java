@@ -30,6 +30,7 @@ import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.capabilities.CapabilityInject;
 import net.minecraftforge.common.capabilities.CapabilityManager;
+import net.minecraftforge.common.config.Configuration;
 import net.minecraftforge.event.RegistryEvent;
 import net.minecraftforge.fml.client.registry.ClientRegistry;
 import net.minecraftforge.fml.common.Mod;
@@ -39,6 +40,8 @@ import net.minecraftforge.fml.common.registry.GameRegistry;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 import pl.asie.charset.api.tape.IDataStorage;
+import pl.asie.charset.lib.config.CharsetLoadConfigEvent;
+import pl.asie.charset.lib.config.ConfigUtils;
 import pl.asie.charset.lib.item.ItemBlockBase;
 import pl.asie.charset.lib.loader.CharsetModule;
 import pl.asie.charset.lib.loader.ModuleProfile;
@@ -52,7 +55,6 @@ import pl.asie.charset.module.audio.storage.system.DataStorageCapStorage;
 import pl.asie.charset.module.audio.storage.system.DataStorageManager;
 import pl.asie.charset.module.storage.locks.ContainerKeyring;
 
-import java.io.IOException;
 import java.util.List;
 
 @CharsetModule(
@@ -67,7 +69,11 @@ public class CharsetAudioStorage {
     @CharsetModule.PacketRegistry
     public static PacketRegistry packet;
 
+    @CharsetModule.Configuration
+    public static Configuration config;
+
     public static DataStorageManager storageManager;
+    public static boolean useMappedStorage;
 
     public static BlockRecordPlayer blockRecordPlayer;
     public static Item itemRecordPlayer;
@@ -94,6 +100,11 @@ public class CharsetAudioStorage {
         }
     }
 
+    @Mod.EventHandler
+    public void loadConfig(CharsetLoadConfigEvent event) {
+        useMappedStorage = ConfigUtils.getBoolean(config, "general", "useMappedStorage", false, "Store disc contents uncompressed in memory-mapped files instead of compressed files kept in memory. Uses more disk space, but less heap memory and save time with large discs.", true);
+    }
+
     @Mod.EventHandler
     public void preInit(FMLPreInitializationEvent event) {
         CapabilityManager.INSTANCE.register(IDataStorage.class, new DataStorageCapStorage(), DataStorage::new);
@@ -142,11 +153,7 @@ public class CharsetAudioStorage {
     @Mod.EventHandler
     public void serverStop(FMLServerStoppedEvent event) {
         if (storageManager != null) {
-            try {
-                storageManager.save();
-            } catch (IOException e) {
-
-            }
+            storageManager.close();
             MinecraftForge.EVENT_BUS.unregister(storageManager);
         }
         storageManager = null;
@@ -20,8 +20,15 @@
 package pl.asie.charset.module.audio.storage.system;
 
 import java.io.*;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+import javax.annotation.Nullable;
 
 import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.relauncher.Side;
@@ -30,11 +37,22 @@ import pl.asie.charset.ModCharset;
 import pl.asie.charset.api.tape.IDataStorage;
 import pl.asie.charset.module.audio.storage.CharsetAudioStorage;
 
+import static pl.asie.charset.module.audio.storage.system.DataStorageFormat.BLOCK_SIZE;
+import static pl.asie.charset.module.audio.storage.system.DataStorageFormat.EMPTY_BLOCK;
+
 public class DataStorage implements IDataStorage {
 	private String uniqueId;
 	private File file;
 	private int size;
-	private byte[] data;
+	// null entries have not been loaded from disk yet
+	private byte[][] blocks;
+	private final BitSet dirtyBlocks = new BitSet();
+	// blocks referenced by a snapshot pending write; copied on write
+	private final BitSet sharedBlocks = new BitSet();
+	private final List<DataStorageFormat.Snapshot> pendingSnapshots = new ArrayList<>();
+	private boolean fullRewrite;
+	// set when backed by an uncompressed, memory-mapped file instead
+	private MappedByteBuffer mappedData;
 	private int position;
 	private boolean dirty;
 
@@ -42,7 +60,7 @@ public class DataStorage implements IDataStorage {
 	}
 
 	public boolean isInitialized() {
-		return data != null;
+		return blocks != null;
 	}
 
 	boolean initializeContents() {
@@ -51,14 +69,30 @@ public class DataStorage implements IDataStorage {
 				this.uniqueId = CharsetAudioStorage.storageManager.generateUID();
 			}
 
+			// Before reading the file, save any previous potential copies of
+			// this ID to prevent race conditions.
+			CharsetAudioStorage.storageManager.flush(this.uniqueId);
+
 			this.file = CharsetAudioStorage.storageManager.getFileForId(this.uniqueId);
-			if (!file.exists()) {
+			File mappedFile = CharsetAudioStorage.storageManager.getMappedFileForId(this.uniqueId);
+			if (CharsetAudioStorage.useMappedStorage && FMLCommonHandler.instance().getEffectiveSide() == Side.SERVER) {
+				try {
+					initializeMapped(mappedFile);
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			} else if (mappedFile.exists()) {
 				try {
-					file.createNewFile();
-					writeFile();
+					readMappedFile(mappedFile);
 				} catch (Exception e) {
 					e.printStackTrace();
 				}
+			} else if (!file.exists()) {
+				for (int i = 0; i < blocks.length; i++) {
+					blocks[i] = EMPTY_BLOCK;
+				}
+				fullRewrite = true;
+				CharsetAudioStorage.storageManager.queueWrite(this);
 			} else {
 				try {
 					readFile();
@@ -71,6 +105,55 @@ public class DataStorage implements IDataStorage {
 		return file != null;
 	}
 
+	private void initializeMapped(File mappedFile) throws IOException {
+		boolean importContents = !mappedFile.exists() && file.exists();
+
+		try (RandomAccessFile raf = new RandomAccessFile(mappedFile, "rw"); FileChannel channel = raf.getChannel()) {
+			// The mapping stays valid after the channel is closed.
+			mappedData = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		}
+
+		if (importContents) {
+			readFile();
+			for (int i = 0; i < blocks.length; i++) {
+				byte[] block = getBlock(i);
+				if (block != EMPTY_BLOCK) {
+					mappedData.position(i * BLOCK_SIZE);
+					mappedData.put(block, 0, Math.min(BLOCK_SIZE, size - (i * BLOCK_SIZE)));
+				}
+				blocks[i] = null;
+			}
+			mappedData.position(0);
+		}
+
+		dirty = false;
+		fullRewrite = false;
+	}
+
+	private void readMappedFile(File mappedFile) throws IOException {
+		try (FileInputStream stream = new FileInputStream(mappedFile)) {
+			for (int i = 0; i < blocks.length; i++) {
+				byte[] block = new byte[BLOCK_SIZE];
+				int blockLen = Math.min(BLOCK_SIZE, size - (i * BLOCK_SIZE));
+				int dataPos = 0;
+				while (dataPos < blockLen) {
+					int s = stream.read(block, dataPos, blockLen - dataPos);
+					if (s >= 0) {
+						dataPos += s;
+					} else {
+						break;
+					}
+				}
+
+				blocks[i] = DataStorageFormat.isEmpty(block) ? EMPTY_BLOCK : block;
+			}
+		}
+
+		// Convert back to the compressed format on the next save.
+		fullRewrite = true;
+		dirty = true;
+	}
+
 	public void initialize(String id, int position, int size) {
 		if (id == null || id.length() == 0) {
 			this.uniqueId = null;
@@ -80,7 +163,12 @@ public class DataStorage implements IDataStorage {
 
 		this.position = position;
 		this.size = size;
-		this.data = new byte[size];
+		this.blocks = new byte[DataStorageFormat.getBlockCount(size)][];
+		this.dirtyBlocks.clear();
+		this.sharedBlocks.clear();
+		this.pendingSnapshots.clear();
+		this.fullRewrite = false;
+		this.mappedData = null;
 
 		if (this.position >= size) {
 			this.position = size - 1;
@@ -90,6 +178,10 @@ public class DataStorage implements IDataStorage {
 
 	}
 
+	File getFile() {
+		return file;
+	}
+
 	public String getUniqueId() {
 		return uniqueId;
 	}
@@ -123,27 +215,135 @@ public class DataStorage implements IDataStorage {
 		return seek;
 	}
 
+	private byte[] getBlock(int index) {
+		byte[] block = blocks[index];
+		if (block == null) {
+			block = loadBlock(index);
+			blocks[index] = block;
+		}
+		return block;
+	}
+
+	private byte[] getWritableBlock(int index) {
+		if (!pendingSnapshots.isEmpty()) {
+			releaseWrittenSnapshots();
+		}
+
+		byte[] block = getBlock(index);
+		if (block == EMPTY_BLOCK) {
+			block = new byte[BLOCK_SIZE];
+			blocks[index] = block;
+		} else if (sharedBlocks.get(index)) {
+			block = block.clone();
+			blocks[index] = block;
+		}
+
+		sharedBlocks.clear(index);
+		dirtyBlocks.set(index);
+		dirty = true;
+		return block;
+	}
+
+	private byte[] loadBlock(int index) {
+		if (file != null && file.exists()) {
+			// Waits for a pending write of this storage, which may be
+			// replacing the file - but never for writes of other storages.
+			Lock lock = CharsetAudioStorage.storageManager.getFileLock(uniqueId);
+			lock.lock();
+			try {
+				byte[] block = DataStorageFormat.readBlock(file, blocks.length, index);
+				if (block != null) {
+					return block;
+				}
+			} catch (IOException e) {
+				ModCharset.logger.warn("Could not read block " + index + " of audio file " + getUniqueId() + "!", e);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		return EMPTY_BLOCK;
+	}
+
+	/**
+	 * Stops copying blocks on write once no snapshot which has not been
+	 * written yet refers to them. The blocks of snapshots which could not be
+	 * written are marked dirty again.
+	 */
+	private void releaseWrittenSnapshots() {
+		boolean released = false;
+		Iterator<DataStorageFormat.Snapshot> it = pendingSnapshots.iterator();
+		while (it.hasNext()) {
+			DataStorageFormat.Snapshot snapshot = it.next();
+			if (snapshot.failed) {
+				if (snapshot.full) {
+					fullRewrite = true;
+				}
+				for (int i : snapshot.indices) {
+					dirtyBlocks.set(i);
+				}
+				dirty = true;
+			}
+
+			if (snapshot.written || snapshot.failed) {
+				it.remove();
+				released = true;
+			}
+		}
+
+		if (released) {
+			sharedBlocks.clear();
+			for (DataStorageFormat.Snapshot snapshot : pendingSnapshots) {
+				for (int i = 0; i < snapshot.indices.length; i++) {
+					if (blocks[snapshot.indices[i]] == snapshot.blocks[i]) {
+						sharedBlocks.set(snapshot.indices[i]);
+					}
+				}
+			}
+		}
+	}
+
 	public int read(boolean simulate) {
 		if (position >= size) return 0;
 
 		initializeContents();
 
-		if (simulate) {
-			return (int) data[position] & 0xFF;
+		int v;
+		if (mappedData != null) {
+			v = (int) mappedData.get(position) & 0xFF;
 		} else {
-			return (int) data[position++] & 0xFF;
+			v = (int) getBlock(position / BLOCK_SIZE)[position % BLOCK_SIZE] & 0xFF;
+		}
+		if (!simulate) {
+			position++;
 		}
+		return v;
 	}
 
 	public int read(byte[] v, int offset, boolean simulate) {
 		int len = Math.min(size - (position + offset) - 1, v.length);
-		if (len == 0) {
+		if (len <= 0) {
 			return 0;
 		}
 
 		initializeContents();
 
-		System.arraycopy(data, position + offset, v, 0, len);
+		int pos = position + offset;
+		int dstPos = 0;
+		if (mappedData != null) {
+			mappedData.position(pos);
+			mappedData.get(v, 0, len);
+			dstPos = len;
+		}
+
+		while (dstPos < len) {
+			int blockOffset = pos % BLOCK_SIZE;
+			int count = Math.min(len - dstPos, BLOCK_SIZE - blockOffset);
+			System.arraycopy(getBlock(pos / BLOCK_SIZE), blockOffset, v, dstPos, count);
+			pos += count;
+			dstPos += count;
+		}
+
 		if (!simulate) {
 			position += len;
 		}
@@ -160,79 +360,118 @@ public class DataStorage implements IDataStorage {
 
 		initializeContents();
 
-		dirty = true;
-		data[position++] = v;
+		if (mappedData != null) {
+			mappedData.put(position, v);
+		} else {
+			getWritableBlock(position / BLOCK_SIZE)[position % BLOCK_SIZE] = v;
+		}
+		position++;
 	}
 
 	public int write(byte[] v) {
 		int len = Math.min(size - (position) - 1, v.length);
-		if (len == 0) {
+		if (len <= 0) {
 			return 0;
 		}
 
 		initializeContents();
 
-		System.arraycopy(v, 0, data, position, len);
-		position += len;
+		int srcPos = 0;
+		if (mappedData != null) {
+			mappedData.position(position);
+			mappedData.put(v, 0, len);
+			position += len;
+			srcPos = len;
+		}
+
+		while (srcPos < len) {
+			int blockOffset = position % BLOCK_SIZE;
+			int count = Math.min(len - srcPos, BLOCK_SIZE - blockOffset);
+			System.arraycopy(v, srcPos, getWritableBlock(position / BLOCK_SIZE), blockOffset, count);
+			position += count;
+			srcPos += count;
+		}
 
-		dirty = true;
 		return len;
 	}
 
 	void readFile() throws IOException {
-		// Before reading the file, save any previous potential copies to
-		// prevent race conditions.
-		CharsetAudioStorage.storageManager.save();
-
-		FileInputStream fileStream = new FileInputStream(file);
-		GZIPInputStream stream = new GZIPInputStream(fileStream);
-
-		int version = stream.read();
-		if (version == 1) {
-			int b1 = stream.read() & 0xFF;
-			int b2 = stream.read() & 0xFF;
-			int b3 = stream.read() & 0xFF;
-			int b4 = stream.read() & 0xFF;
-			this.position = b1 | (b2 << 8) | (b3 << 16) | (b4 << 24);
-			if (position < 0 || position >= size) {
-				position = 0;
+		Lock lock = CharsetAudioStorage.storageManager.getFileLock(uniqueId);
+		DataStorageFormat.LegacyContents contents;
+
+		lock.lock();
+		try {
+			if (DataStorageFormat.isBlockFile(file, blocks.length)) {
+				// Blocks are loaded lazily, as they are accessed.
+				return;
 			}
+
+			contents = DataStorageFormat.readLegacy(file, size);
+		} finally {
+			lock.unlock();
 		}
 
-		int dataPos = 0;
-		try {
-			while (dataPos < this.data.length) {
-				int s = stream.read(this.data, dataPos, this.data.length - dataPos);
-				if (s >= 0) {
-					dataPos += s;
-				} else {
-					break;
-				}
+		// Upgrade version 1/2 files on the next save.
+		System.arraycopy(contents.blocks, 0, blocks, 0, blocks.length);
+		fullRewrite = true;
+		dirty = true;
+
+		if (contents.position >= 0) {
+			this.position = contents.position;
+			if (position >= size) {
+				position = 0;
 			}
-		} catch (EOFException e) {
-			ModCharset.logger.warn("Audio file " + getUniqueId() + " might have been corrupted.");
-			dirty = true;
 		}
 
-		stream.close();
-		fileStream.close();
+		if (contents.corrupted) {
+			ModCharset.logger.warn("Audio file " + getUniqueId() + " might have been corrupted.");
+		}
 	}
 
-	void writeFile() throws IOException {
+	/**
+	 * Captures the blocks which need saving, to be written to disk by
+	 * {@link DataStorageFormat#write(File, DataStorageFormat.Snapshot)} on
+	 * another thread. Captured blocks are copied on the next write to them.
+	 *
+	 * Returns null if there is nothing to write.
+	 */
+	@Nullable
+	DataStorageFormat.Snapshot createSnapshot() {
 		if (FMLCommonHandler.instance().getEffectiveSide() == Side.SERVER) {
 			initializeContents();
+			if (mappedData != null) {
+				// Flushed to disk by the operating system.
+				return null;
+			}
 
-			FileOutputStream fileStream = new FileOutputStream(file);
-			GZIPOutputStream stream = new GZIPOutputStream(fileStream);
+			if (!pendingSnapshots.isEmpty()) {
+				releaseWrittenSnapshots();
+			}
 
-			stream.write(2);
-			stream.write(data);
-			stream.finish();
-			stream.flush();
-			stream.close();
-			fileStream.close();
+			int[] indices;
+			if (fullRewrite) {
+				indices = new int[blocks.length];
+				for (int i = 0; i < indices.length; i++) {
+					indices[i] = i;
+				}
+			} else {
+				indices = dirtyBlocks.stream().toArray();
+			}
 
+			byte[][] snapshotBlocks = new byte[indices.length][];
+			for (int i = 0; i < indices.length; i++) {
+				snapshotBlocks[i] = getBlock(indices[i]);
+				sharedBlocks.set(indices[i]);
+			}
+
+			DataStorageFormat.Snapshot snapshot = new DataStorageFormat.Snapshot(blocks.length, fullRewrite, indices, snapshotBlocks);
+			pendingSnapshots.add(snapshot);
+			dirtyBlocks.clear();
+			fullRewrite = false;
 			dirty = false;
+			return snapshot;
+		} else {
+			return null;
 		}
 	}
 
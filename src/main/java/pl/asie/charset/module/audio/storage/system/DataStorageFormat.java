@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.module.audio.storage.system;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+import javax.annotation.Nullable;
+
+import pl.asie.charset.ModCharset;
+
+/**
+ * On-disk format of DataStorage contents.
+ *
+ * Versions 1 and 2 are a single GZIP stream containing the version byte,
+ * (in version 1) the position, and the full tape contents. They are only
+ * ever read, and are upgraded to version 3 on the next save.
+ *
+ * Version 3 splits the tape into fixed-size blocks, each deflated
+ * separately:
+ *
+ * - byte: version (3)
+ * - int: block size
+ * - int: block count
+ * - block count * (int offset, int length): block index; length 0 means
+ *   the block is empty
+ * - compressed block data
+ *
+ * Rewritten blocks are appended to the end of the file and their index
+ * entries updated in place; the file is compacted once the unreferenced
+ * data grows larger than the referenced data.
+ */
+final class DataStorageFormat {
+	static final int VERSION_BLOCKS = 3;
+	static final int BLOCK_SIZE = 16384;
+	static final byte[] EMPTY_BLOCK = new byte[BLOCK_SIZE];
+
+	private static final int HEADER_SIZE = 9;
+	private static final int INDEX_ENTRY_SIZE = 8;
+	private static final int COMPACTION_MIN_WASTE = 256 * 1024;
+
+	static final class Snapshot {
+		final int blockCount;
+		final boolean full;
+		final int[] indices;
+		final byte[][] blocks;
+		// set by the I/O thread once the snapshot has been written out,
+		// or once writing it has failed
+		volatile boolean written, failed;
+
+		Snapshot(int blockCount, boolean full, int[] indices, byte[][] blocks) {
+			this.blockCount = blockCount;
+			this.full = full;
+			this.indices = indices;
+			this.blocks = blocks;
+		}
+	}
+
+	static final class LegacyContents {
+		final byte[][] blocks;
+		final int position;
+		final boolean corrupted;
+
+		LegacyContents(byte[][] blocks, int position, boolean corrupted) {
+			this.blocks = blocks;
+			this.position = position;
+			this.corrupted = corrupted;
+		}
+	}
+
+	private DataStorageFormat() {
+
+	}
+
+	static int getBlockCount(int size) {
+		return (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+	}
+
+	static boolean isEmpty(byte[] block) {
+		if (block == EMPTY_BLOCK) {
+			return true;
+		}
+
+		for (byte b : block) {
+			if (b != 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	static boolean isBlockFile(File file, int blockCount) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			return isBlockFile(raf, blockCount);
+		}
+	}
+
+	private static boolean isBlockFile(RandomAccessFile raf, int blockCount) throws IOException {
+		if (raf.length() < HEADER_SIZE) {
+			return false;
+		}
+
+		raf.seek(0);
+		return raf.readUnsignedByte() == VERSION_BLOCKS
+				&& raf.readInt() == BLOCK_SIZE
+				&& raf.readInt() == blockCount;
+	}
+
+	/**
+	 * Reads a version 1 or 2 file in its entirety, splitting it into blocks.
+	 * Blocks which only contain zeroes are replaced with {@link #EMPTY_BLOCK}.
+	 */
+	static LegacyContents readLegacy(File file, int size) throws IOException {
+		byte[][] blocks = new byte[getBlockCount(size)][];
+		int position = -1;
+		boolean corrupted = false;
+
+		try (GZIPInputStream stream = new GZIPInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			int version = stream.read();
+			if (version == 1) {
+				int b1 = stream.read() & 0xFF;
+				int b2 = stream.read() & 0xFF;
+				int b3 = stream.read() & 0xFF;
+				int b4 = stream.read() & 0xFF;
+				position = b1 | (b2 << 8) | (b3 << 16) | (b4 << 24);
+			}
+
+			try {
+				for (int i = 0; i < blocks.length; i++) {
+					byte[] block = new byte[BLOCK_SIZE];
+					int blockLen = Math.min(BLOCK_SIZE, size - (i * BLOCK_SIZE));
+					int dataPos = 0;
+					while (dataPos < blockLen) {
+						int s = stream.read(block, dataPos, blockLen - dataPos);
+						if (s >= 0) {
+							dataPos += s;
+						} else {
+							break;
+						}
+					}
+
+					blocks[i] = isEmpty(block) ? EMPTY_BLOCK : block;
+					if (dataPos < blockLen) {
+						break;
+					}
+				}
+			} catch (EOFException e) {
+				corrupted = true;
+			}
+		}
+
+		for (int i = 0; i < blocks.length; i++) {
+			if (blocks[i] == null) {
+				blocks[i] = EMPTY_BLOCK;
+			}
+		}
+
+		return new LegacyContents(blocks, position, corrupted);
+	}
+
+	/**
+	 * Reads a single block from a version 3 file.
+	 *
+	 * @return The block contents, or null if the block is empty.
+	 */
+	@Nullable
+	static byte[] readBlock(File file, int blockCount, int index) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			if (!isBlockFile(raf, blockCount)) {
+				throw new IOException("Not a block-based DataStorage file: " + file.getName());
+			}
+
+			return readBlock(raf, index);
+		}
+	}
+
+	@Nullable
+	private static byte[] readBlock(RandomAccessFile raf, int index) throws IOException {
+		raf.seek(HEADER_SIZE + (long) index * INDEX_ENTRY_SIZE);
+		int offset = raf.readInt();
+		int length = raf.readInt();
+		if (length <= 0) {
+			return null;
+		}
+
+		byte[] compressed = new byte[length];
+		raf.seek(offset);
+		raf.readFully(compressed);
+		return decompress(compressed);
+	}
+
+	/**
+	 * Writes the blocks contained in a snapshot. A full snapshot, or a file
+	 * not yet in the block format, causes the whole file to be rewritten.
+	 */
+	static void write(File file, Snapshot snapshot) throws IOException {
+		if (!snapshot.full && file.exists()) {
+			try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+				if (isBlockFile(raf, snapshot.blockCount)) {
+					if (writeBlocks(raf, snapshot)) {
+						return;
+					}
+				}
+			}
+		}
+
+		// Partial snapshots which can't be applied in place are merged with
+		// the current file contents.
+		byte[][] blocks = new byte[snapshot.blockCount][];
+		if (!snapshot.full && file.exists()) {
+			readAllBlocks(file, snapshot.blockCount, blocks);
+		}
+
+		for (int i = 0; i < snapshot.indices.length; i++) {
+			blocks[snapshot.indices[i]] = snapshot.blocks[i];
+		}
+
+		writeFull(file, blocks);
+	}
+
+	/**
+	 * @return False if the file should be compacted.
+	 */
+	private static boolean writeBlocks(RandomAccessFile raf, Snapshot snapshot) throws IOException {
+		Deflater deflater = new Deflater();
+		long end = raf.length();
+
+		try {
+			for (int i = 0; i < snapshot.indices.length; i++) {
+				byte[] block = snapshot.blocks[i];
+				int offset = 0;
+				int length = 0;
+
+				if (block != null && !isEmpty(block)) {
+					byte[] compressed = compress(deflater, block);
+					raf.seek(end);
+					raf.write(compressed);
+					offset = (int) end;
+					length = compressed.length;
+					end += length;
+				}
+
+				raf.seek(HEADER_SIZE + (long) snapshot.indices[i] * INDEX_ENTRY_SIZE);
+				raf.writeInt(offset);
+				raf.writeInt(length);
+			}
+		} finally {
+			deflater.end();
+		}
+
+		long used = HEADER_SIZE + (long) snapshot.blockCount * INDEX_ENTRY_SIZE;
+		raf.seek(HEADER_SIZE);
+		for (int i = 0; i < snapshot.blockCount; i++) {
+			raf.readInt();
+			used += raf.readInt();
+		}
+
+		long waste = end - used;
+		return waste < COMPACTION_MIN_WASTE || waste < used;
+	}
+
+	private static void readAllBlocks(File file, int blockCount, byte[][] blocks) throws IOException {
+		boolean isBlockFile;
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			isBlockFile = isBlockFile(raf, blockCount);
+			if (isBlockFile) {
+				for (int i = 0; i < blockCount; i++) {
+					blocks[i] = readBlock(raf, i);
+				}
+			}
+		}
+
+		if (!isBlockFile) {
+			LegacyContents contents = readLegacy(file, blockCount * BLOCK_SIZE);
+			System.arraycopy(contents.blocks, 0, blocks, 0, blockCount);
+		}
+	}
+
+	private static void writeFull(File file, byte[][] blocks) throws IOException {
+		File tmpFile = new File(file.getParentFile(), file.getName() + ".tmp");
+		ByteBuffer index = ByteBuffer.allocate(blocks.length * INDEX_ENTRY_SIZE);
+		Deflater deflater = new Deflater();
+
+		try (RandomAccessFile raf = new RandomAccessFile(tmpFile, "rw")) {
+			raf.setLength(0);
+			raf.writeByte(VERSION_BLOCKS);
+			raf.writeInt(BLOCK_SIZE);
+			raf.writeInt(blocks.length);
+			raf.write(new byte[blocks.length * INDEX_ENTRY_SIZE]);
+
+			long end = raf.getFilePointer();
+			for (byte[] block : blocks) {
+				if (block != null && !isEmpty(block)) {
+					byte[] compressed = compress(deflater, block);
+					raf.write(compressed);
+					index.putInt((int) end);
+					index.putInt(compressed.length);
+					end += compressed.length;
+				} else {
+					index.putInt(0);
+					index.putInt(0);
+				}
+			}
+
+			raf.seek(HEADER_SIZE);
+			raf.write(index.array());
+		} finally {
+			deflater.end();
+		}
+
+		try {
+			Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static byte[] compress(Deflater deflater, byte[] block) {
+		deflater.reset();
+		deflater.setInput(block);
+		deflater.finish();
+
+		ByteArrayOutputStream stream = new ByteArrayOutputStream(block.length / 4);
+		byte[] buffer = new byte[4096];
+		while (!deflater.finished()) {
+			int len = deflater.deflate(buffer);
+			stream.write(buffer, 0, len);
+		}
+
+		return stream.toByteArray();
+	}
+
+	private static byte[] decompress(byte[] compressed) throws IOException {
+		Inflater inflater = new Inflater();
+		byte[] block = new byte[BLOCK_SIZE];
+
+		try {
+			inflater.setInput(compressed);
+			int pos = 0;
+			while (pos < block.length && !inflater.finished()) {
+				int len = inflater.inflate(block, pos, block.length - pos);
+				if (len == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				pos += len;
+			}
+
+			if (pos < block.length) {
+				ModCharset.logger.warn("DataStorage block was shorter than expected - might have been corrupted.");
+			}
+		} catch (DataFormatException e) {
+			throw new IOException(e);
+		} finally {
+			inflater.end();
+		}
+
+		return block;
+	}
+}
@@ -27,17 +27,35 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import net.minecraftforge.common.DimensionManager;
 
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.codec.binary.Hex;
 import pl.asie.charset.ModCharset;
 
 public class DataStorageManager {
 	private static final Random rand = new Random();
 	private final Map<String, DataStorage> dirtyMap = new HashMap<>();
+	// Writes are executed in submission order, so the newest future for a
+	// given ID always represents the newest contents on disk.
+	private final Map<String, Future<?>> pendingWrites = new ConcurrentHashMap<>();
+	// Guards files against being read while the I/O thread is writing them.
+	// One lock per ID, so that loading a storage never waits for another.
+	private final LoadingCache<String, Lock> fileLocks = CacheBuilder.newBuilder()
+			.weakValues()
+			.build(CacheLoader.from((id) -> new ReentrantLock()));
+	private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor(
+			new ThreadFactoryBuilder().setNameFormat("Charset DataStorage I/O").setDaemon(true).build()
+	);
 	private long lastSave = 0L;
 	private File saveDir;
 
@@ -67,11 +85,7 @@ public class DataStorageManager {
 				shouldStore = dirtyMap.size() > 0;
 			}
 			if (shouldStore && (lastSave + 30000L) < getCurrentTime()) {
-				try {
-					save();
-				} catch (IOException e) {
-
-				}
+				save();
 			}
 		}
 	}
@@ -84,7 +98,11 @@ public class DataStorageManager {
 		}
 	}
 
-	public void save() throws IOException {
+	/**
+	 * Snapshots all dirty storages on the calling thread and hands them off
+	 * to the I/O thread for compression and writing.
+	 */
+	public void save() {
 		Set<DataStorage> dirtySetClone = new HashSet<>();
 		synchronized (dirtyMap) {
 			dirtySetClone.addAll(dirtyMap.values());
@@ -92,7 +110,103 @@ public class DataStorageManager {
 		}
 
 		for (DataStorage impl : dirtySetClone) {
-			impl.writeFile();
+			queueWrite(impl);
+		}
+
+		lastSave = getCurrentTime();
+	}
+
+	void queueWrite(DataStorage impl) {
+		final DataStorageFormat.Snapshot snapshot = impl.createSnapshot();
+		final String id = impl.getUniqueId();
+		final File file = impl.getFile();
+		if (id == null || file == null || snapshot == null) {
+			return;
+		}
+
+		FutureTask<Void> task = new FutureTask<Void>(() -> {
+			Lock lock = getFileLock(id);
+			boolean success = false;
+			lock.lock();
+			try {
+				DataStorageFormat.write(file, snapshot);
+				if (snapshot.full) {
+					// The compressed file now contains everything a
+					// previously memory-mapped file had.
+					File mappedFile = getMappedFileForId(id);
+					if (mappedFile.exists() && !mappedFile.delete()) {
+						ModCharset.logger.warn("Could not delete stale mapped DataStorage file! (ID: " + id + ")");
+					}
+				}
+				success = true;
+			} catch (IOException e) {
+				ModCharset.logger.error("Could not save a DataStorage! (ID: " + id + ")", e);
+			} finally {
+				lock.unlock();
+				if (success) {
+					snapshot.written = true;
+				} else {
+					// The storage puts the snapshot's blocks back into its
+					// dirty set on the next snapshot.
+					snapshot.failed = true;
+					markSaveNeeded(impl);
+				}
+			}
+		}, null) {
+			@Override
+			protected void done() {
+				pendingWrites.remove(id, this);
+			}
+		};
+
+		pendingWrites.put(id, task);
+		ioExecutor.execute(task);
+	}
+
+	Lock getFileLock(String id) {
+		return fileLocks.getUnchecked(id);
+	}
+
+	/**
+	 * Ensures that the on-disk contents of a given ID are up to date before
+	 * reading them. Only waits for writes of this specific ID.
+	 */
+	void flush(String id) {
+		DataStorage impl;
+		synchronized (dirtyMap) {
+			impl = dirtyMap.remove(id);
+		}
+
+		if (impl != null) {
+			queueWrite(impl);
+		}
+
+		Future<?> future = pendingWrites.get(id);
+		if (future != null) {
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				ModCharset.logger.error("Could not save a DataStorage! (ID: " + id + ")", e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * Saves all remaining dirty storages and waits for all pending writes
+	 * to finish.
+	 */
+	public void close() {
+		save();
+		ioExecutor.shutdown();
+
+		try {
+			if (!ioExecutor.awaitTermination(5, TimeUnit.MINUTES)) {
+				ModCharset.logger.error("Timed out waiting for DataStorage writes to finish!");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 		}
 	}
 
@@ -100,6 +214,10 @@ public class DataStorageManager {
 		return storageName + ".dat";
 	}
 
+	private String mappedFilename(String storageName) {
+		return storageName + ".raw";
+	}
+
 	String generateUID() {
 		for (int j = 16; j <= 32; j++) {
 			for (int i = 0; i < 256; i++) {
@@ -118,7 +236,7 @@ public class DataStorageManager {
 	}
 
 	public boolean exists(String name) {
-		return getFileForId(name).exists();
+		return getFileForId(name).exists() || getMappedFileForId(name).exists();
 	}
 
 	public boolean isReady() {
@@ -128,4 +246,8 @@ public class DataStorageManager {
 	public File getFileForId(String name) {
 		return new File(saveDir, filename(name));
 	}
+
+	public File getMappedFileForId(String name) {
+		return new File(saveDir, mappedFilename(name));
+	}
 }
@@ -28,6 +28,7 @@ import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.capabilities.CapabilityInject;
 import net.minecraftforge.common.capabilities.CapabilityManager;
+import net.minecraftforge.common.config.Configuration;
 import net.minecraftforge.event.RegistryEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
@@ -41,6 +42,8 @@ import net.minecraftforge.fml.relauncher.SideOnly;
 import pl.asie.charset.api.laser.ILaserSource;
 import pl.asie.charset.lib.capability.DummyCapabilityStorage;
 import pl.asie.charset.lib.command.CommandCharset;
+import pl.asie.charset.lib.config.CharsetLoadConfigEvent;
+import pl.asie.charset.lib.config.ConfigUtils;
 import pl.asie.charset.lib.handlers.ShiftScrollHandler;
 import pl.asie.charset.lib.item.ItemBlockBase;
 import pl.asie.charset.lib.loader.CharsetModule;
@@ -71,6 +74,7 @@ public class CharsetLaser {
     public static final Set<Block> BLOCKING_BLOCKS = new HashSet<>();
 
     public static boolean REDSTONE_HOOK_ACTIVE;
+    public static boolean batchBeamSync;
 
     @CapabilityInject(ILaserSource.class)
     public static Capability<ILaserSource> LASER_SOURCE;
@@ -98,9 +102,17 @@ public class CharsetLaser {
     @CharsetModule.PacketRegistry
     public static PacketRegistry packet;
 
+    @CharsetModule.Configuration
+    public static Configuration config;
+
     @CharsetModule.SidedProxy(clientSide = "pl.asie.charset.module.optics.laser.ProxyClient", serverSide = "pl.asie.charset.module.optics.laser.ProxyCommon")
     public static ProxyCommon proxy;
 
+    @Mod.EventHandler
+    public void loadConfig(CharsetLoadConfigEvent event) {
+        batchBeamSync = ConfigUtils.getBoolean(config, "general", "batchBeamSync", true, "Coalesce laser beam changes into one packet per player per tick, instead of sending a packet for every beam.", false);
+    }
+
     @Mod.EventHandler
     public void preInit(FMLPreInitializationEvent event) {
         CapabilityManager.INSTANCE.register(ILaserSource.class, DummyCapabilityStorage.get(), DummyLaserSource::new);
@@ -187,6 +199,8 @@ public class CharsetLaser {
 
         packet.registerPacket(0x01, PacketBeamAdd.class);
         packet.registerPacket(0x02, PacketBeamRemove.class);
+        packet.registerPacket(0x03, PacketBeamUpdate.class);
+        packet.registerPacket(0x04, PacketBeamBatch.class);
 
         ShiftScrollHandler.INSTANCE.register(new ShiftScrollHandler.ItemGroup(itemCrystal));
         ShiftScrollHandler.INSTANCE.register(new ShiftScrollHandler.ItemGroup(itemJar));
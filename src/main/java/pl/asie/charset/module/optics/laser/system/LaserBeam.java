@@ -48,7 +48,8 @@ public final class LaserBeam implements ILaserBeam, ILaserEndpoint {
 	private final @Nonnull
 	ILaserSource source;
 	private final @Nonnull World world;
-	private final @Nonnull BlockPos start, end;
+	private final @Nonnull BlockPos start;
+	private @Nonnull BlockPos end;
 	private final @Nonnull LaserColor color;
 	private final @Nonnull EnumFacing direction;
 
@@ -69,7 +70,7 @@ public final class LaserBeam implements ILaserBeam, ILaserEndpoint {
 		this.start = start;
 		this.direction = facing;
 		this.color = color;
-		this.end = calculateEnd();
+		this.end = calculateEnd(0);
 
 		validate();
 	}
@@ -95,7 +96,11 @@ public final class LaserBeam implements ILaserBeam, ILaserEndpoint {
 		buf.writeInt(world.provider.getDimension());
 		buf.writeBlockPos(start);
 		buf.writeShort(length);
-		buf.writeByte(direction.ordinal() | (color.ordinal() << 3) | (endedAtAir ? 0x40 : 0));
+		buf.writeByte(getFlags());
+	}
+
+	int getFlags() {
+		return direction.ordinal() | (color.ordinal() << 3) | (endedAtAir ? 0x40 : 0);
 	}
 
 	public void validate() {
@@ -109,18 +114,7 @@ public final class LaserBeam implements ILaserBeam, ILaserEndpoint {
 	public void onAdd(boolean updates) {
 		if (updates) {
 			// System.out.println("ADD " + toString());
-
-			if (!start.equals(end)) {
-				TileEntity tile = world.getTileEntity(end);
-				if (tile != null && tile.hasCapability(CharsetLaser.LASER_RECEIVER, direction.getOpposite())) {
-					ILaserReceiver receiver = tile.getCapability(CharsetLaser.LASER_RECEIVER, direction.getOpposite());
-					if (receiver != null) {
-						receiver.onLaserUpdate(color);
-					}
-				} else if (CharsetLaser.REDSTONE_HOOK_ACTIVE) {
-					world.neighborChanged(end, Blocks.AIR, end.offset(direction.getOpposite()));
-				}
-			}
+			notifyEndpoint(end, true);
 		}
 	}
 
@@ -129,17 +123,22 @@ public final class LaserBeam implements ILaserBeam, ILaserEndpoint {
 
 		if (updates) {
 			// System.out.println("DEL " + toString());
+			notifyEndpoint(end, false);
+		}
+	}
 
-			if (!start.equals(end)) {
-				TileEntity tile = world.getTileEntity(end);
-				if (tile != null && tile.hasCapability(CharsetLaser.LASER_RECEIVER, direction.getOpposite())) {
-					ILaserReceiver receiver = tile.getCapability(CharsetLaser.LASER_RECEIVER, direction.getOpposite());
-					if (receiver != null) {
-						receiver.onLaserUpdate(LaserColor.NONE);
-					}
-				} else if (CharsetLaser.REDSTONE_HOOK_ACTIVE) {
-					world.neighborChanged(end, Blocks.AIR, end.offset(direction.getOpposite()));
-					world.notifyNeighborsOfStateChange(end, Blocks.AIR, false);
+	void notifyEndpoint(BlockPos endPos, boolean lit) {
+		if (!start.equals(endPos)) {
+			TileEntity tile = world.getTileEntity(endPos);
+			if (tile != null && tile.hasCapability(CharsetLaser.LASER_RECEIVER, direction.getOpposite())) {
+				ILaserReceiver receiver = tile.getCapability(CharsetLaser.LASER_RECEIVER, direction.getOpposite());
+				if (receiver != null) {
+					receiver.onLaserUpdate(lit ? color : LaserColor.NONE);
+				}
+			} else if (CharsetLaser.REDSTONE_HOOK_ACTIVE) {
+				world.neighborChanged(endPos, Blocks.AIR, endPos.offset(direction.getOpposite()));
+				if (!lit) {
+					world.notifyNeighborsOfStateChange(endPos, Blocks.AIR, false);
 				}
 			}
 		}
@@ -231,10 +230,10 @@ public final class LaserBeam implements ILaserBeam, ILaserEndpoint {
 		return false;
 	}
 
-	private BlockPos calculateEnd() {
+	private BlockPos calculateEnd(int skip) {
 		boolean foundEnd = false;
-		int i = 0;
-		BlockPos.MutableBlockPos endPos = new BlockPos.MutableBlockPos(start);
+		int i = skip;
+		BlockPos.MutableBlockPos endPos = new BlockPos.MutableBlockPos(skip > 0 ? start.offset(direction, skip) : start);
 		Chunk chunk = world.getChunk(endPos);
 
 		while (i < MAX_DISTANCE && !foundEnd) {
@@ -267,11 +266,47 @@ public final class LaserBeam implements ILaserBeam, ILaserEndpoint {
 		length = i;
 		endedAtAir = !foundEnd;
 
-		return endPos;
+		return endPos.toImmutable();
+	}
+
+	/**
+	 * Re-traces the beam from a given distance onwards, assuming that
+	 * the blocks between the start and that distance have not changed.
+	 *
+	 * @param distance The distance from the start of the first changed block.
+	 * @return Whether the end of the beam has changed.
+	 */
+	public boolean retraceFrom(int distance) {
+		BlockPos oldEnd = end;
+		boolean oldEndedAtAir = endedAtAir;
+
+		end = calculateEnd(Math.max(0, Math.min(distance, length) - 1));
+		return !end.equals(oldEnd) || endedAtAir != oldEndedAtAir;
+	}
+
+	/**
+	 * Used on the client side to apply a length change sent by the server.
+	 */
+	public void setLength(int length, boolean endedAtAir) {
+		this.length = length;
+		this.endedAtAir = endedAtAir;
+		this.end = start.offset(direction, length);
+	}
+
+	/**
+	 * @return The distance of the given position from the start of the beam
+	 * along its direction.
+	 */
+	public int getDistance(BlockPos pos) {
+		return Math.abs((pos.getX() - start.getX()) + (pos.getY() - start.getY()) + (pos.getZ() - start.getZ()));
+	}
+
+	public boolean isSourceValid() {
+		return isValidated && source.isCacheValid();
 	}
 
 	public boolean isValid() {
-		if (!isValidated || !source.isCacheValid()) {
+		if (!isSourceValid()) {
 			/* if (!isValidated) {
 				System.out.println("INVALID - flag: " + this);
 			} else {
@@ -362,4 +397,12 @@ public final class LaserBeam implements ILaserBeam, ILaserEndpoint {
 	public long getId() {
 		return id;
 	}
+
+	public int getLength() {
+		return length;
+	}
+
+	public boolean hasEndedAtAir() {
+		return endedAtAir;
+	}
 }
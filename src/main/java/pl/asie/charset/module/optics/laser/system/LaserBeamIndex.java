@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.module.optics.laser.system;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Spatial index of the laser beams in a world.
+ *
+ * Every beam is registered in each 16x16x16 chunk section it passes
+ * through, so that block changes only have to look at the beams which
+ * actually cross the changed position. Beams are also kept per starting
+ * chunk, for chunk unloading and syncing.
+ */
+public class LaserBeamIndex {
+	private final Long2ObjectOpenHashMap<LaserBeam> beams = new Long2ObjectOpenHashMap<>();
+	private final Collection<LaserBeam> beamView = Collections.unmodifiableCollection(beams.values());
+	private final Long2ObjectOpenHashMap<List<LaserBeam>> beamsBySection = new Long2ObjectOpenHashMap<>();
+	private final Long2ObjectOpenHashMap<List<LaserBeam>> beamsByStartChunk = new Long2ObjectOpenHashMap<>();
+
+	private static long getSectionKey(int sx, int sy, int sz) {
+		return ((long) (sx & 0x3FFFFFF) << 38) | ((long) (sz & 0x3FFFFFF) << 12) | (long) (sy & 0xFFF);
+	}
+
+	private static long getStartChunkKey(LaserBeam beam) {
+		return ChunkPos.asLong(beam.getStart().getX() >> 4, beam.getStart().getZ() >> 4);
+	}
+
+	private static void addTo(Long2ObjectOpenHashMap<List<LaserBeam>> map, long key, LaserBeam beam) {
+		List<LaserBeam> list = map.get(key);
+		if (list == null) {
+			list = new ObjectArrayList<>(4);
+			map.put(key, list);
+		}
+		list.add(beam);
+	}
+
+	private static void removeFrom(Long2ObjectOpenHashMap<List<LaserBeam>> map, long key, LaserBeam beam) {
+		List<LaserBeam> list = map.get(key);
+		if (list != null && list.remove(beam) && list.isEmpty()) {
+			map.remove(key);
+		}
+	}
+
+	/**
+	 * Checks whether a beam passes through a given block. The start and end
+	 * blocks of the beam are included.
+	 */
+	private static boolean crosses(LaserBeam beam, int x, int y, int z) {
+		BlockPos start = beam.getStart();
+		BlockPos end = beam.getEnd();
+		return x >= Math.min(start.getX(), end.getX()) && x <= Math.max(start.getX(), end.getX())
+				&& y >= Math.min(start.getY(), end.getY()) && y <= Math.max(start.getY(), end.getY())
+				&& z >= Math.min(start.getZ(), end.getZ()) && z <= Math.max(start.getZ(), end.getZ());
+	}
+
+	private void updateSections(LaserBeam beam, boolean add) {
+		BlockPos start = beam.getStart();
+		BlockPos end = beam.getEnd();
+		int sx1 = Math.min(start.getX(), end.getX()) >> 4;
+		int sy1 = Math.min(start.getY(), end.getY()) >> 4;
+		int sz1 = Math.min(start.getZ(), end.getZ()) >> 4;
+		int sx2 = Math.max(start.getX(), end.getX()) >> 4;
+		int sy2 = Math.max(start.getY(), end.getY()) >> 4;
+		int sz2 = Math.max(start.getZ(), end.getZ()) >> 4;
+
+		for (int sx = sx1; sx <= sx2; sx++) {
+			for (int sy = sy1; sy <= sy2; sy++) {
+				for (int sz = sz1; sz <= sz2; sz++) {
+					if (add) {
+						addTo(beamsBySection, getSectionKey(sx, sy, sz), beam);
+					} else {
+						removeFrom(beamsBySection, getSectionKey(sx, sy, sz), beam);
+					}
+				}
+			}
+		}
+	}
+
+	public int size() {
+		return beams.size();
+	}
+
+	public boolean isEmpty() {
+		return beams.isEmpty();
+	}
+
+	public boolean contains(LaserBeam beam) {
+		return beams.get(beam.getId()) == beam;
+	}
+
+	/**
+	 * @return An unmodifiable live view of all beams in the index.
+	 */
+	public Collection<LaserBeam> values() {
+		return beamView;
+	}
+
+	public boolean add(LaserBeam beam) {
+		if (beams.containsKey(beam.getId())) {
+			return false;
+		}
+
+		beams.put(beam.getId(), beam);
+		addTo(beamsByStartChunk, getStartChunkKey(beam), beam);
+		updateSections(beam, true);
+		return true;
+	}
+
+	public boolean remove(LaserBeam beam) {
+		if (!contains(beam)) {
+			return false;
+		}
+
+		beams.remove(beam.getId());
+		removeFrom(beamsByStartChunk, getStartChunkKey(beam), beam);
+		updateSections(beam, false);
+		return true;
+	}
+
+	public void clear() {
+		beams.clear();
+		beamsBySection.clear();
+		beamsByStartChunk.clear();
+	}
+
+	/**
+	 * @return The beams starting in a given chunk. The returned list must not be modified.
+	 */
+	public List<LaserBeam> getBeamsStartingIn(int chunkX, int chunkZ) {
+		List<LaserBeam> list = beamsByStartChunk.get(ChunkPos.asLong(chunkX, chunkZ));
+		return list != null ? list : Collections.emptyList();
+	}
+
+	/**
+	 * Adds all beams passing through a given block to the collection.
+	 */
+	public void getBeamsAt(BlockPos pos, Collection<LaserBeam> out) {
+		List<LaserBeam> list = beamsBySection.get(getSectionKey(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4));
+		if (list != null) {
+			for (int i = 0; i < list.size(); i++) {
+				LaserBeam beam = list.get(i);
+				if (crosses(beam, pos.getX(), pos.getY(), pos.getZ())) {
+					out.add(beam);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds all beams passing through any section of a given chunk to the collection.
+	 */
+	public void getBeamsInChunk(int chunkX, int chunkZ, Collection<LaserBeam> out) {
+		for (int sy = 0; sy < 16; sy++) {
+			List<LaserBeam> list = beamsBySection.get(getSectionKey(chunkX, sy, chunkZ));
+			if (list != null) {
+				out.addAll(list);
+			}
+		}
+	}
+
+	/**
+	 * Adds all beams sharing a chunk section with the given beam to the collection.
+	 * The given beam itself is only included if it is part of the index.
+	 */
+	public void getBeamsNear(LaserBeam beam, Collection<LaserBeam> out) {
+		BlockPos start = beam.getStart();
+		BlockPos end = beam.getEnd();
+		int sx1 = Math.min(start.getX(), end.getX()) >> 4;
+		int sy1 = Math.min(start.getY(), end.getY()) >> 4;
+		int sz1 = Math.min(start.getZ(), end.getZ()) >> 4;
+		int sx2 = Math.max(start.getX(), end.getX()) >> 4;
+		int sy2 = Math.max(start.getY(), end.getY()) >> 4;
+		int sz2 = Math.max(start.getZ(), end.getZ()) >> 4;
+
+		for (int sx = sx1; sx <= sx2; sx++) {
+			for (int sy = sy1; sy <= sy2; sy++) {
+				for (int sz = sz1; sz <= sz2; sz++) {
+					List<LaserBeam> list = beamsBySection.get(getSectionKey(sx, sy, sz));
+					if (list != null) {
+						out.addAll(list);
+					}
+				}
+			}
+		}
+	}
+}
@@ -151,6 +151,13 @@ public class LaserStorage {
 		}
 	}
 
+	protected void update(World world, long id, int length, boolean endedAtAir) {
+		LaserWorldStorage storage = getOrCreateStorage(world);
+		if (storage instanceof LaserWorldStorageClient) {
+			((LaserWorldStorageClient) storage).updateById(id, length, endedAtAir);
+		}
+	}
+
 	protected void remove(LaserBeam beam) {
 		getOrCreateStorage(beam.getWorld()).remove(beam, false);
 	}
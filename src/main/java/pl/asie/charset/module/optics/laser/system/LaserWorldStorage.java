@@ -19,8 +19,11 @@
 
 package pl.asie.charset.module.optics.laser.system;
 
-import com.google.common.collect.*;
-import it.unimi.dsi.fastutil.longs.*;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.Reference2IntLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayer;
@@ -41,152 +44,15 @@ import javax.annotation.Nullable;
 import java.util.*;
 
 public class LaserWorldStorage implements IWorldEventListener {
-	protected final Long2ObjectOpenHashMap<Set<LaserBeam>> laserBeams = new Long2ObjectOpenHashMap<>();
-	protected final Collection<LaserBeam> laserBeamView = new Collection<LaserBeam>() {
-		@Override
-		public int size() {
-			int size = 0;
-			for (Set<LaserBeam> set : laserBeams.values()) {
-				size += set.size();
-			}
-			return size;
-		}
-
-		@Override
-		public boolean isEmpty() {
-			for (Set<LaserBeam> set : laserBeams.values()) {
-				if (set.size() > 0) {
-					return true;
-				}
-			}
-			return false;
-		}
-
-		@Override
-		public boolean contains(Object o) {
-			if (o instanceof LaserBeam) {
-				Set<LaserBeam> beamSet = laserBeams.get(ChunkPos.asLong(((LaserBeam) o).getStart().getX() >> 4, ((LaserBeam) o).getStart().getZ() >> 4));
-				return beamSet.contains(o);
-			}
-			return false;
-		}
-
-		@Override
-		public Iterator<LaserBeam> iterator() {
-			return new Iterator<LaserBeam>() {
-				private final Iterator<Set<LaserBeam>> setIterator = laserBeams.values().iterator();
-				private Iterator<LaserBeam> iterator;
-
-				@Override
-				public boolean hasNext() {
-					return (iterator != null && iterator.hasNext()) || setIterator.hasNext();
-				}
-
-				@Override
-				public LaserBeam next() {
-					while (iterator == null || !iterator.hasNext()) {
-						if (!setIterator.hasNext()) {
-							return null;
-						}
-						iterator = setIterator.next().iterator();
-					}
-					return iterator.next();
-				}
-			};
-		}
-
-		@Override
-		public Object[] toArray() {
-			Object[] o = new Object[size()];
-			int i = 0;
-			for (Set<LaserBeam> set : laserBeams.values()) {
-				for (LaserBeam beam : set) {
-					o[i++] = beam;
-				}
-			}
-			return o;
-		}
-
-		@Override
-		@SuppressWarnings("unchecked")
-		public <T> T[] toArray(T[] ts) {
-			int i = 0;
-			for (Set<LaserBeam> set : laserBeams.values()) {
-				for (LaserBeam beam : set) {
-					if (i >= ts.length) return ts;
-					ts[i++] = (T) beam;
-				}
-			}
-			return ts;
-		}
-
-		@Override
-		public boolean add(LaserBeam laserBeam) {
-			long p = ChunkPos.asLong(laserBeam.getStart().getX() >> 4, laserBeam.getStart().getZ() >> 4);
-			Set<LaserBeam> beamSet = laserBeams.get(p);
-			if (beamSet == null) {
-				beamSet = new LinkedHashSet<>();
-				laserBeams.put(p, beamSet);
-			}
-			return beamSet.add(laserBeam);
-		}
-
-		@Override
-		public boolean remove(Object o) {
-			if (o instanceof LaserBeam) {
-				long p = ChunkPos.asLong(((LaserBeam) o).getStart().getX() >> 4, ((LaserBeam) o).getStart().getZ() >> 4);
-				Set<LaserBeam> beamSet = laserBeams.get(p);
-				if (beamSet != null) {
-					boolean r = beamSet.remove(o);
-					if (r && beamSet.isEmpty()) {
-						laserBeams.remove(p);
-					}
-					return r;
-				}
-			}
-			return false;
-		}
-
-		@Override
-		public boolean containsAll(Collection<?> collection) {
-			for (Object o : collection) {
-				if (!contains(o)) return false;
-			}
-			return true;
-		}
-
-		@Override
-		public boolean addAll(Collection<? extends LaserBeam> collection) {
-			boolean a = false;
-			for (Object o : collection) {
-				a |= !add((LaserBeam) o);
-			}
-			return !a;
-		}
-
-		@Override
-		public boolean removeAll(Collection<?> collection) {
-			boolean a = false;
-			for (Object o : collection) {
-				a |= !remove(o);
-			}
-			return !a;
-		}
-
-		@Override
-		public boolean retainAll(Collection<?> collection) {
-			throw new RuntimeException("Implement me!");
-		}
-
-		@Override
-		public void clear() {
-			laserBeams.clear();
-		}
-	};
+	protected final LaserBeamIndex index = new LaserBeamIndex();
 
 	private final Long2ObjectOpenHashMap<Set<ILaserEndpoint>> endpoints = new Long2ObjectOpenHashMap<>();
 	private final LongSet validatedLasers = new LongOpenHashSet();
-	private final LongSet chunksToRescan = new LongOpenHashSet();
+	// Beams to revalidate, mapped to the distance of the first changed block
+	// along the beam (0 meaning the whole beam must be revalidated).
+	private Reference2IntLinkedOpenHashMap<LaserBeam> beamsToRescan = new Reference2IntLinkedOpenHashMap<>();
+	private Reference2IntLinkedOpenHashMap<LaserBeam> beamsBeingRescanned = new Reference2IntLinkedOpenHashMap<>();
+	private final List<LaserBeam> foundBeams = new ArrayList<>();
 	private final Queue<BlockPos> newLasersQueue = new ArrayDeque<>();
 	protected final World world;
 	private final boolean updates;
@@ -197,18 +63,22 @@ public class LaserWorldStorage implements IWorldEventListener {
 	public LaserWorldStorage(World world, boolean updates) {
 		this.world = world;
 		this.updates = updates;
+		this.beamsToRescan.defaultReturnValue(-1);
+		this.beamsBeingRescanned.defaultReturnValue(-1);
 	}
 
-	private void addChunkToRescan(BlockPos blockPos) {
-		addChunkToRescan(blockPos.getX() >> 4, blockPos.getZ() >> 4);
-	}
-
-	private void addChunkToRescan(ChunkPos chunkPos) {
-		addChunkToRescan(chunkPos.x, chunkPos.z);
+	private void queueRescan(LaserBeam beam, int distance) {
+		int oldDistance = beamsToRescan.getInt(beam);
+		if (oldDistance < 0 || distance < oldDistance) {
+			beamsToRescan.put(beam, distance);
+		}
 	}
 
-	private void addChunkToRescan(int x, int z) {
-		chunksToRescan.add(ChunkPos.asLong(x, z));
+	private void queueRescanFound() {
+		for (int i = 0; i < foundBeams.size(); i++) {
+			queueRescan(foundBeams.get(i), 0);
+		}
+		foundBeams.clear();
 	}
 
 	protected boolean isEndpointHit(BlockPos pos, EnumFacing facing) {
@@ -253,18 +123,14 @@ public class LaserWorldStorage implements IWorldEventListener {
 	}
 
 	public Collection<LaserBeam> getLaserBeams() {
-		ImmutableSet.Builder<LaserBeam> beams = new ImmutableSet.Builder<>();
-		for (Set<LaserBeam> set : laserBeams.values()) {
-			beams.addAll(set);
-		}
-		return beams.build();
+		return index.values();
 	}
 
 	public void onTick() {
 		if (updates)
-			runChunkRescanQueue();
+			runRescanQueue();
 		else {
-			chunksToRescan.clear();
+			beamsToRescan.clear();
 			newLasersQueue.clear();
 		}
 	}
@@ -320,26 +186,32 @@ public class LaserWorldStorage implements IWorldEventListener {
 	// Avoid recreating the arrays every tick
 	Queue<LaserBeam> lasersToRespawn = new ArrayDeque<>();
 
-	private void runChunkRescanQueue() {
-		while (!chunksToRescan.isEmpty()) {
-			LongIterator it = chunksToRescan.iterator();
-			while (it.hasNext()) {
-				long cv = it.next();
-				Set<LaserBeam> set = laserBeams.get(cv);
-				if (set != null) {
-					for (LaserBeam beam : set) {
-						if (!validatedLasers.contains(beam.getId())) {
-							if (!beam.isValid()) {
-								lasersToRespawn.add(beam);
-							} else {
-								validatedLasers.add(beam.getId());
-							}
-						}
+	private void runRescanQueue() {
+		while (!beamsToRescan.isEmpty()) {
+			// Swap the queues, so that beams queued while processing
+			// end up in the next pass.
+			Reference2IntLinkedOpenHashMap<LaserBeam> beams = beamsToRescan;
+			beamsToRescan = beamsBeingRescanned;
+			beamsBeingRescanned = beams;
+
+			for (Reference2IntMap.Entry<LaserBeam> entry : beams.reference2IntEntrySet()) {
+				LaserBeam beam = entry.getKey();
+				int distance = entry.getIntValue();
+
+				if (index.contains(beam) && !validatedLasers.contains(beam.getId())) {
+					if (distance > 0 && beam.isSourceValid()) {
+						// Only the part of the beam past the first changed block needs re-tracing.
+						retrace(beam, distance);
+						validatedLasers.add(beam.getId());
+					} else if (!beam.isValid()) {
+						lasersToRespawn.add(beam);
+					} else {
+						validatedLasers.add(beam.getId());
 					}
 				}
 			}
 
-			chunksToRescan.clear();
+			beams.clear();
 
 			for (LaserBeam beam : lasersToRespawn) {
 				remove(beam, false);
@@ -360,13 +232,12 @@ public class LaserWorldStorage implements IWorldEventListener {
 	}
 
 	public void removeAll(Chunk chunk) {
-		long l = ChunkPos.asLong(chunk.getPos().x, chunk.getPos().z);
-
-		Collection<LaserBeam> removedBeams = laserBeams.get(l);
-		if (removedBeams != null) {
-			laserBeams.remove(l);
+		List<LaserBeam> startingBeams = index.getBeamsStartingIn(chunk.getPos().x, chunk.getPos().z);
+		if (!startingBeams.isEmpty()) {
+			LaserBeam[] removedBeams = startingBeams.toArray(new LaserBeam[0]);
 
 			for (LaserBeam laserBeam : removedBeams) {
+				index.remove(laserBeam);
 				remove(laserBeam, true);
 			}
 		}
@@ -382,7 +253,7 @@ public class LaserWorldStorage implements IWorldEventListener {
 */
 
 	public boolean add(LaserBeam beam) {
-		if (laserBeamView.add(beam)) {
+		if (index.add(beam)) {
 			if (/* updates && */(CharsetLaser.REDSTONE_HOOK_ACTIVE)) {
 				addEndpoint(beam);
 			}
@@ -394,30 +265,15 @@ public class LaserWorldStorage implements IWorldEventListener {
 	}
 
 	public boolean remove(LaserBeam beam, boolean alreadyRemoved) {
-		if (alreadyRemoved || laserBeamView.remove(beam)) {
+		if (alreadyRemoved || index.remove(beam)) {
 			if (updates) {
 				if (CharsetLaser.REDSTONE_HOOK_ACTIVE) {
 					removeEndpoint(beam);
 				}
-				int cx1 = beam.getStart().getX() >> 4;
-				int cz1 = beam.getStart().getZ() >> 4;
-				int cx2 = beam.getEnd().getX() >> 4;
-				int cz2 = beam.getEnd().getZ() >> 4;
-				if (cx2 < cx1) {
-					int t = cx1;
-					cx1 = cx2;
-					cx2 = t;
-				}
-
-				if (cz2 < cz1) {
-					int t = cz1;
-					cz1 = cz2;
-					cz2 = t;
-				}
-
-				for (int cz = cz1; cz <= cz2; cz++)
-					for (int cx = cx1; cx <= cx2; cx++)
-						addChunkToRescan(cx, cz);
+				// Beams sharing a section with the removed one may depend on it
+				// (for example, through the receiver at its end).
+				index.getBeamsNear(beam, foundBeams);
+				queueRescanFound();
 			}
 
 			beam.onRemove(/* updates */ true);
@@ -427,27 +283,50 @@ public class LaserWorldStorage implements IWorldEventListener {
 		}
 	}
 
-	protected int getChunkRadius() {
-		// 1 = +0 chunks, 2 = +1 chunk ... 17 = +1 chunk, 18 = +2 chunks
-		return (LaserBeam.MAX_DISTANCE + 14) / 16;
+	private void retrace(LaserBeam beam, int distance) {
+		BlockPos oldEnd = beam.getEnd();
+		index.remove(beam);
+		if (CharsetLaser.REDSTONE_HOOK_ACTIVE) {
+			removeEndpoint(beam);
+		}
+
+		boolean changed = beam.retraceFrom(distance);
+
+		index.add(beam);
+		if (CharsetLaser.REDSTONE_HOOK_ACTIVE) {
+			addEndpoint(beam);
+		}
+
+		if (changed) {
+			beam.notifyEndpoint(oldEnd, false);
+			beam.notifyEndpoint(beam.getEnd(), true);
+			onRetrace(beam);
+		}
+	}
+
+	/**
+	 * Called after an existing beam has been re-traced to a different length.
+	 */
+	protected void onRetrace(LaserBeam beam) {
+
 	}
 
 	public void rescanAllAffectedChunks(ChunkPos c) {
 		if (updates) {
-			addChunkToRescan(c);
-			int chunkDiff = getChunkRadius();
-			int chunkX = c.x;
-			int chunkZ = c.z;
-			for (int d = -chunkDiff; d <= chunkDiff; d++) {
-				addChunkToRescan(chunkX + d, chunkZ);
-				addChunkToRescan(chunkX, chunkZ + d);
-			}
+			index.getBeamsInChunk(c.x, c.z, foundBeams);
+			queueRescanFound();
 		}
 	}
 
 	public void rescan(World worldIn, BlockPos pos) {
-		// TODO: This is horrendous.
-		rescanAllAffectedChunks(new ChunkPos(pos));
+		if (updates) {
+			index.getBeamsAt(pos, foundBeams);
+			for (int i = 0; i < foundBeams.size(); i++) {
+				LaserBeam beam = foundBeams.get(i);
+				queueRescan(beam, beam.getDistance(pos));
+			}
+			foundBeams.clear();
+		}
 	}
 
 	@Override
@@ -52,6 +52,15 @@ public class LaserWorldStorageClient extends LaserWorldStorage {
 		}
 	}
 
+	protected void updateById(long id, int length, boolean endedAtAir) {
+		LaserBeam beam = beamsById.get(id);
+		if (beam != null) {
+			index.remove(beam);
+			beam.setLength(length, endedAtAir);
+			index.add(beam);
+		}
+	}
+
 	protected void removeById(long id) {
 		LaserBeam beam = beamsById.get(id);
 		if (beam != null) {
@@ -20,23 +20,39 @@
 package pl.asie.charset.module.optics.laser.system;
 
 import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.server.management.PlayerChunkMap;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
 import net.minecraftforge.event.world.ChunkWatchEvent;
 import pl.asie.charset.lib.network.Packet;
 import pl.asie.charset.lib.scheduler.Scheduler;
 import pl.asie.charset.module.optics.laser.CharsetLaser;
 
-import java.util.Set;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 public class LaserWorldStorageServer extends LaserWorldStorage {
 	public static boolean IS_LAZY = false;
 	public static int LAZY_LIGHT_DELAY = 1;
 
+	private static final int SYNC_ADD = 0;
+	private static final int SYNC_UPDATE = 1;
+	private static final int SYNC_REMOVE = 2;
+
+	private final Map<EntityPlayerMP, PacketBeamBatch> pendingBatches = new IdentityHashMap<>();
+
 	public LaserWorldStorageServer(World world) {
 		super(world, true);
 	}
 
+	@Override
+	public void onTick() {
+		super.onTick();
+		flushBatches();
+	}
+
 	@Override
 	public boolean add(LaserBeam beam) {
 		if (IS_LAZY) {
@@ -55,7 +71,7 @@ public class LaserWorldStorageServer extends LaserWorldStorage {
 
 	private boolean realAdd(LaserBeam beam) {
 		if (super.add(beam)) {
-			sendPacket(new PacketBeamAdd(beam), beam);
+			sync(beam, SYNC_ADD);
 			return true;
 		} else {
 			return false;
@@ -66,14 +82,84 @@ public class LaserWorldStorageServer extends LaserWorldStorage {
 		EntityPlayer player = event.getPlayer();
 		ChunkPos pos = event.getChunk();
 
-		Set<LaserBeam> set = laserBeams.get(ChunkPos.asLong(pos.x, pos.z));
-		if (set != null) {
-			for (LaserBeam beam : set) {
+		if (CharsetLaser.batchBeamSync && player instanceof EntityPlayerMP) {
+			PacketBeamBatch batch = null;
+			for (LaserBeam beam : index.getBeamsStartingIn(pos.x, pos.z)) {
+				if (batch == null) {
+					batch = getBatch((EntityPlayerMP) player);
+				}
+				batch.add(beam);
+			}
+		} else {
+			for (LaserBeam beam : index.getBeamsStartingIn(pos.x, pos.z)) {
 				CharsetLaser.packet.sendTo(new PacketBeamAdd(beam), player);
 			}
 		}
 	}
 
+	private PacketBeamBatch getBatch(EntityPlayerMP player) {
+		PacketBeamBatch batch = pendingBatches.get(player);
+		if (batch == null) {
+			batch = new PacketBeamBatch(world.provider.getDimension());
+			pendingBatches.put(player, batch);
+		}
+		return batch;
+	}
+
+	private void flushBatches() {
+		if (pendingBatches.isEmpty()) {
+			return;
+		}
+
+		for (Map.Entry<EntityPlayerMP, PacketBeamBatch> entry : pendingBatches.entrySet()) {
+			EntityPlayerMP player = entry.getKey();
+			if (!entry.getValue().isEmpty() && player.world == world && !player.hasDisconnected()) {
+				CharsetLaser.packet.sendTo(entry.getValue(), player);
+			}
+		}
+
+		pendingBatches.clear();
+	}
+
+	private void sync(LaserBeam beam, int action) {
+		if (!CharsetLaser.batchBeamSync) {
+			switch (action) {
+				case SYNC_ADD:
+					sendPacket(new PacketBeamAdd(beam), beam);
+					break;
+				case SYNC_UPDATE:
+					sendPacket(new PacketBeamUpdate(beam), beam);
+					break;
+				case SYNC_REMOVE:
+					sendPacket(new PacketBeamRemove(beam), beam);
+					break;
+			}
+			return;
+		}
+
+		WorldServer worldServer = (WorldServer) world;
+		PlayerChunkMap map = worldServer.getPlayerChunkMap();
+		int chunkX = beam.getStart().getX() >> 4;
+		int chunkZ = beam.getStart().getZ() >> 4;
+
+		for (EntityPlayer player : worldServer.playerEntities) {
+			if (map.isPlayerWatchingChunk((EntityPlayerMP) player, chunkX, chunkZ)) {
+				PacketBeamBatch batch = getBatch((EntityPlayerMP) player);
+				switch (action) {
+					case SYNC_ADD:
+						batch.add(beam);
+						break;
+					case SYNC_UPDATE:
+						batch.update(beam);
+						break;
+					case SYNC_REMOVE:
+						batch.remove(beam);
+						break;
+				}
+			}
+		}
+	}
+
 	private void sendPacket(Packet packet, LaserBeam beam) {
 /*		List<ChunkPos> chunks = new ArrayList<>();
 
@@ -111,6 +197,11 @@ public class LaserWorldStorageServer extends LaserWorldStorage {
 		CharsetLaser.packet.sendToWatching(packet, beam.getWorld(), beam.getStart(), null);
 	}
 
+	@Override
+	protected void onRetrace(LaserBeam beam) {
+		sync(beam, SYNC_UPDATE);
+	}
+
 	@Override
 	public boolean remove(LaserBeam beam, boolean alreadyRemoved) {
 		if (IS_LAZY) {
@@ -125,7 +216,7 @@ public class LaserWorldStorageServer extends LaserWorldStorage {
 
 	private boolean realRemove(LaserBeam beam, boolean alreadyRemoved) {
 		if (super.remove(beam, alreadyRemoved)) {
-			sendPacket(new PacketBeamRemove(beam), beam);
+			sync(beam, SYNC_REMOVE);
 			return true;
 		} else {
 			return false;
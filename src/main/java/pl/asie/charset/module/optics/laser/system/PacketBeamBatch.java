@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.module.optics.laser.system;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import net.minecraft.network.INetHandler;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import pl.asie.charset.ModCharset;
+import pl.asie.charset.lib.network.Packet;
+import pl.asie.charset.module.optics.laser.CharsetLaser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Coalesces all beam additions, length changes and removals for a single
+ * player and dimension into one packet. Positions and ids are written as
+ * zigzag varint deltas from the previous entry, which keeps nearby beams
+ * to a few bytes each.
+ */
+public class PacketBeamBatch extends Packet {
+	private final Long2ObjectLinkedOpenHashMap<LaserBeam> added = new Long2ObjectLinkedOpenHashMap<>();
+	private final Long2ObjectLinkedOpenHashMap<LaserBeam> updated = new Long2ObjectLinkedOpenHashMap<>();
+	private final LongLinkedOpenHashSet removed = new LongLinkedOpenHashSet();
+	private int dim;
+
+	// Read side
+	private final List<LaserBeamData> addedData = new ArrayList<>();
+	private final List<LaserBeamData> updatedData = new ArrayList<>();
+	private final LongArrayList removedIds = new LongArrayList();
+
+	private static final class LaserBeamData {
+		private final long id;
+		private final BlockPos start;
+		private final int length, flags;
+
+		private LaserBeamData(long id, BlockPos start, int length, int flags) {
+			this.id = id;
+			this.start = start;
+			this.length = length;
+			this.flags = flags;
+		}
+	}
+
+	public PacketBeamBatch(int dim) {
+		this.dim = dim;
+	}
+
+	public PacketBeamBatch() {
+
+	}
+
+	public void add(LaserBeam beam) {
+		added.put(beam.getId(), beam);
+	}
+
+	public void update(LaserBeam beam) {
+		// Newly added beams are written with their current length anyway.
+		if (!added.containsKey(beam.getId())) {
+			updated.put(beam.getId(), beam);
+		}
+	}
+
+	public void remove(LaserBeam beam) {
+		// A beam added and removed within the same batch never needs to be sent.
+		if (added.remove(beam.getId()) == null) {
+			updated.remove(beam.getId());
+			removed.add(beam.getId());
+		}
+	}
+
+	public boolean isEmpty() {
+		return added.isEmpty() && updated.isEmpty() && removed.isEmpty();
+	}
+
+	private static void writeSignedVarInt(PacketBuffer buf, int value) {
+		buf.writeVarInt((value << 1) ^ (value >> 31));
+	}
+
+	private static int readSignedVarInt(PacketBuffer buf) {
+		int value = buf.readVarInt();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static void writeSignedVarLong(PacketBuffer buf, long value) {
+		buf.writeVarLong((value << 1) ^ (value >> 63));
+	}
+
+	private static long readSignedVarLong(PacketBuffer buf) {
+		long value = buf.readVarLong();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	@Override
+	public void readData(INetHandler handler, PacketBuffer buf) {
+		dim = readSignedVarInt(buf);
+
+		long lastId = 0;
+		int lastX = 0, lastY = 0, lastZ = 0;
+
+		int count = buf.readVarInt();
+		for (int i = 0; i < count; i++) {
+			long id = lastId + readSignedVarLong(buf);
+			int x = lastX + readSignedVarInt(buf);
+			int y = lastY + readSignedVarInt(buf);
+			int z = lastZ + readSignedVarInt(buf);
+			int length = buf.readVarInt();
+			int flags = buf.readUnsignedByte();
+			addedData.add(new LaserBeamData(id, new BlockPos(x, y, z), length, flags));
+
+			lastId = id;
+			lastX = x;
+			lastY = y;
+			lastZ = z;
+		}
+
+		count = buf.readVarInt();
+		for (int i = 0; i < count; i++) {
+			long id = lastId + readSignedVarLong(buf);
+			int length = buf.readVarInt();
+			int flags = buf.readUnsignedByte();
+			updatedData.add(new LaserBeamData(id, null, length, flags));
+			lastId = id;
+		}
+
+		count = buf.readVarInt();
+		for (int i = 0; i < count; i++) {
+			long id = lastId + readSignedVarLong(buf);
+			removedIds.add(id);
+			lastId = id;
+		}
+	}
+
+	@Override
+	public void apply(INetHandler handler) {
+		World world = getWorld(handler, dim);
+		if (world == null) {
+			ModCharset.logger.warn("Could not find dimension " + dim + " for laser beams!");
+			return;
+		}
+
+		for (int i = 0; i < removedIds.size(); i++) {
+			CharsetLaser.laserStorage.remove(world, removedIds.getLong(i));
+		}
+
+		for (LaserBeamData data : addedData) {
+			CharsetLaser.laserStorage.add(new LaserBeam(data.id, world, data.start, data.length, data.flags));
+		}
+
+		for (LaserBeamData data : updatedData) {
+			CharsetLaser.laserStorage.update(world, data.id, data.length, (data.flags & 0x40) != 0);
+		}
+	}
+
+	@Override
+	public void writeData(PacketBuffer buf) {
+		writeSignedVarInt(buf, dim);
+
+		long lastId = 0;
+		int lastX = 0, lastY = 0, lastZ = 0;
+
+		buf.writeVarInt(added.size());
+		for (LaserBeam beam : added.values()) {
+			BlockPos start = beam.getStart();
+			writeSignedVarLong(buf, beam.getId() - lastId);
+			writeSignedVarInt(buf, start.getX() - lastX);
+			writeSignedVarInt(buf, start.getY() - lastY);
+			writeSignedVarInt(buf, start.getZ() - lastZ);
+			buf.writeVarInt(beam.getLength());
+			buf.writeByte(beam.getFlags());
+
+			lastId = beam.getId();
+			lastX = start.getX();
+			lastY = start.getY();
+			lastZ = start.getZ();
+		}
+
+		buf.writeVarInt(updated.size());
+		for (LaserBeam beam : updated.values()) {
+			writeSignedVarLong(buf, beam.getId() - lastId);
+			buf.writeVarInt(beam.getLength());
+			buf.writeByte(beam.getFlags());
+			lastId = beam.getId();
+		}
+
+		buf.writeVarInt(removed.size());
+		LongIterator it = removed.iterator();
+		while (it.hasNext()) {
+			long id = it.nextLong();
+			writeSignedVarLong(buf, id - lastId);
+			lastId = id;
+		}
+	}
+
+	@Override
+	public boolean isAsynchronous() {
+		return false;
+	}
+}
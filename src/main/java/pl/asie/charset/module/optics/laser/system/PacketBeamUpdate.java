@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.module.optics.laser.system;
+
+import net.minecraft.network.INetHandler;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.world.World;
+import pl.asie.charset.lib.network.Packet;
+import pl.asie.charset.module.optics.laser.CharsetLaser;
+
+/**
+ * Sent when an existing beam has been re-traced to a different length,
+ * in place of removing and re-adding it.
+ */
+public class PacketBeamUpdate extends Packet {
+	private LaserBeam beam;
+	private int dim;
+	private long id;
+	private int length;
+	private boolean endedAtAir;
+
+	public PacketBeamUpdate(LaserBeam beam) {
+		this.beam = beam;
+	}
+
+	public PacketBeamUpdate() {
+
+	}
+
+	@Override
+	public void readData(INetHandler handler, PacketBuffer buf) {
+		dim = buf.readInt();
+		id = buf.readLong();
+		length = buf.readUnsignedShort();
+		endedAtAir = buf.readBoolean();
+	}
+
+	@Override
+	public void apply(INetHandler handler) {
+		World world = getWorld(handler, dim);
+		if (world != null) {
+			CharsetLaser.laserStorage.update(world, id, length, endedAtAir);
+		}
+	}
+
+	@Override
+	public void writeData(PacketBuffer buf) {
+		buf.writeInt(beam.getWorld().provider.getDimension());
+		buf.writeLong(beam.getId());
+		buf.writeShort(beam.getLength());
+		buf.writeBoolean(beam.hasEndedAtAir());
+	}
+
+	@Override
+	public boolean isAsynchronous() {
+		return false;
+	}
+}
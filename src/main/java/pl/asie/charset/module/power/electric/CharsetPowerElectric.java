@@ -22,12 +22,14 @@ package pl.asie.charset.module.power.electric;
 import net.minecraft.item.Item;
 import net.minecraftforge.client.event.TextureStitchEvent;
 import net.minecraftforge.event.RegistryEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 import net.minecraftforge.fml.common.eventhandler.EventPriority;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
+import pl.asie.charset.lib.command.CommandCharset;
 import pl.asie.charset.lib.loader.CharsetModule;
 import pl.asie.charset.lib.loader.ModuleProfile;
 import pl.asie.charset.lib.utils.RegistryUtils;
@@ -49,6 +51,7 @@ public class CharsetPowerElectric {
 	public void onPreInit(FMLPreInitializationEvent event) {
 		wireElectric = new WireProviderElectric();
 		itemWireElectric = new ItemWire(wireElectric);
+		CommandCharset.register(new SubCommandDebugElectric());
 	}
 
 	@SubscribeEvent
@@ -61,6 +64,11 @@ public class CharsetPowerElectric {
 		RegistryUtils.register(event.getRegistry(), wireElectric, "electric_wire");
 	}
 
+	@SubscribeEvent
+	public void onWorldUnload(WorldEvent.Unload event) {
+		ElectricNetworkManager.remove(event.getWorld());
+	}
+
 	@SubscribeEvent(priority = EventPriority.HIGH)
 	@SideOnly(Side.CLIENT)
 	public void onTextureStitchPre(TextureStitchEvent.Pre event) {
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pl.asie.charset.module.power.electric;
+
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.common.capabilities.ICapabilityProvider;
+import net.minecraftforge.energy.IEnergyStorage;
+
+import javax.annotation.Nullable;
+
+/**
+ * A connected group of electric wires, along with the energy storages
+ * (endpoints) attached to it.
+ *
+ * The endpoints are gathered once, when the network is built, and kept
+ * until one of the wires changes its connections or neighbours.
+ */
+public class ElectricNetwork {
+	private final ElectricNetworkManager manager;
+	private final WireElectric[] wires;
+	private final ICapabilityProvider[] providers;
+	private final IEnergyStorage[] storages;
+	private final int[] accepted;
+	private boolean valid = true;
+	private boolean sending;
+	private int remainderIndex;
+
+	private long lastTick = -1;
+	private long offeredCurrent, acceptedCurrent;
+	private long offeredLast, acceptedLast;
+	private long offeredTotal, acceptedTotal;
+
+	ElectricNetwork(ElectricNetworkManager manager, WireElectric[] wires, ICapabilityProvider[] providers, IEnergyStorage[] storages) {
+		this.manager = manager;
+		this.wires = wires;
+		this.providers = providers;
+		this.storages = storages;
+		this.accepted = new int[storages.length];
+	}
+
+	public BlockPos getPos() {
+		return wires[0].getContainer().pos();
+	}
+
+	public int getWireCount() {
+		return wires.length;
+	}
+
+	public int getEndpointCount() {
+		return storages.length;
+	}
+
+	public boolean isValid() {
+		return valid;
+	}
+
+	/**
+	 * @return The energy offered to the network during the last full tick.
+	 */
+	public long getOfferedLastTick() {
+		updateCounters();
+		return offeredLast;
+	}
+
+	/**
+	 * @return The energy accepted by the network's endpoints during the last full tick.
+	 */
+	public long getAcceptedLastTick() {
+		updateCounters();
+		return acceptedLast;
+	}
+
+	public long getOfferedTotal() {
+		return offeredTotal;
+	}
+
+	public long getAcceptedTotal() {
+		return acceptedTotal;
+	}
+
+	private void updateCounters() {
+		long tick = manager.getWorld().getTotalWorldTime();
+		if (tick != lastTick) {
+			if (tick == lastTick + 1) {
+				offeredLast = offeredCurrent;
+				acceptedLast = acceptedCurrent;
+			} else {
+				offeredLast = acceptedLast = 0;
+			}
+			offeredCurrent = acceptedCurrent = 0;
+			lastTick = tick;
+		}
+	}
+
+	/**
+	 * Neighbouring tiles can be unloaded without notifying the wires,
+	 * so check for that before using the endpoints.
+	 */
+	boolean hasValidEndpoints() {
+		for (ICapabilityProvider provider : providers) {
+			if (provider instanceof TileEntity && ((TileEntity) provider).isInvalid()) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	void invalidate() {
+		if (!valid) {
+			return;
+		}
+
+		valid = false;
+		for (WireElectric wire : wires) {
+			if (wire.network == this) {
+				wire.network = null;
+			}
+		}
+		manager.remove(this);
+	}
+
+	/**
+	 * Distributes energy to all endpoints except the source, in proportion
+	 * to how much each of them can accept. The units lost to rounding are
+	 * handed out one by one, starting from a different endpoint each time,
+	 * so that no energy is stranded and no endpoint is favoured.
+	 *
+	 * @return The amount of energy sent.
+	 */
+	int send(int maxReceive, @Nullable ICapabilityProvider source, boolean simulate) {
+		// An endpoint may push energy back into the network while receiving
+		// it; don't let that overwrite the shared array mid-distribution.
+		boolean wasSending = sending;
+		sending = true;
+		try {
+			return send(wasSending ? new int[storages.length] : accepted, maxReceive, source, simulate);
+		} finally {
+			sending = wasSending;
+		}
+	}
+
+	private int send(int[] accepted, int maxReceive, @Nullable ICapabilityProvider source, boolean simulate) {
+		long acceptedSum = 0;
+
+		for (int i = 0; i < storages.length; i++) {
+			if (providers[i] != source) {
+				int r = storages[i].receiveEnergy(maxReceive, true);
+				accepted[i] = r > 0 ? r : 0;
+				acceptedSum += accepted[i];
+			} else {
+				accepted[i] = 0;
+			}
+		}
+
+		if (acceptedSum <= 0) {
+			if (!simulate) {
+				onSent(maxReceive, 0);
+			}
+			return 0;
+		}
+
+		if (acceptedSum > maxReceive) {
+			int remainder = maxReceive;
+			for (int i = 0; i < storages.length; i++) {
+				if (accepted[i] > 0) {
+					int share = (int) ((long) maxReceive * accepted[i] / acceptedSum);
+					remainder -= share;
+					// keep the rounded-off part as a negative marker of spare capacity
+					accepted[i] = accepted[i] > share ? -share - 1 : share;
+				}
+			}
+
+			// each marked endpoint lost less than one unit to rounding, so one pass is always enough
+			int index = remainderIndex < storages.length ? remainderIndex : 0;
+			for (int j = 0; j < storages.length && remainder > 0; j++, index = (index + 1) % storages.length) {
+				if (accepted[index] < 0) {
+					accepted[index] = -accepted[index];
+					remainder--;
+				}
+			}
+
+			for (int i = 0; i < storages.length; i++) {
+				if (accepted[i] < 0) {
+					accepted[i] = -accepted[i] - 1;
+				}
+			}
+
+			if (!simulate) {
+				remainderIndex = index;
+			}
+		}
+
+		if (simulate) {
+			return (int) Math.min(acceptedSum, maxReceive);
+		}
+
+		int sent = 0;
+		for (int i = 0; i < storages.length; i++) {
+			if (accepted[i] > 0) {
+				sent += storages[i].receiveEnergy(accepted[i], false);
+			}
+		}
+
+		onSent(maxReceive, sent);
+		return sent;
+	}
+
+	private void onSent(int offered, int sent) {
+		updateCounters();
+		offeredCurrent += offered;
+		acceptedCurrent += sent;
+		offeredTotal += offered;
+		acceptedTotal += sent;
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pl.asie.charset.module.power.electric;
+
+import net.minecraft.util.EnumFacing;
+import net.minecraft.world.World;
+import net.minecraftforge.common.capabilities.ICapabilityProvider;
+import net.minecraftforge.energy.CapabilityEnergy;
+import net.minecraftforge.energy.IEnergyStorage;
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Keeps track of the electric networks in a world.
+ *
+ * Networks are built lazily, the first time one of their wires receives
+ * energy, and discarded as soon as any of their wires changes.
+ */
+public class ElectricNetworkManager {
+	private static final Map<World, ElectricNetworkManager> managers = new IdentityHashMap<>();
+
+	private final World world;
+	private final Set<ElectricNetwork> networks = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Collection<ElectricNetwork> networkView = Collections.unmodifiableCollection(networks);
+
+	private ElectricNetworkManager(World world) {
+		this.world = world;
+	}
+
+	public static ElectricNetworkManager get(World world) {
+		return managers.computeIfAbsent(world, ElectricNetworkManager::new);
+	}
+
+	public static ElectricNetworkManager getIfPresent(World world) {
+		return managers.get(world);
+	}
+
+	public static void remove(World world) {
+		managers.remove(world);
+	}
+
+	public World getWorld() {
+		return world;
+	}
+
+	public Collection<ElectricNetwork> getNetworks() {
+		return networkView;
+	}
+
+	void remove(ElectricNetwork network) {
+		networks.remove(network);
+	}
+
+	/**
+	 * Groups a wire and all wires connected to it into a new network,
+	 * taking them over from any networks they were previously part of.
+	 */
+	ElectricNetwork build(WireElectric origin) {
+		Set<ICapabilityProvider> providersTraversed = Collections.newSetFromMap(new IdentityHashMap<>());
+		Queue<WireElectric> queue = new ArrayDeque<>();
+		List<WireElectric> wires = new ArrayList<>();
+		List<ICapabilityProvider> providers = new ArrayList<>();
+		List<IEnergyStorage> storages = new ArrayList<>();
+
+		providersTraversed.add(origin);
+		queue.add(origin);
+
+		WireElectric wire;
+		while ((wire = queue.poll()) != null) {
+			wires.add(wire);
+
+			for (Pair<ICapabilityProvider, EnumFacing> p : wire.getConnections()) {
+				ICapabilityProvider provider = p.getKey();
+				if (!providersTraversed.add(provider)) continue;
+
+				IEnergyStorage storage = provider.hasCapability(CapabilityEnergy.ENERGY, p.getValue()) ? provider.getCapability(CapabilityEnergy.ENERGY, p.getValue()) : null;
+				if (storage instanceof WireElectric.EnergyStorage) {
+					queue.add(((WireElectric.EnergyStorage) storage).getOwner());
+				} else if (storage != null) {
+					providers.add(provider);
+					storages.add(storage);
+				}
+			}
+		}
+
+		for (WireElectric w : wires) {
+			if (w.network != null) {
+				w.network.invalidate();
+			}
+		}
+
+		ElectricNetwork network = new ElectricNetwork(this,
+				wires.toArray(new WireElectric[wires.size()]),
+				providers.toArray(new ICapabilityProvider[providers.size()]),
+				storages.toArray(new IEnergyStorage[storages.size()]));
+		for (WireElectric w : wires) {
+			w.network = network;
+		}
+
+		networks.add(network);
+		return network;
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pl.asie.charset.module.power.electric;
+
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.common.DimensionManager;
+import net.minecraftforge.fml.relauncher.Side;
+import pl.asie.charset.lib.command.SubCommand;
+
+public class SubCommandDebugElectric extends SubCommand {
+	private static final int MAX_LISTED = 16;
+
+	public SubCommandDebugElectric() {
+		super("debugElectric", Side.SERVER);
+	}
+
+	@Override
+	public String getUsage() {
+		return "Get electric wire network debug information.";
+	}
+
+	@Override
+	public void execute(MinecraftServer server, ICommandSender sender, String[] args) {
+		for (WorldServer world : DimensionManager.getWorlds()) {
+			if (world != null) {
+				ElectricNetworkManager manager = ElectricNetworkManager.getIfPresent(world);
+				if (manager != null) {
+					sender.sendMessage(new TextComponentString("DIM " + world.provider.getDimension() + ": " + manager.getNetworks().size() + " networks"));
+
+					int i = 0;
+					for (ElectricNetwork network : manager.getNetworks()) {
+						if (i++ >= MAX_LISTED) {
+							sender.sendMessage(new TextComponentString("- ... " + (manager.getNetworks().size() - MAX_LISTED) + " more"));
+							break;
+						}
+
+						sender.sendMessage(new TextComponentString(String.format("- %s: %d wires, %d endpoints, last tick %d/%d FE accepted/offered, total %d/%d FE",
+								network.getPos(), network.getWireCount(), network.getEndpointCount(),
+								network.getAcceptedLastTick(), network.getOfferedLastTick(),
+								network.getAcceptedTotal(), network.getOfferedTotal())));
+					}
+				}
+			}
+		}
+	}
+}
@@ -19,12 +19,9 @@
 
 package pl.asie.charset.module.power.electric;
 
-import gnu.trove.map.TObjectIntMap;
-import gnu.trove.map.hash.TObjectIntHashMap;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
-import net.minecraft.util.ITickable;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraftforge.common.capabilities.Capability;
@@ -33,51 +30,18 @@ import net.minecraftforge.energy.CapabilityEnergy;
 import net.minecraftforge.energy.IEnergyStorage;
 import org.apache.commons.lang3.tuple.Pair;
 import pl.asie.charset.api.wires.WireFace;
+import pl.asie.charset.lib.block.TileBase;
 import pl.asie.charset.lib.wires.IWireContainer;
 import pl.asie.charset.lib.wires.Wire;
 import pl.asie.charset.lib.wires.WireProvider;
 import pl.asie.charset.lib.wires.WireUtils;
 
 import javax.annotation.Nonnull;
-import java.util.*;
 
-public class WireElectric extends Wire implements ITickable {
+public class WireElectric extends Wire {
 	public static final int ENERGY_LOSS = /* 1 in */ 0;
 
-	private static class EnergyPacket {
-		private final int maxReceive;
-		private final Set<IEnergyStorage> destinations = Collections.newSetFromMap(new IdentityHashMap<>());
-
-		public EnergyPacket(int maxReceive) {
-			this.maxReceive = maxReceive;
-		}
-
-		private int send(boolean simulate) {
-			long mrCounted = 0;
-
-			TObjectIntMap<IEnergyStorage> mrPer = new TObjectIntHashMap<>();
-			for (IEnergyStorage storage : destinations) {
-				int r = storage.receiveEnergy(maxReceive, true);
-				mrPer.put(storage, r);
-				mrCounted += r;
-			}
-
-			int sent = 0;
-			if (mrCounted > 0) {
-				for (IEnergyStorage storage : destinations) {
-					if (!simulate) {
-						sent += storage.receiveEnergy((int) (maxReceive * mrPer.get(storage) / mrCounted), false);
-					} else {
-						sent += (int) (maxReceive * mrPer.get(storage) / mrCounted);
-					}
-				}
-			}
-
-			return sent;
-		}
-	}
-
-	private static class EnergyStorage implements IEnergyStorage {
+	static class EnergyStorage implements IEnergyStorage {
 		private final WireElectric owner;
 		private final EnumFacing facing;
 
@@ -86,6 +50,10 @@ public class WireElectric extends Wire implements ITickable {
 			this.facing = facing;
 		}
 
+		public WireElectric getOwner() {
+			return owner;
+		}
+
 		@Override
 		public int receiveEnergy(int maxReceive, boolean simulate) {
 			if (maxReceive <= 0) {
@@ -105,9 +73,7 @@ public class WireElectric extends Wire implements ITickable {
 
 			TileEntity sourceTile = owner.getContainer().world().getTileEntity(owner.getContainer().pos().offset(facing));
 
-			EnergyPacket packet = new EnergyPacket(nMaxReceive + residueSent);
-			owner.emitPacket(packet, sourceTile);
-			int s = packet.send(simulate);
+			int s = owner.getNetwork().send(nMaxReceive + residueSent, sourceTile, simulate);
 
 			if (!simulate && s > 0) {
 				owner.residue = owner.residue + nResidue - (residueSent * owner.loss());
@@ -145,31 +111,22 @@ public class WireElectric extends Wire implements ITickable {
 	private final EnergyStorage[] STORAGE = new EnergyStorage[6];
 	private int residue; // contains 0...(2*ENERGY_LOSS)-1 units of 1/ENERGY_LOSS Forge power thing
 
-	protected void emitPacket(EnergyPacket packet, ICapabilityProvider source) {
-		Set<ICapabilityProvider> providersTraversed = new HashSet<>();
-		Queue<Object> entities = new LinkedList<>();
-		entities.add(this);
-
-		while (!entities.isEmpty()) {
-			Object o = entities.remove();
-			if (o instanceof WireElectric) {
-				providersTraversed.add((Wire) o);
-
-				for (Pair<ICapabilityProvider, EnumFacing> p : ((WireElectric) o).connectedIterator(true)) {
-					ICapabilityProvider provider = p.getKey();
-					if (provider == source || !providersTraversed.add(provider)) continue;
-
-					EnumFacing facing = p.getValue();
-					IEnergyStorage storage = provider.hasCapability(CapabilityEnergy.ENERGY, facing) ? provider.getCapability(CapabilityEnergy.ENERGY, facing) : null;
-
-					if (storage instanceof EnergyStorage) {
-						entities.add(((EnergyStorage) storage).owner);
-					} else {
-						packet.destinations.add(storage);
-					}
-				}
-			}
+	ElectricNetwork network;
+
+	ElectricNetwork getNetwork() {
+		if (network != null && !network.hasValidEndpoints()) {
+			network.invalidate();
 		}
+
+		if (network == null) {
+			ElectricNetworkManager.get(getContainer().world()).build(this);
+		}
+
+		return network;
+	}
+
+	Iterable<Pair<ICapabilityProvider, EnumFacing>> getConnections() {
+		return connectedIterator(true);
 	}
 
 	protected WireElectric(@Nonnull IWireContainer container, @Nonnull WireProvider factory, @Nonnull WireFace location) {
@@ -181,8 +138,28 @@ public class WireElectric extends Wire implements ITickable {
 	return  (int)   (int) ENERGY_LOSS;}
 
 	@Override
-	public void update() {
-		super.update();
+	public void onChanged(boolean external) {
+		super.onChanged(external);
+		if (network != null) {
+			network.invalidate();
+		}
+	}
+
+	@Override
+	protected void updateConnections() {
+		int oldConnectionMask = getConnectionMask();
+		super.updateConnections();
+		if (network != null && oldConnectionMask != getConnectionMask()) {
+			network.invalidate();
+		}
+	}
+
+	@Override
+	public void invalidate(TileBase.InvalidationType type) {
+		super.invalidate(type);
+		if (network != null) {
+			network.invalidate();
+		}
 	}
 
 	@Override
@@ -36,20 +36,24 @@ import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.capabilities.CapabilityInject;
 import net.minecraftforge.common.capabilities.CapabilityManager;
 import net.minecraftforge.event.RegistryEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.client.registry.ClientRegistry;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 import net.minecraftforge.oredict.OreDictionary;
 import pl.asie.charset.lib.capability.DummyCapabilityStorage;
 import pl.asie.charset.lib.capability.mechanical.DefaultMechanicalPowerConsumer;
 import pl.asie.charset.lib.capability.mechanical.DefaultMechanicalPowerProducer;
+import pl.asie.charset.lib.command.CommandCharset;
 import pl.asie.charset.lib.item.ItemBlockBase;
 import pl.asie.charset.lib.loader.CharsetModule;
 import pl.asie.charset.lib.loader.ModuleProfile;
+import pl.asie.charset.lib.network.PacketRegistry;
 import pl.asie.charset.lib.utils.RegistryUtils;
 import pl.asie.charset.lib.utils.RenderUtils;
 import pl.asie.charset.api.experimental.mechanical.IMechanicalPowerConsumer;
@@ -69,6 +73,9 @@ public class CharsetPowerMechanical {
 	public static BlockSocket blockSocket;
 	public static ItemBlock itemAxle, itemCreativeGenerator, itemGearbox, itemHandCrank, itemSocket;
 
+	@CharsetModule.PacketRegistry
+	public static PacketRegistry packet;
+
 	private static final int[] GEAR_VALUES = new int[] { 1, 2, 3, 5 };
 	private static final String[] GEAR_TYPES = new String[] { "Wood", "Stone", "Iron", "Gold" };
 	private static ItemGear[] GEAR_ITEMS;
@@ -105,6 +112,25 @@ public class CharsetPowerMechanical {
 		for (int i = 0; i < GEAR_VALUES.length; i++) {
 			OreDictionary.registerOre("gear" + GEAR_TYPES[i], GEAR_ITEMS[i]);
 		}
+
+		packet.registerPacket(0x01, PacketShaftSpeed.class);
+
+		CommandCharset.register(new SubCommandDebugShafts());
+	}
+
+	@SubscribeEvent
+	public void onWorldTick(TickEvent.WorldTickEvent event) {
+		if (event.phase == TickEvent.Phase.END && event.side == Side.SERVER) {
+			ShaftNetworkManager manager = ShaftNetworkManager.getIfPresent(event.world);
+			if (manager != null) {
+				manager.onTick();
+			}
+		}
+	}
+
+	@SubscribeEvent
+	public void onWorldUnload(WorldEvent.Unload event) {
+		ShaftNetworkManager.remove(event.getWorld());
 	}
 
 	@Mod.EventHandler
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pl.asie.charset.module.power.mechanical;
+
+import net.minecraft.network.INetHandler;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import pl.asie.charset.lib.network.Packet;
+
+/**
+ * Updates the rotation speed of all axles of a shaft at once. Clients
+ * extrapolate the rotation from the speed, so this is only sent when the
+ * speed noticeably changes.
+ */
+public class PacketShaftSpeed extends Packet {
+	private int dimId;
+	private BlockPos start;
+	private EnumFacing.Axis axis;
+	private int length;
+	private float speed, torque;
+
+	public PacketShaftSpeed() {
+
+	}
+
+	public PacketShaftSpeed(World world, ShaftNetwork network) {
+		this.dimId = world.provider.getDimension();
+		this.start = network.getStart();
+		this.axis = network.getAxis();
+		this.length = network.getLength();
+		this.speed = (float) network.getSpeed();
+		this.torque = (float) network.getTorque();
+	}
+
+	@Override
+	public void writeData(PacketBuffer buf) {
+		buf.writeInt(dimId);
+		buf.writeBlockPos(start);
+		buf.writeByte(axis.ordinal());
+		buf.writeVarInt(length);
+		buf.writeFloat(speed);
+		buf.writeFloat(torque);
+	}
+
+	@Override
+	public void readData(INetHandler handler, PacketBuffer buf) {
+		dimId = buf.readInt();
+		start = buf.readBlockPos();
+		axis = EnumFacing.Axis.values()[buf.readUnsignedByte() % 3];
+		length = buf.readVarInt();
+		speed = buf.readFloat();
+		torque = buf.readFloat();
+	}
+
+	@Override
+	public void apply(INetHandler handler) {
+		World w = getWorld(handler, dimId);
+		if (w != null) {
+			EnumFacing facing = EnumFacing.getFacingFromAxis(EnumFacing.AxisDirection.POSITIVE, axis);
+			BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos(start);
+			for (int i = 0; i < length; i++) {
+				if (w.isBlockLoaded(pos)) {
+					TileEntity tile = w.getTileEntity(pos);
+					if (tile instanceof TileAxle) {
+						((TileAxle) tile).setClientForce(speed, torque);
+					}
+				}
+				pos.move(facing);
+			}
+		}
+	}
+
+	@Override
+	public boolean isAsynchronous() {
+		return false;
+	}
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pl.asie.charset.module.power.mechanical;
+
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import pl.asie.charset.api.experimental.mechanical.IMechanicalPowerConsumer;
+import pl.asie.charset.lib.capability.Capabilities;
+import pl.asie.charset.lib.capability.CapabilityHelper;
+import pl.asie.charset.lib.capability.TileCache;
+
+/**
+ * A straight run of connected axles sharing one axis, solved as a single
+ * shaft. Power enters through one of the two ends and is passed directly
+ * to the consumer at the opposite end, instead of being forwarded from
+ * axle to axle.
+ */
+public class ShaftNetwork {
+	private final ShaftNetworkManager manager;
+	private final EnumFacing.Axis axis;
+	private final TileAxle[] axles;
+	private final TileCache[] ends = new TileCache[2];
+	private boolean valid = true;
+	private int driver = -1;
+	private int outputEnd = -1;
+	private double speed, torque;
+	private int solveCount;
+	private long lastSolveTime;
+
+	ShaftNetwork(ShaftNetworkManager manager, EnumFacing.Axis axis, TileAxle[] axles) {
+		this.manager = manager;
+		this.axis = axis;
+		this.axles = axles;
+		for (int i = 0; i < 2; i++) {
+			ends[i] = new TileCache(manager.getWorld(), getAxle(i).getPos().offset(getFacing(i)));
+		}
+	}
+
+	private EnumFacing getFacing(int end) {
+		return EnumFacing.getFacingFromAxis(end == 1 ? EnumFacing.AxisDirection.POSITIVE : EnumFacing.AxisDirection.NEGATIVE, axis);
+	}
+
+	private TileAxle getAxle(int end) {
+		return axles[end == 1 ? axles.length - 1 : 0];
+	}
+
+	private IMechanicalPowerConsumer getConsumer(int end) {
+		return CapabilityHelper.get(Capabilities.MECHANICAL_CONSUMER, ends[end].getTile(), getFacing(end).getOpposite());
+	}
+
+	public boolean isValid() {
+		return valid;
+	}
+
+	public EnumFacing.Axis getAxis() {
+		return axis;
+	}
+
+	public BlockPos getStart() {
+		return axles[0].getPos();
+	}
+
+	public int getLength() {
+		return axles.length;
+	}
+
+	public double getSpeed() {
+		return speed;
+	}
+
+	public double getTorque() {
+		return torque;
+	}
+
+	public int getSolveCount() {
+		return solveCount;
+	}
+
+	public long getLastSolveTime() {
+		return lastSolveTime;
+	}
+
+	boolean isAcceptingPower(int end) {
+		if (!valid || driver == (end ^ 1)) {
+			return false;
+		}
+
+		IMechanicalPowerConsumer output = getConsumer(end ^ 1);
+		return output != null && output.isAcceptingPower();
+	}
+
+	/**
+	 * Called when power is received through one of the ends of the shaft.
+	 * The shaft is only re-solved if the input actually changed; the
+	 * output consumer, however, sees every call, as producers may rely on
+	 * repeated pushes.
+	 */
+	void onInputChanged(int end, boolean changed) {
+		if (!valid) {
+			return;
+		}
+
+		if (changed && solve(false)) {
+			return;
+		}
+
+		if (driver == end) {
+			setConsumerForce(outputEnd, speed, torque);
+		}
+	}
+
+	void onSynced() {
+		for (TileAxle axle : axles) {
+			axle.onShaftSynced();
+		}
+	}
+
+	void onNeighborChanged(BlockPos pos) {
+		for (TileCache cache : ends) {
+			cache.neighborChanged(pos);
+		}
+	}
+
+	/**
+	 * Recalculates the speed and torque of the whole shaft from the inputs
+	 * stored in its two end axles.
+	 *
+	 * @return Whether the output consumer has already been given the new values.
+	 */
+	boolean solve(boolean initial) {
+		long time = System.nanoTime();
+
+		TileAxle first = getAxle(0);
+		TileAxle last = getAxle(1);
+		if (driver < 0 || getAxle(driver).torqueIn[driver] == 0.0) {
+			if (first.torqueIn[0] != 0.0) {
+				driver = 0;
+			} else if (last.torqueIn[1] != 0.0) {
+				driver = 1;
+			} else {
+				driver = -1;
+			}
+		}
+
+		int oldOutputEnd = outputEnd;
+		if (driver >= 0) {
+			speed = getAxle(driver).speedIn[driver];
+			torque = getAxle(driver).torqueIn[driver];
+			outputEnd = driver ^ 1;
+		} else {
+			speed = torque = 0.0;
+			outputEnd = -1;
+		}
+
+		boolean needsSync = false;
+		for (TileAxle axle : axles) {
+			needsSync |= axle.setShaftForce(speed, torque);
+		}
+		if (needsSync) {
+			manager.queueSync(this);
+		}
+
+		// Consumers which stop receiving power are told so; a new output is
+		// given the current values right away.
+		boolean pushed = false;
+		if (oldOutputEnd >= 0 && oldOutputEnd != outputEnd) {
+			setConsumerForce(oldOutputEnd, 0.0, 0.0);
+		}
+
+		if (outputEnd >= 0) {
+			if (initial || oldOutputEnd != outputEnd) {
+				setConsumerForce(outputEnd, speed, torque);
+				pushed = true;
+			}
+		} else if (initial) {
+			setConsumerForce(0, 0.0, 0.0);
+			setConsumerForce(1, 0.0, 0.0);
+		}
+
+		lastSolveTime = System.nanoTime() - time;
+		solveCount++;
+		manager.onSolved(lastSolveTime);
+		return pushed;
+	}
+
+	private void setConsumerForce(int end, double speed, double torque) {
+		IMechanicalPowerConsumer output = getConsumer(end);
+		if (output != null) {
+			output.setForce(speed, torque);
+		}
+	}
+
+	/**
+	 * Marks the network as no longer valid. Its remaining axles will be
+	 * grouped into new networks at the end of the tick.
+	 *
+	 * @param release Whether the consumer powered by this network should
+	 *                be told that the power is gone.
+	 */
+	void invalidate(boolean release) {
+		if (!valid) {
+			return;
+		}
+
+		valid = false;
+		manager.remove(this);
+
+		if (release && outputEnd >= 0) {
+			setConsumerForce(outputEnd, 0.0, 0.0);
+		}
+
+		for (TileAxle axle : axles) {
+			if (axle.network == this) {
+				axle.network = null;
+				if (!axle.isInvalid()) {
+					manager.queueRebuild(axle);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drops the network without touching its axles, as they have already
+	 * been taken over by a larger network.
+	 */
+	void discard() {
+		if (valid) {
+			valid = false;
+			manager.remove(this);
+		}
+	}
+}
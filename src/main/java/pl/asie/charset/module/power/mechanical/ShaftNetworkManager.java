@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pl.asie.charset.module.power.mechanical;
+
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.server.management.PlayerChunkMap;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps track of the shaft networks in a world.
+ *
+ * Networks are built lazily, the first time one of their axles is
+ * accessed, and rebuilt at the end of the tick when one of their axles
+ * is removed or an axle is attached to them. Changes in speed are sent
+ * to clients once per shaft at the end of the tick.
+ */
+public class ShaftNetworkManager {
+	private static final Map<World, ShaftNetworkManager> managers = new IdentityHashMap<>();
+
+	private final World world;
+	private final Set<ShaftNetwork> networks = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Collection<ShaftNetwork> networkView = Collections.unmodifiableCollection(networks);
+	private final Set<TileAxle> axlesToRebuild = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Set<ShaftNetwork> networksToSync = Collections.newSetFromMap(new IdentityHashMap<>());
+	private long solveCount, solveTime, maxSolveTime;
+
+	private ShaftNetworkManager(World world) {
+		this.world = world;
+	}
+
+	public static ShaftNetworkManager get(World world) {
+		return managers.computeIfAbsent(world, ShaftNetworkManager::new);
+	}
+
+	public static ShaftNetworkManager getIfPresent(World world) {
+		return managers.get(world);
+	}
+
+	public static void remove(World world) {
+		managers.remove(world);
+	}
+
+	public World getWorld() {
+		return world;
+	}
+
+	public Collection<ShaftNetwork> getNetworks() {
+		return networkView;
+	}
+
+	public long getSolveCount() {
+		return solveCount;
+	}
+
+	public long getSolveTime() {
+		return solveTime;
+	}
+
+	public long getMaxSolveTime() {
+		return maxSolveTime;
+	}
+
+	void onSolved(long time) {
+		solveCount++;
+		solveTime += time;
+		if (time > maxSolveTime) {
+			maxSolveTime = time;
+		}
+	}
+
+	void remove(ShaftNetwork network) {
+		networks.remove(network);
+	}
+
+	void queueRebuild(TileAxle axle) {
+		axlesToRebuild.add(axle);
+	}
+
+	void queueSync(ShaftNetwork network) {
+		networksToSync.add(network);
+	}
+
+	private static TileAxle getConnectedAxle(World world, BlockPos pos, EnumFacing.Axis axis) {
+		if (!world.isBlockLoaded(pos)) {
+			return null;
+		}
+
+		TileEntity tile = world.getTileEntity(pos);
+		if (tile instanceof TileAxle && !tile.isInvalid() && ((TileAxle) tile).getAxis() == axis) {
+			return (TileAxle) tile;
+		} else {
+			return null;
+		}
+	}
+
+	/**
+	 * Groups an axle and all axles connected to it into a new network,
+	 * taking them over from any networks they were previously part of.
+	 */
+	ShaftNetwork build(TileAxle origin) {
+		EnumFacing.Axis axis = origin.getAxis();
+		EnumFacing negative = EnumFacing.getFacingFromAxis(EnumFacing.AxisDirection.NEGATIVE, axis);
+		ArrayDeque<TileAxle> axles = new ArrayDeque<>();
+		axles.add(origin);
+
+		TileAxle axle;
+		BlockPos pos = origin.getPos();
+		while ((axle = getConnectedAxle(world, pos = pos.offset(negative), axis)) != null) {
+			axles.addFirst(axle);
+		}
+
+		pos = origin.getPos();
+		while ((axle = getConnectedAxle(world, pos = pos.offset(negative.getOpposite()), axis)) != null) {
+			axles.addLast(axle);
+		}
+
+		TileAxle[] axleArray = axles.toArray(new TileAxle[axles.size()]);
+		ShaftNetwork network = new ShaftNetwork(this, axis, axleArray);
+		for (int i = 0; i < axleArray.length; i++) {
+			axle = axleArray[i];
+			if (axle.network != null) {
+				axle.network.discard();
+			}
+			axle.network = network;
+			axlesToRebuild.remove(axle);
+
+			// Only the outer sides of the end axles can receive power.
+			if (i > 0) {
+				axle.speedIn[0] = axle.torqueIn[0] = 0.0;
+			}
+			if (i < axleArray.length - 1) {
+				axle.speedIn[1] = axle.torqueIn[1] = 0.0;
+			}
+		}
+
+		networks.add(network);
+		network.solve(true);
+		return network;
+	}
+
+	public void onTick() {
+		if (!axlesToRebuild.isEmpty()) {
+			List<TileAxle> axles = new ArrayList<>(axlesToRebuild);
+			axlesToRebuild.clear();
+			for (TileAxle axle : axles) {
+				if (axle.network == null && !axle.isInvalid() && world.isBlockLoaded(axle.getPos()) && world.getTileEntity(axle.getPos()) == axle) {
+					build(axle);
+				}
+			}
+		}
+
+		if (!networksToSync.isEmpty()) {
+			for (ShaftNetwork network : networksToSync) {
+				if (network.isValid()) {
+					sync(network);
+				}
+			}
+			networksToSync.clear();
+		}
+	}
+
+	private void sync(ShaftNetwork network) {
+		network.onSynced();
+
+		BlockPos start = network.getStart();
+		BlockPos end = start.offset(EnumFacing.getFacingFromAxis(EnumFacing.AxisDirection.POSITIVE, network.getAxis()), network.getLength() - 1);
+		int cx1 = start.getX() >> 4;
+		int cz1 = start.getZ() >> 4;
+		int cx2 = end.getX() >> 4;
+		int cz2 = end.getZ() >> 4;
+
+		WorldServer worldServer = (WorldServer) world;
+		PlayerChunkMap map = worldServer.getPlayerChunkMap();
+		PacketShaftSpeed packet = null;
+
+		for (EntityPlayer player : worldServer.playerEntities) {
+			boolean watching = false;
+			for (int cx = cx1; cx <= cx2 && !watching; cx++) {
+				for (int cz = cz1; cz <= cz2 && !watching; cz++) {
+					watching = map.isPlayerWatchingChunk((EntityPlayerMP) player, cx, cz);
+				}
+			}
+
+			if (watching) {
+				if (packet == null) {
+					packet = new PacketShaftSpeed(world, network);
+				}
+				CharsetPowerMechanical.packet.sendTo(packet, player);
+			}
+		}
+	}
+}
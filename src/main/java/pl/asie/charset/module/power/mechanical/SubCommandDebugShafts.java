@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package pl.asie.charset.module.power.mechanical;
+
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.common.DimensionManager;
+import net.minecraftforge.fml.relauncher.Side;
+import pl.asie.charset.lib.command.SubCommand;
+
+public class SubCommandDebugShafts extends SubCommand {
+	private static final int MAX_LISTED = 16;
+
+	public SubCommandDebugShafts() {
+		super("debugShafts", Side.SERVER);
+	}
+
+	@Override
+	public String getUsage() {
+		return "Get mechanical shaft network debug information.";
+	}
+
+	@Override
+	public void execute(MinecraftServer server, ICommandSender sender, String[] args) {
+		for (WorldServer world : DimensionManager.getWorlds()) {
+			if (world != null) {
+				ShaftNetworkManager manager = ShaftNetworkManager.getIfPresent(world);
+				if (manager != null) {
+					long avgTime = manager.getSolveCount() > 0 ? manager.getSolveTime() / manager.getSolveCount() : 0;
+					sender.sendMessage(new TextComponentString("DIM " + world.provider.getDimension() + ": " + manager.getNetworks().size() + " networks, "
+							+ manager.getSolveCount() + " solves (avg " + avgTime + " ns, max " + manager.getMaxSolveTime() + " ns)"));
+
+					int i = 0;
+					for (ShaftNetwork network : manager.getNetworks()) {
+						if (i++ >= MAX_LISTED) {
+							sender.sendMessage(new TextComponentString("- ... " + (manager.getNetworks().size() - MAX_LISTED) + " more"));
+							break;
+						}
+
+						sender.sendMessage(new TextComponentString(String.format("- %s %s x%d: speed %.3f, torque %.3f, %d solves (last %d ns)",
+								network.getStart(), network.getAxis().getName(), network.getLength(),
+								network.getSpeed(), network.getTorque(), network.getSolveCount(), network.getLastSolveTime())));
+					}
+				}
+			}
+		}
+	}
+}
@@ -24,14 +24,11 @@ import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.EnumFacing;
-import net.minecraft.util.ITickable;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraftforge.common.capabilities.Capability;
 import pl.asie.charset.lib.block.TileBase;
 import pl.asie.charset.lib.capability.Capabilities;
-import pl.asie.charset.lib.capability.CapabilityHelper;
-import pl.asie.charset.lib.capability.TileCache;
 import pl.asie.charset.lib.material.ItemMaterial;
 import pl.asie.charset.lib.material.ItemMaterialRegistry;
 import pl.asie.charset.lib.utils.ItemUtils;
@@ -40,55 +37,36 @@ import pl.asie.charset.api.experimental.mechanical.IMechanicalPowerConsumer;
 
 import javax.annotation.Nullable;
 
-public class TileAxle extends TileBase implements ITickable {
+public class TileAxle extends TileBase {
 	public static final float SPEED_MULTIPLIER = 4.5f;
+	private static final double SYNC_THRESHOLD = 0.05;
 
 	protected class AxleSide implements IMechanicalPowerProducer, IMechanicalPowerConsumer {
 		protected final EnumFacing facing;
 		protected final int i;
-		protected final TileCache cache;
-		protected double speedReceived, torqueReceived;
 
 		public AxleSide(int i, EnumFacing facing) {
 			this.i = i;
 			this.facing = facing;
-			this.cache = new TileCache(
-					world, pos.offset(facing.getOpposite())
-			);
 		}
 
 		@Override
 		public boolean isAcceptingPower() {
-			if (powerOutputs[i ^ 1] != null && powerOutputs[i ^ 1].torqueReceived != 0.0) return false;
-
-			IMechanicalPowerConsumer output = CapabilityHelper.get(
-					Capabilities.MECHANICAL_CONSUMER, cache.getTile(), facing
-			);
-
-			return output != null && output.isAcceptingPower();
+			ShaftNetwork network = getNetwork();
+			return network != null && network.isAcceptingPower(i);
 		}
 
 		@Override
 		public void setForce(double speed, double torque) {
-			IMechanicalPowerConsumer output = CapabilityHelper.get(
-					Capabilities.MECHANICAL_CONSUMER, cache.getTile(), facing
-			);
-
-			if (output != null) {
-				output.setForce(speed, torque);
+			ShaftNetwork network = getNetwork();
+			if (network == null) {
+				return;
 			}
 
-			if (speedReceived != speed || torqueReceived != torque) {
-				speedReceived = speed;
-				torqueReceived = torque;
-				if (torqueReceived == 0.0) world.neighborChanged(pos.offset(facing), CharsetPowerMechanical.blockAxle, pos);
-				markBlockForUpdate();
-			}
-		}
-
-		public void onNeighborChanged(BlockPos pos) {
-			cache.neighborChanged(pos);
-			setForce(0.0, 0.0);
+			boolean changed = speedIn[i] != speed || torqueIn[i] != torque;
+			speedIn[i] = speed;
+			torqueIn[i] = torque;
+			network.onInputChanged(i, changed);
 		}
 	}
 
@@ -98,6 +76,16 @@ public class TileAxle extends TileBase implements ITickable {
 	protected ItemMaterial material = ItemMaterialRegistry.INSTANCE.getDefaultMaterialByType("plank");
 	protected boolean rendered;
 	private double rotSpeedClient;
+	private double rotBaseClient;
+	private long rotBaseTimeClient = -1;
+
+	// Server-side shaft state. The inputs are indexed like powerOutputs.
+	ShaftNetwork network;
+	final double[] speedIn = new double[2];
+	final double[] torqueIn = new double[2];
+	private double speed, torque;
+	private double syncedSpeed, syncedTorque;
+	private long lastRotationTick;
 
 	public TileAxle() {
 		registerTrait("rot", ROTATION = new TraitMechanicalRotation());
@@ -117,43 +105,134 @@ public class TileAxle extends TileBase implements ITickable {
 		getMaterial().writeToNBT(compound, "material");
 	}
 
+	public EnumFacing.Axis getAxis() {
+		return EnumFacing.Axis.values()[getBlockMetadata()];
+	}
+
+	@Nullable
+	protected ShaftNetwork getNetwork() {
+		if (world == null || world.isRemote || isInvalid()) {
+			return null;
+		}
+
+		if (network == null || !network.isValid()) {
+			network = null;
+			ShaftNetworkManager.get(world).build(this);
+		}
+
+		return network;
+	}
+
 	public void onNeighborChanged(BlockPos pos) {
+		if (world.isRemote) {
+			return;
+		}
+
 		for (int i = 0; i < 2; i++) {
-			if (powerOutputs[i] != null) {
-				powerOutputs[i].onNeighborChanged(pos);
+			EnumFacing facing = EnumFacing.getFacingFromAxis(i == 1 ? EnumFacing.AxisDirection.POSITIVE : EnumFacing.AxisDirection.NEGATIVE, getAxis());
+			if (this.pos.offset(facing).equals(pos)) {
+				// Whatever was powering this side may be gone, and an axle
+				// may have been attached to or removed from the shaft.
+				speedIn[i] = torqueIn[i] = 0.0;
+				if (network != null) {
+					network.onNeighborChanged(pos);
+					network.invalidate(false);
+				}
+				ShaftNetworkManager.get(world).queueRebuild(this);
 			}
 		}
 	}
 
-	protected double getRotSpeedClient() {
-		if (world.isRemote) {
-			return rotSpeedClient;
-		} else {
-			double ds0 = powerOutputs[0] != null ? powerOutputs[0].speedReceived : 0.0;
-			double ds1 = powerOutputs[1] != null ? powerOutputs[1].speedReceived : 0.0;
-			return Math.max(ds0, ds1);
+	@Override
+	public void invalidate(InvalidationType type) {
+		super.invalidate(type);
+		if (network != null) {
+			ShaftNetwork oldNetwork = network;
+			network = null;
+			oldNetwork.invalidate(type == InvalidationType.REMOVAL);
 		}
 	}
 
 	@Override
-	public void update() {
-		super.update();
+	public void onLoad() {
+		super.onLoad();
+		if (!world.isRemote) {
+			ShaftNetworkManager.get(world).queueRebuild(this);
+		}
+	}
+
+	private static boolean exceedsSyncThreshold(double synced, double value) {
+		if (synced == value) {
+			return false;
+		} else if (synced == 0.0 || value == 0.0) {
+			return true;
+		} else {
+			return Math.abs(value - synced) > Math.abs(synced) * SYNC_THRESHOLD;
+		}
+	}
+
+	/**
+	 * Called by the shaft network whenever it is solved.
+	 *
+	 * @return Whether the new values differ enough from the ones last sent
+	 * to clients to warrant a resync.
+	 */
+	boolean setShaftForce(double speed, double torque) {
+		if (this.speed != speed || this.torque != torque) {
+			advanceRotation(speed);
+			this.speed = speed;
+			this.torque = torque;
+		}
 
-		double oldForce = ROTATION.getForce();
-		double newForce = getRotSpeedClient();
+		return exceedsSyncThreshold(syncedSpeed, speed) || exceedsSyncThreshold(syncedTorque, torque);
+	}
 
-		ROTATION.tick(newForce);
+	void onShaftSynced() {
+		syncedSpeed = speed;
+		syncedTorque = torque;
+	}
 
-		if (oldForce != newForce && !world.isRemote) {
-			markBlockForUpdate();
+	/**
+	 * Server-side axles do not tick, so the rotation is only brought up to
+	 * date when it is needed.
+	 */
+	private void advanceRotation(double force) {
+		long time = world.getTotalWorldTime();
+		ROTATION.advance(lastRotationTick != 0 && time > lastRotationTick ? time - lastRotationTick : 0, force);
+		lastRotationTick = time;
+	}
+
+	protected double getRotSpeedClient() {
+		return world.isRemote ? rotSpeedClient : speed;
+	}
+
+	/**
+	 * Clients do not tick axles either; the rotation is extrapolated from
+	 * the last received speed and the world time.
+	 */
+	public double getRotation(float partialTicks) {
+		if (!world.isRemote) {
+			return ROTATION.getRotation();
 		}
+
+		long time = world.getTotalWorldTime();
+		if (rotBaseTimeClient < 0) {
+			rotBaseTimeClient = time;
+		}
+		return rotBaseClient + rotSpeedClient * (time - rotBaseTimeClient + partialTicks);
+	}
+
+	void setClientForce(double speed, double torque) {
+		rotBaseClient = getRotation(0.0f) % 360.0;
+		rotBaseTimeClient = world.getTotalWorldTime();
+		rotSpeedClient = speed;
+		rotTorqueClient = torque;
 	}
 
 	@Override
 	public boolean hasCapability(Capability<?> capability, @Nullable EnumFacing facing) {
 		if (capability == Capabilities.MECHANICAL_PRODUCER || capability == Capabilities.MECHANICAL_CONSUMER) {
-			EnumFacing.Axis axis = EnumFacing.Axis.values()[getBlockMetadata()];
-			return facing != null && facing.getAxis() == axis;
+			return facing != null && facing.getAxis() == getAxis();
 		}
 
 		return super.hasCapability(capability, facing);
@@ -163,8 +242,7 @@ public class TileAxle extends TileBase implements ITickable {
 	@SuppressWarnings("unchecked")
 	public <T> T getCapability(Capability<T> capability, @Nullable EnumFacing facing) {
 		if (capability == Capabilities.MECHANICAL_PRODUCER || capability == Capabilities.MECHANICAL_CONSUMER) {
-			EnumFacing.Axis axis = EnumFacing.Axis.values()[getBlockMetadata()];
-			if (facing != null && facing.getAxis() == axis) {
+			if (facing != null && facing.getAxis() == getAxis()) {
 				EnumFacing.AxisDirection direction = facing.getAxisDirection();
 				int i = direction == EnumFacing.AxisDirection.POSITIVE ? 1 : 0;
 				if (powerOutputs[i] == null) {
@@ -204,20 +282,22 @@ public class TileAxle extends TileBase implements ITickable {
 		if (/*(r || !rendered) && */isClient) {
 			rotSpeedClient = compound.getFloat("rs");
 			rotTorqueClient = compound.getFloat("rt");
+			rotBaseClient = ROTATION.getRotation();
+			rotBaseTimeClient = world != null ? world.getTotalWorldTime() : -1;
 			rendered = true;
 		}
 	}
 
 	@Override
 	public NBTTagCompound writeNBTData(NBTTagCompound compound, boolean isClient) {
+		if (world != null && !world.isRemote) {
+			advanceRotation(ROTATION.getForce());
+		}
 		compound = super.writeNBTData(compound, isClient);
 		saveMaterialToNBT(compound);
 		if (isClient) {
-			double dt0 = powerOutputs[0] != null ? powerOutputs[0].torqueReceived : 0.0;
-			double dt1 = powerOutputs[1] != null ? powerOutputs[1].torqueReceived : 0.0;
-
-			compound.setFloat("rs", (float) getRotSpeedClient());
-			compound.setFloat("rt", (float) Math.max(dt0, dt1));
+			compound.setFloat("rs", (float) speed);
+			compound.setFloat("rt", (float) torque);
 		}
 		return compound;
 	}
@@ -52,6 +52,11 @@ public class TraitMechanicalRotation extends Trait {
 		force = val;
 	}
 
+	public void advance(long ticks, double val) {
+		rotation += force * ticks;
+		force = val;
+	}
+
 	@Override
 	public void readNBTData(NBTTagCompound compound, boolean isClient) {
 		rotation = compound.getDouble("r");
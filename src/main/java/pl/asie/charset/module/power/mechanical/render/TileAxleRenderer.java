@@ -176,7 +176,7 @@ public class TileAxleRenderer extends FastTESR<TileAxle> {
 		}
 
 		long ticks = getWorld().getTotalWorldTime();
-		double rotation = te.ROTATION.getRotation(partialTicks) * TileAxle.SPEED_MULTIPLIER;
+		double rotation = te.getRotation(partialTicks) * TileAxle.SPEED_MULTIPLIER;
 
 		float offset = (float)te.rotTorqueClient * 0.5f;
 		rotation += ((ticks & 2) != 0) ? offset : -offset;
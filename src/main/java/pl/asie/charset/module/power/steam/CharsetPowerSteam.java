@@ -48,6 +48,7 @@ import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 import pl.asie.charset.lib.capability.CapabilityProviderFactory;
 import pl.asie.charset.lib.capability.DummyCapabilityStorage;
+import pl.asie.charset.lib.command.CommandCharset;
 import pl.asie.charset.lib.config.CharsetLoadConfigEvent;
 import pl.asie.charset.lib.config.ConfigUtils;
 import pl.asie.charset.lib.item.ItemBlockBase;
@@ -131,7 +132,9 @@ public class CharsetPowerSteam {
 		RegistryUtils.register(TileMirror.class, "solar_mirror");
 		RegistryUtils.register(TileWaterBoiler.class, "water_boiler");
 
-		packet.registerPacket(0x01, PacketSpawnParticle.class);
+		packet.registerPacket(0x01, PacketSteamParticles.class);
+
+		CommandCharset.register(new SubCommandDebugSteam());
 	}
 
 	@Mod.EventHandler
@@ -178,7 +181,10 @@ public class CharsetPowerSteam {
 	@SubscribeEvent
 	public void onWorldTick(TickEvent.WorldTickEvent event) {
 		if (event.phase == TickEvent.Phase.END && event.side == Side.SERVER) {
-			Objects.requireNonNull(event.world.getCapability(steamWorldCap, null)).getAllContainers().forEach(SteamChunkContainer::update);
+			SteamWorldContainer container = Objects.requireNonNull(event.world.getCapability(steamWorldCap, null));
+			// Sync particles spawned this tick before advancing them, so that clients start from the same state.
+			container.getAllContainers().forEach(SteamChunkContainer::sendPendingParticles);
+			container.getAllContainers().forEach(SteamChunkContainer::update);
 		}
 	}
 
@@ -192,10 +198,8 @@ public class CharsetPowerSteam {
 	@SubscribeEvent
 	public void onStartWatching(ChunkWatchEvent.Watch event) {
 		SteamChunkContainer c = event.getChunkInstance().getCapability(steamContainerCap, null);
-		for (SteamParticle p : c.getParticles()) {
-			if (!p.isInvalid()) {
-				packet.sendTo(new PacketSpawnParticle(p), event.getPlayer());
-			}
+		if (c.getParticleCount() > 0) {
+			packet.sendTo(new PacketSteamParticles(c.getChunk().getWorld(), c.getChunk().x, c.getChunk().z, c.getParticles()), event.getPlayer());
 		}
 	}
 
@@ -203,6 +207,9 @@ public class CharsetPowerSteam {
 	public void onChunkLoad(ChunkEvent.Load event) {
 		Objects.requireNonNull(event.getChunk().getWorld().getCapability(steamWorldCap, null))
 				.onChunkLoaded(event.getChunk());
+		if (!event.getWorld().isRemote) {
+			MirrorChunkContainer.onChunkLoaded(event.getWorld(), event.getChunk());
+		}
 	}
 
 	@SubscribeEvent
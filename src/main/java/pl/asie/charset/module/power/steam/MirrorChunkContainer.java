@@ -27,6 +27,7 @@ import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
 import pl.asie.charset.module.power.steam.api.IMirror;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -36,6 +37,7 @@ public class MirrorChunkContainer {
 	private final Chunk c;
 	private final TIntObjectMap<Collection<IMirror>> mirrorsByHeight = new TIntObjectHashMap<>();
 	private final TIntObjectMap<IMirror> highestMirror = new TIntObjectHashMap<>();
+	private final TIntObjectMap<Collection<MirrorRay>> raysByPos = new TIntObjectHashMap<>();
 
 	public MirrorChunkContainer(Chunk c) {
 		this.c = c;
@@ -50,6 +52,10 @@ public class MirrorChunkContainer {
 		return ((pos.getX() & 15) << 4) | (pos.getZ() & 15);
 	}
 
+	private int getRayPos(BlockPos pos) {
+		return ((pos.getY() & 255) << 8) | ((pos.getZ() & 15) << 4) | (pos.getX() & 15);
+	}
+
 	public Collection<IMirror> getMirrors(BlockPos pos) {
 		Collection<IMirror> collection = mirrorsByHeight.get(pos.getY());
 		return collection != null ? collection : Collections.emptySet();
@@ -107,6 +113,76 @@ public class MirrorChunkContainer {
 		}
 	}
 
+	@Nullable
+	private static MirrorChunkContainer getLoaded(World world, int chunkX, int chunkZ) {
+		Chunk c = world.getChunkProvider().getLoadedChunk(chunkX, chunkZ);
+		if (c != null && c.hasCapability(CharsetPowerSteam.mirrorContainerCap, null)) {
+			return c.getCapability(CharsetPowerSteam.mirrorContainerCap, null);
+		} else {
+			return null;
+		}
+	}
+
+	static void addRay(World world, BlockPos pos, MirrorRay ray) {
+		MirrorChunkContainer box = getLoaded(world, pos.getX() >> 4, pos.getZ() >> 4);
+		if (box != null) {
+			int rayPos = box.getRayPos(pos);
+			Collection<MirrorRay> collection = box.raysByPos.get(rayPos);
+			if (collection == null) {
+				collection = new HashSet<>();
+				box.raysByPos.put(rayPos, collection);
+			}
+			collection.add(ray);
+		}
+	}
+
+	static void removeRay(World world, BlockPos pos, MirrorRay ray) {
+		MirrorChunkContainer box = getLoaded(world, pos.getX() >> 4, pos.getZ() >> 4);
+		if (box != null) {
+			int rayPos = box.getRayPos(pos);
+			Collection<MirrorRay> collection = box.raysByPos.get(rayPos);
+			if (collection != null && collection.remove(ray) && collection.isEmpty()) {
+				box.raysByPos.remove(rayPos);
+			}
+		}
+	}
+
+	/**
+	 * Requests a re-cast of all mirror rays crossing a given block.
+	 */
+	public static void refreshRaysAt(World world, BlockPos pos) {
+		MirrorChunkContainer box = getLoaded(world, pos.getX() >> 4, pos.getZ() >> 4);
+		if (box != null) {
+			Collection<MirrorRay> collection = box.raysByPos.get(box.getRayPos(pos));
+			if (collection != null) {
+				for (MirrorRay ray : collection) {
+					ray.mirror.requestRayRefresh(ray.index);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Ray registrations are lost with the chunk's container when it unloads,
+	 * so mirrors around a freshly loaded chunk have to search again.
+	 */
+	public static void onChunkLoaded(World world, Chunk chunk) {
+		for (int ix = chunk.x - 1; ix <= chunk.x + 1; ix++) {
+			for (int iz = chunk.z - 1; iz <= chunk.z + 1; iz++) {
+				if (ix == chunk.x && iz == chunk.z) {
+					continue;
+				}
+
+				MirrorChunkContainer box = getLoaded(world, ix, iz);
+				if (box != null) {
+					for (Collection<IMirror> collection : box.mirrorsByHeight.valueCollection()) {
+						collection.forEach(IMirror::requestMirrorTargetRefresh);
+					}
+				}
+			}
+		}
+	}
+
 	public static IMirror getHighestMirror(World world, BlockPos pos) {
 		Chunk c = world.getChunk(pos);
 		if (c != null && c.hasCapability(CharsetPowerSteam.mirrorContainerCap, null)) {
@@ -151,18 +227,4 @@ public class MirrorChunkContainer {
 			}
 		}
 	}
-
-	public static void forEachListening(World world, BlockPos pos, Consumer<IMirror> consumer) {
-		int chunkX = pos.getX() >> 4;
-		int chunkZ = pos.getZ() >> 4;
-		for (int ix = chunkX - 1; ix <= chunkX + 1; ix++) {
-			for (int iz = chunkZ - 1; iz <= chunkZ + 1; iz++) {
-				Chunk c = world.getChunk(ix, iz);
-				if (c != null && c.hasCapability(CharsetPowerSteam.mirrorContainerCap, null)) {
-					MirrorChunkContainer box = c.getCapability(CharsetPowerSteam.mirrorContainerCap, null);
-					box.getMirrors(pos).forEach(consumer);
-				}
-			}
-		}
-	}
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.module.power.steam;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.Arrays;
+
+/**
+ * A single cached search ray of a solar mirror. Every block the ray
+ * samples before its hit is registered with the MirrorChunkContainer
+ * holding it, so that only the rays crossing a changed block have to
+ * be cast again.
+ */
+final class MirrorRay {
+	final TileMirror mirror;
+	final int index;
+
+	BlockPos hit;
+	private long[] cells = new long[16];
+	private int cellCount;
+
+	MirrorRay(TileMirror mirror, int index) {
+		this.mirror = mirror;
+		this.index = index;
+	}
+
+	void addCell(BlockPos pos) {
+		if (cellCount == cells.length) {
+			cells = Arrays.copyOf(cells, cellCount * 2);
+		}
+		cells[cellCount++] = pos.toLong();
+	}
+
+	void register(World world) {
+		for (int i = 0; i < cellCount; i++) {
+			MirrorChunkContainer.addRay(world, BlockPos.fromLong(cells[i]), this);
+		}
+	}
+
+	void clear(World world) {
+		for (int i = 0; i < cellCount; i++) {
+			MirrorChunkContainer.removeRay(world, BlockPos.fromLong(cells[i]), this);
+		}
+		cellCount = 0;
+		hit = null;
+	}
+}
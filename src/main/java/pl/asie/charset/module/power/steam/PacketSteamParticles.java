@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.charset.module.power.steam;
+
+import net.minecraft.network.INetHandler;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.world.World;
+import pl.asie.charset.lib.network.Packet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spawns a batch of steam particles belonging to a single chunk. Positions
+ * are sent relative to the chunk's origin.
+ */
+public class PacketSteamParticles extends Packet {
+	private List<SteamParticle> particles;
+	private int dimId;
+	private int chunkX, chunkZ;
+
+	// Read side
+	private float[] positions, motions;
+	private int[] lifetimes, values;
+
+	public PacketSteamParticles() {
+
+	}
+
+	public PacketSteamParticles(World world, int chunkX, int chunkZ, List<SteamParticle> particles) {
+		this.dimId = world.provider.getDimension();
+		this.chunkX = chunkX;
+		this.chunkZ = chunkZ;
+		this.particles = particles;
+	}
+
+	@Override
+	public void writeData(PacketBuffer buf) {
+		buf.writeInt(dimId);
+		buf.writeInt(chunkX);
+		buf.writeInt(chunkZ);
+		buf.writeVarInt(particles.size());
+
+		double baseX = chunkX << 4;
+		double baseZ = chunkZ << 4;
+
+		for (SteamParticle particle : particles) {
+			buf.writeFloat((float) (particle.x - baseX));
+			buf.writeFloat((float) particle.y);
+			buf.writeFloat((float) (particle.z - baseZ));
+			buf.writeFloat((float) particle.xMotion);
+			buf.writeFloat((float) particle.yMotion);
+			buf.writeFloat((float) particle.zMotion);
+			buf.writeVarInt(particle.lifetime);
+			buf.writeVarInt(particle.value);
+		}
+	}
+
+	@Override
+	public void readData(INetHandler handler, PacketBuffer buf) {
+		dimId = buf.readInt();
+		chunkX = buf.readInt();
+		chunkZ = buf.readInt();
+
+		int count = buf.readVarInt();
+		positions = new float[count * 3];
+		motions = new float[count * 3];
+		lifetimes = new int[count];
+		values = new int[count];
+
+		for (int i = 0; i < count; i++) {
+			positions[i * 3] = buf.readFloat();
+			positions[i * 3 + 1] = buf.readFloat();
+			positions[i * 3 + 2] = buf.readFloat();
+			motions[i * 3] = buf.readFloat();
+			motions[i * 3 + 1] = buf.readFloat();
+			motions[i * 3 + 2] = buf.readFloat();
+			lifetimes[i] = buf.readVarInt();
+			values[i] = buf.readVarInt();
+		}
+	}
+
+	@Override
+	public void apply(INetHandler handler) {
+		World w = getWorld(handler, dimId);
+		if (w != null) {
+			SteamWorldContainer ctr = w.getCapability(CharsetPowerSteam.steamWorldCap, null);
+			assert ctr != null;
+
+			double baseX = chunkX << 4;
+			double baseZ = chunkZ << 4;
+
+			for (int i = 0; i < lifetimes.length; i++) {
+				ctr.spawnParticle(new SteamParticle(w,
+						baseX + positions[i * 3], positions[i * 3 + 1], baseZ + positions[i * 3 + 2],
+						motions[i * 3], motions[i * 3 + 1], motions[i * 3 + 2],
+						lifetimes[i], values[i]
+				));
+			}
+		}
+	}
+
+	@Override
+	public boolean isAsynchronous() {
+		return false;
+	}
+}
@@ -21,17 +21,37 @@ package pl.asie.charset.module.power.steam;
 
 import net.minecraft.util.ITickable;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.fluids.FluidRegistry;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.FluidUtil;
+import net.minecraftforge.fluids.capability.IFluidHandler;
+import pl.asie.charset.lib.utils.RayTraceUtils;
 
-import java.util.Collection;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+/**
+ * Stores the steam particles of a chunk as parallel primitive arrays,
+ * rather than as individual objects. SteamParticle instances are only
+ * created when particles enter or leave the container.
+ */
 public class SteamChunkContainer implements ITickable {
+	private static final int INITIAL_CAPACITY = 16;
+
 	private final Chunk c;
-	private final List<SteamParticle> particleList = new LinkedList<>();
+	private SteamWorldContainer worldContainer;
+
+	private int count;
+	private double[] x = new double[0], y = new double[0], z = new double[0];
+	private double[] xMotion = new double[0], yMotion = new double[0], zMotion = new double[0];
+	private int[] lifetime = new int[0], value = new int[0];
+
+	private final List<SteamParticle> pendingSync = new ArrayList<>();
 
 	public SteamChunkContainer(Chunk c) {
 		this.c = c;
@@ -42,27 +62,155 @@ public class SteamChunkContainer implements ITickable {
 		this(new Chunk(null, 0, 0));
 	}
 
+	private void grow(int capacity) {
+		x = Arrays.copyOf(x, capacity);
+		y = Arrays.copyOf(y, capacity);
+		z = Arrays.copyOf(z, capacity);
+		xMotion = Arrays.copyOf(xMotion, capacity);
+		yMotion = Arrays.copyOf(yMotion, capacity);
+		zMotion = Arrays.copyOf(zMotion, capacity);
+		lifetime = Arrays.copyOf(lifetime, capacity);
+		value = Arrays.copyOf(value, capacity);
+	}
+
+	void setWorldContainer(SteamWorldContainer worldContainer) {
+		this.worldContainer = worldContainer;
+	}
+
+	private void onCountChanged(int delta) {
+		if (worldContainer != null && delta != 0) {
+			worldContainer.onParticleCountChanged(delta);
+		}
+	}
+
+	/**
+	 * Adds a particle to the container without synchronizing it.
+	 */
+	public void addParticle(SteamParticle particle) {
+		if (count == x.length) {
+			grow(Math.max(INITIAL_CAPACITY, count * 2));
+		}
+
+		int i = count++;
+		x[i] = particle.x;
+		y[i] = particle.y;
+		z[i] = particle.z;
+		xMotion[i] = particle.xMotion;
+		yMotion[i] = particle.yMotion;
+		zMotion[i] = particle.zMotion;
+		lifetime[i] = particle.lifetime;
+		value[i] = particle.value;
+		onCountChanged(1);
+	}
+
 	public void spawnParticle(SteamParticle particle) {
-		particleList.add(particle);
+		addParticle(particle);
 		if (!c.getWorld().isRemote) {
-			CharsetPowerSteam.packet.sendToWatching(new PacketSpawnParticle(particle), particle.world, new BlockPos((int) particle.x, (int) particle.y, (int) particle.z), null);
+			pendingSync.add(particle);
 		}
 	}
 
+	/**
+	 * Sends all particles spawned since the last call to watching players,
+	 * as a single packet.
+	 */
+	public void sendPendingParticles() {
+		if (!pendingSync.isEmpty()) {
+			CharsetPowerSteam.packet.sendToWatching(new PacketSteamParticles(c.getWorld(), c.x, c.z, pendingSync), c.getWorld(), new BlockPos(c.x << 4, 0, c.z << 4), null);
+			pendingSync.clear();
+		}
+	}
+
+	public List<SteamParticle> getParticles() {
+		List<SteamParticle> list = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			list.add(getParticle(i));
+		}
+		return list;
+	}
+
+	public void clear() {
+		onCountChanged(-count);
+		count = 0;
+	}
+
 	@Override
 	public void update() {
-		Iterator<SteamParticle> iterator = particleList.iterator();
-		while (iterator.hasNext()) {
-			SteamParticle particle = iterator.next();
-			particle.update();
-			if (particle.isInvalid()) {
-				iterator.remove();
+		if (count == 0) {
+			return;
+		}
+
+		World world = c.getWorld();
+		int oldCount = count;
+		int j = 0;
+
+		for (int i = 0; i < oldCount; i++) {
+			if (lifetime[i] <= 0) {
+				continue;
 			}
+
+			lifetime[i]--;
+
+			double oldX = x[i], oldY = y[i], oldZ = z[i];
+			double newX = oldX + xMotion[i];
+			double newY = oldY + yMotion[i];
+			double newZ = oldZ + zMotion[i];
+
+			// Collisions are only checked for blocks other than the one the particle
+			// starts in, so motion within a single block can never collide.
+			if (MathHelper.floor(oldX) != MathHelper.floor(newX)
+					|| MathHelper.floor(oldY) != MathHelper.floor(newY)
+					|| MathHelper.floor(oldZ) != MathHelper.floor(newZ)) {
+				RayTraceUtils.Result result = RayTraceUtils.getCollision(world, new Vec3d(oldX, oldY, oldZ), new Vec3d(newX, newY, newZ), (a) -> false);
+				if (result.valid()) {
+					BlockPos pos = result.hit.getBlockPos();
+					IFluidHandler handler = FluidUtil.getFluidHandler(world, pos, result.hit.sideHit);
+					if (handler != null) {
+						handler.fill(new FluidStack(FluidRegistry.getFluid("steam"), value[i]), true);
+					}
+					continue;
+				}
+			}
+
+			x[j] = newX;
+			y[j] = newY;
+			z[j] = newZ;
+			if (i != j) {
+				xMotion[j] = xMotion[i];
+				yMotion[j] = yMotion[i];
+				zMotion[j] = zMotion[i];
+				lifetime[j] = lifetime[i];
+				value[j] = value[i];
+			}
+			j++;
 		}
+
+		count = j;
+		onCountChanged(count - oldCount);
+	}
+
+	public int getParticleCount() {
+		return count;
+	}
+
+	public SteamParticle getParticle(int i) {
+		return new SteamParticle(c.getWorld(), x[i], y[i], z[i], xMotion[i], yMotion[i], zMotion[i], lifetime[i], value[i]);
+	}
+
+	public double getX(int i, float partialTicks) {
+		return x[i] + xMotion[i] * partialTicks;
+	}
+
+	public double getY(int i, float partialTicks) {
+		return y[i] + yMotion[i] * partialTicks;
+	}
+
+	public double getZ(int i, float partialTicks) {
+		return z[i] + zMotion[i] * partialTicks;
 	}
 
-	public Collection<SteamParticle> getParticles() {
-		return particleList;
+	public int getValue(int i) {
+		return value[i];
 	}
 
 	public Chunk getChunk() {
@@ -34,8 +34,8 @@ public class SteamChunkContainerStorage implements Capability.IStorage<SteamChun
 	public NBTBase writeNBT(Capability<SteamChunkContainer> capability, SteamChunkContainer instance, EnumFacing side) {
 		NBTTagCompound cpd = new NBTTagCompound();
 		NBTTagList list = new NBTTagList();
-		for (SteamParticle particle : instance.getParticles()) {
-			list.appendTag(particle.serializeNBT());
+		for (int i = 0; i < instance.getParticleCount(); i++) {
+			list.appendTag(instance.getParticle(i).serializeNBT());
 		}
 		cpd.setTag("particles", list);
 		return cpd;
@@ -47,11 +47,11 @@ public class SteamChunkContainerStorage implements Capability.IStorage<SteamChun
 			NBTTagCompound cpd = (NBTTagCompound) nbt;
 			if (cpd.hasKey("particles", Constants.NBT.TAG_LIST)) {
 				NBTTagList list = cpd.getTagList("particles", Constants.NBT.TAG_COMPOUND);
-				instance.getParticles().clear();
+				instance.clear();
 				for (int i = 0; i < list.tagCount(); i++) {
 					SteamParticle p = new SteamParticle(instance.getChunk().getWorld());
 					p.deserializeNBT(list.getCompoundTagAt(i));
-					instance.getParticles().add(p);
+					instance.addParticle(p);
 				}
 			}
 		}
@@ -29,13 +29,38 @@ import java.util.Collection;
 
 public class SteamWorldContainer {
 	private TLongObjectMap<SteamChunkContainer> containers = new TLongObjectHashMap<>();
+	private int particleCount;
 
 	public void onChunkLoaded(Chunk c) {
-		containers.put(ChunkPos.asLong(c.x, c.z), c.getCapability(CharsetPowerSteam.steamContainerCap, null));
+		SteamChunkContainer container = c.getCapability(CharsetPowerSteam.steamContainerCap, null);
+		SteamChunkContainer oldContainer = containers.put(ChunkPos.asLong(c.x, c.z), container);
+		if (oldContainer != null) {
+			oldContainer.setWorldContainer(null);
+			particleCount -= oldContainer.getParticleCount();
+		}
+		if (container != null) {
+			container.setWorldContainer(this);
+			particleCount += container.getParticleCount();
+		}
 	}
 
 	public void onChunkUnloaded(Chunk c) {
-		containers.remove(ChunkPos.asLong(c.x, c.z));
+		SteamChunkContainer container = containers.remove(ChunkPos.asLong(c.x, c.z));
+		if (container != null) {
+			container.setWorldContainer(null);
+			particleCount -= container.getParticleCount();
+		}
+	}
+
+	void onParticleCountChanged(int delta) {
+		particleCount += delta;
+	}
+
+	/**
+	 * @return The number of live particles in all loaded chunks.
+	 */
+	public int getParticleCount() {
+		return particleCount;
 	}
 
 	public SteamChunkContainer getContainer(BlockPos pos) {
@@ -44,7 +44,7 @@ public class SteamWorldEventListener implements IWorldEventListener {
 		if (oldState.getBlock() instanceof BlockMirror || newState.getBlock() instanceof BlockMirror) {
 			MirrorChunkContainer.forEach(worldIn, pos, IMirror::requestMirrorTargetRefresh);
 		} else if (oldState != newState) {
-			MirrorChunkContainer.forEachListening(worldIn, pos, IMirror::requestMirrorTargetRefresh);
+			MirrorChunkContainer.refreshRaysAt(worldIn, pos);
 		}
 	}
 
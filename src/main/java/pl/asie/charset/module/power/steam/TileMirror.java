@@ -30,6 +30,7 @@ import net.minecraft.nbt.NBTUtil;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.ITickable;
+import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
@@ -47,16 +48,25 @@ import pl.asie.charset.module.power.steam.api.IMirror;
 import pl.asie.charset.module.power.steam.api.IMirrorTarget;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
 public class TileMirror extends TileBase implements IMirror {
 	public static final int SEARCH_DISTANCE = 10;
 	private static final double MAX_RADIUS_SQ = (SEARCH_DISTANCE-1.1)*(SEARCH_DISTANCE-1.1);
+	private static final int RAY_COUNT = SEARCH_DISTANCE * 8;
 
 	private ItemMaterial material = ItemMaterialRegistry.INSTANCE.getOrCreateMaterial(new ItemStack(Blocks.IRON_BLOCK));
 	private BlockPos targetPos = null;
 
+	private MirrorRay[] rays;
+	private boolean raysCast;
+	private final BitSet dirtyRays = new BitSet(RAY_COUNT);
+	private boolean fullRefreshRequested;
+
 	public ItemMaterial getMaterial() {
 		return material;
 	}
@@ -85,6 +95,7 @@ public class TileMirror extends TileBase implements IMirror {
 	@Override
 	public void invalidate(InvalidationType type) {
 		super.invalidate(type);
+		clearRays();
 		if (type == InvalidationType.REMOVAL) {
 			// chunk /unloading/ removes the container as well
 			MirrorChunkContainer.unregisterMirror(world, this);
@@ -112,65 +123,166 @@ public class TileMirror extends TileBase implements IMirror {
 		return oldTargetPos != targetPos && (oldTargetPos == null || !oldTargetPos.equals(pos));
 	}
 
-	protected void findTarget() {
-		BlockPos oldTargetPos = targetPos;
-		double targetDistance = Double.MAX_VALUE;
-		TileEntity target = null;
+	private MirrorRay[] getRays() {
+		if (rays == null) {
+			rays = new MirrorRay[RAY_COUNT];
+			for (int i = 0; i < RAY_COUNT; i++) {
+				rays[i] = new MirrorRay(this, i);
+			}
+		}
+		return rays;
+	}
 
-		if (!isInvalid() && canSearchForTarget()) {
-			for (int direction = 0; direction < 4; direction++) {
-				for (int i = 0; i < SEARCH_DISTANCE * 2; i++) {
-					BlockPos targetPos;
-					switch (direction) {
-						case 0:
-						default:
-							targetPos = new BlockPos(
-									pos.getX() - SEARCH_DISTANCE + i,
-									pos.getY(),
-									pos.getZ() - SEARCH_DISTANCE
-							);
-							break;
-						case 1:
-							targetPos = new BlockPos(
-									pos.getX() + SEARCH_DISTANCE,
-									pos.getY(),
-									pos.getZ() - SEARCH_DISTANCE + i
-							);
-							break;
-						case 2:
-							targetPos = new BlockPos(
-									pos.getX() + SEARCH_DISTANCE - i,
-									pos.getY(),
-									pos.getZ() + SEARCH_DISTANCE
-							);
-							break;
-						case 3:
-							targetPos = new BlockPos(
-									pos.getX() - SEARCH_DISTANCE,
-									pos.getY(),
-									pos.getZ() + SEARCH_DISTANCE - i
-							);
-							break;
-					}
+	private void clearRays() {
+		if (rays != null && raysCast) {
+			for (MirrorRay ray : rays) {
+				ray.clear(world);
+			}
+		}
+		raysCast = false;
+	}
+
+	private void getRayTarget(int i, BlockPos.MutableBlockPos target) {
+		int direction = i / (SEARCH_DISTANCE * 2);
+		i %= SEARCH_DISTANCE * 2;
+
+		switch (direction) {
+			case 0:
+			default:
+				target.setPos(pos.getX() - SEARCH_DISTANCE + i, pos.getY(), pos.getZ() - SEARCH_DISTANCE);
+				break;
+			case 1:
+				target.setPos(pos.getX() + SEARCH_DISTANCE, pos.getY(), pos.getZ() - SEARCH_DISTANCE + i);
+				break;
+			case 2:
+				target.setPos(pos.getX() + SEARCH_DISTANCE - i, pos.getY(), pos.getZ() + SEARCH_DISTANCE);
+				break;
+			case 3:
+				target.setPos(pos.getX() - SEARCH_DISTANCE, pos.getY(), pos.getZ() + SEARCH_DISTANCE - i);
+				break;
+		}
+	}
 
-					RayTraceUtils.Result resultTmp = RayTraceUtils.getCollision(world, new Vec3d(pos).add(0.5, 0.5, 0.5), new Vec3d(targetPos).add(0.5, 0.5, 0.5), (checkPos) -> {
-						IBlockState cstate = world.getBlockState(checkPos);
-						return !(cstate.getBlock() instanceof BlockMirror) && cstate.getLightOpacity(world, checkPos) <= 0;
-					});
-
-					if (resultTmp.valid()) {
-						double distTmp = pos.distanceSq(resultTmp.hit.getBlockPos());
-						if (distTmp <= MAX_RADIUS_SQ && distTmp < targetDistance) {
-							TileEntity tile = world.getTileEntity(resultTmp.hit.getBlockPos());
-							if (tile != null && tile.hasCapability(CharsetPowerSteam.MIRROR_TARGET, null) && target != tile) {
-								target = tile;
-							}
+	private boolean isRayIgnored(BlockPos checkPos) {
+		IBlockState cstate = world.getBlockState(checkPos);
+		return !(cstate.getBlock() instanceof BlockMirror) && cstate.getLightOpacity(world, checkPos) <= 0;
+	}
+
+	/**
+	 * Casts a single search ray, recording every block it samples. This
+	 * follows the same sampling as RayTraceUtils.getCollision().
+	 */
+	private void castRay(MirrorRay ray) {
+		ray.clear(world);
+
+		BlockPos.MutableBlockPos target = new BlockPos.MutableBlockPos();
+		getRayTarget(ray.index, target);
+
+		double fromX = pos.getX() + 0.5, fromY = pos.getY() + 0.5, fromZ = pos.getZ() + 0.5;
+		double toX = target.getX() + 0.5, toY = target.getY() + 0.5, toZ = target.getZ() + 0.5;
+		double dx = toX - fromX, dy = toY - fromY, dz = toZ - fromZ;
+
+		int steps = (int) Math.ceil(Math.sqrt(dx * dx + dy * dy + dz * dz));
+		if (steps > 0) {
+			double xd = dx / steps;
+			double yd = dy / steps;
+			double zd = dz / steps;
+
+			double x = fromX + xd, y = fromY + yd, z = fromZ + zd;
+			BlockPos.MutableBlockPos checkPos = new BlockPos.MutableBlockPos();
+			BlockPos lastPos = pos;
+			Vec3d from = null, to = null;
+
+			for (int i = 1; i <= steps; i++) {
+				checkPos.setPos(x, y, z);
+				if (!checkPos.equals(lastPos)) {
+					BlockPos cellPos = checkPos.toImmutable();
+					ray.addCell(cellPos);
+
+					if (!isRayIgnored(cellPos)) {
+						if (from == null) {
+							from = new Vec3d(fromX, fromY, fromZ);
+							to = new Vec3d(toX, toY, toZ);
+						}
+
+						List<AxisAlignedBB> list = new ArrayList<>();
+						world.getBlockState(cellPos).addCollisionBoxToList(world, cellPos, new AxisAlignedBB(cellPos), list, null, false);
+						RayTraceUtils.Result result = RayTraceUtils.getCollision(world, cellPos, from, to, list, false);
+						if (result.valid()) {
+							ray.hit = result.hit.getBlockPos();
+							break;
 						}
 					}
+
+					lastPos = cellPos;
 				}
+
+				x += xd;
+				y += yd;
+				z += zd;
 			}
 		}
 
+		ray.register(world);
+	}
+
+	protected void findTarget() {
+		dirtyRays.clear();
+
+		if (!isInvalid() && canSearchForTarget()) {
+			for (MirrorRay ray : getRays()) {
+				castRay(ray);
+			}
+			raysCast = true;
+			selectTarget();
+		} else {
+			clearRays();
+			setTarget(null);
+		}
+	}
+
+	private void refreshDirtyRays() {
+		if (!raysCast || isInvalid()) {
+			dirtyRays.clear();
+			return;
+		}
+
+		for (int i = dirtyRays.nextSetBit(0); i >= 0; i = dirtyRays.nextSetBit(i + 1)) {
+			castRay(rays[i]);
+		}
+		dirtyRays.clear();
+		selectTarget();
+	}
+
+	private void selectTarget() {
+		double targetDistance = Double.MAX_VALUE;
+		TileEntity target = null;
+		BlockPos lastHit = null;
+
+		for (MirrorRay ray : rays) {
+			BlockPos hit = ray.hit;
+			// Neighbouring rays usually hit the same block.
+			if (hit == null || hit.equals(lastHit)) {
+				continue;
+			}
+			lastHit = hit;
+
+			double distTmp = pos.distanceSq(hit);
+			if (distTmp <= MAX_RADIUS_SQ && distTmp < targetDistance) {
+				TileEntity tile = world.getTileEntity(hit);
+				if (tile != null && tile.hasCapability(CharsetPowerSteam.MIRROR_TARGET, null)) {
+					target = tile;
+					targetDistance = distTmp;
+				}
+			}
+		}
+
+		setTarget(target);
+	}
+
+	private void setTarget(@Nullable TileEntity target) {
+		BlockPos oldTargetPos = targetPos;
+
 		if (target != null) {
 			targetPos = target.getPos();
 		} else {
@@ -290,8 +402,27 @@ public class TileMirror extends TileBase implements IMirror {
 
 	@Override
 	public void requestMirrorTargetRefresh() {
+		fullRefreshRequested = true;
+		scheduleRefresh();
+	}
+
+	void requestRayRefresh(int ray) {
+		dirtyRays.set(ray);
+		scheduleRefresh();
+	}
+
+	private void scheduleRefresh() {
 		if (event == null || event.hasExecuted()) {
-			event = Scheduler.INSTANCE.in(world, 0, this::findTarget);
+			event = Scheduler.INSTANCE.in(world, 0, this::refreshTarget);
+		}
+	}
+
+	private void refreshTarget() {
+		if (fullRefreshRequested) {
+			fullRefreshRequested = false;
+			findTarget();
+		} else if (!dirtyRays.isEmpty()) {
+			refreshDirtyRays();
 		}
 	}
 }
@@ -44,7 +44,6 @@ import pl.asie.charset.lib.utils.MathUtils;
 import pl.asie.charset.lib.utils.Quaternion;
 import pl.asie.charset.module.power.steam.CharsetPowerSteam;
 import pl.asie.charset.module.power.steam.SteamChunkContainer;
-import pl.asie.charset.module.power.steam.SteamParticle;
 import pl.asie.charset.module.power.steam.api.IMirror;
 
 import java.util.Optional;
@@ -90,16 +89,18 @@ public class RenderSteamParticle {
 		worldrenderer.setTranslation(-cameraPos.x, -cameraPos.y, -cameraPos.z);
 		worldrenderer.begin(GL11.GL_QUADS, DefaultVertexFormats.PARTICLE_POSITION_TEX_COLOR_LMAP);
 
-		for (SteamChunkContainer chunkContainer : world.getCapability(CharsetPowerSteam.steamWorldCap, null).getAllContainers()) {
-			for (SteamParticle particle : chunkContainer.getParticles()) {
-				if (particle.isInvalid()) {
-					continue;
-				}
+		float partialTicks = Minecraft.getMinecraft().getRenderPartialTicks();
 
-				float size = 0.1f * (float) Math.log10(particle.getValue());
+		for (SteamChunkContainer chunkContainer : world.getCapability(CharsetPowerSteam.steamWorldCap, null).getAllContainers()) {
+			for (int p = 0; p < chunkContainer.getParticleCount(); p++) {
+				float size = 0.1f * (float) Math.log10(chunkContainer.getValue(p));
 				float alpha = 0.25f;
 
-				Vec3d pos = particle.getPosition(Minecraft.getMinecraft().getRenderPartialTicks());
+				Vec3d pos = new Vec3d(
+						chunkContainer.getX(p, partialTicks),
+						chunkContainer.getY(p, partialTicks),
+						chunkContainer.getZ(p, partialTicks)
+				);
 				AxisAlignedBB box = new AxisAlignedBB(pos.add(-size, -size, -size), pos.add(size, size, size));
 
 				if (!camera.isBoundingBoxInFrustum(box)) {
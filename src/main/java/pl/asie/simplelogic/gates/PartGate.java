@@ -51,11 +51,12 @@ import pl.asie.simplelogic.gates.logic.GateLogicDummy;
 import pl.asie.charset.lib.block.TileBase;
 import pl.asie.charset.lib.capability.Capabilities;
 import pl.asie.charset.lib.render.model.IRenderComparable;
+import pl.asie.charset.lib.scheduler.Scheduler;
 import pl.asie.charset.lib.utils.*;
 
 import javax.annotation.Nullable;
 
-public class PartGate extends TileBase implements IRenderComparable<PartGate>, ITickable {
+public class PartGate extends TileBase implements IRenderComparable<PartGate> {
 	private class RedstoneCommunications implements IBundledEmitter, IBundledReceiver, IRedstoneEmitter, IRedstoneReceiver {
 		private final EnumFacing side;
 
@@ -85,6 +86,11 @@ public class PartGate extends TileBase implements IRenderComparable<PartGate>, I
 		}
 	}
 
+	/**
+	 * The delay, in ticks, of a regular gate evaluation.
+	 */
+	public static final int DEFAULT_TICK_DELAY = 2;
+
 	public static final AxisAlignedBB[] BOXES = new AxisAlignedBB[6];
 	private static final Vec3d[][] HIT_VECTORS = new Vec3d[6][];
 	private final RedstoneCommunications[] COMMS = new RedstoneCommunications[4];
@@ -118,7 +124,8 @@ public class PartGate extends TileBase implements IRenderComparable<PartGate>, I
 	public boolean mirrored;
 	public GateLogic logic;
 	private boolean pendingChange;
-	private int pendingTick;
+	// world time of the scheduled evaluation, -1 if none
+	private long pendingTickTime = -1;
 
 	private Orientation orientation = Orientation.FACE_UP_POINT_NORTH;
 
@@ -237,16 +244,16 @@ public class PartGate extends TileBase implements IRenderComparable<PartGate>, I
 		stacks.add(ItemGate.getStack(this, silkTouch));
 	}
 
-	@Override
-	public void update() {
-		if (getWorld() != null && !getWorld().isRemote && pendingTick > 0) {
-			pendingTick--;
-			if (pendingTick == 0) {
-				if (tick() || pendingChange) {
-					propagateOutputs();
-					pendingChange = false;
-				}
-			}
+	private void onScheduledTick(long time) {
+		if (pendingTickTime != time || isInvalid() || getWorld() == null) {
+			// rescheduled or removed in the meantime
+			return;
+		}
+
+		pendingTickTime = -1;
+		if (tick() || pendingChange) {
+			propagateOutputs();
+			pendingChange = false;
 		}
 	}
 
@@ -322,18 +329,48 @@ public class PartGate extends TileBase implements IRenderComparable<PartGate>, I
 	}
 
 	public void scheduleTick() {
-		if (pendingTick == 0) {
-			pendingTick = 2;
+		scheduleTick(DEFAULT_TICK_DELAY);
+	}
+
+	/**
+	 * Schedules an evaluation of the gate's logic in a given amount of
+	 * ticks. If an evaluation is already pending, the earlier of the two
+	 * is kept. Idle gates do not tick at all.
+	 */
+	public void scheduleTick(int delay) {
+		World world = getWorld();
+		if (world == null || world.isRemote) {
+			return;
+		}
+
+		// The scheduler runs at the end of the tick, after the world time
+		// has been advanced; a delay of 1 runs at the end of the next tick.
+		long time = world.getTotalWorldTime() + Math.max(1, delay) - 1;
+		if (pendingTickTime < 0 || pendingTickTime > time) {
+			pendingTickTime = time;
+			Scheduler.INSTANCE.at(world, time, () -> onScheduledTick(time));
 		}
 	}
 
+	public boolean isTickScheduled() {
+		return pendingTickTime >= 0;
+	}
+
 	@Override
 	public void validate() {
 		super.validate();
-		pendingTick = 1;
+		pendingTickTime = -1;
 		pendingChange = true;
 	}
 
+	@Override
+	public void onLoad() {
+		super.onLoad();
+		// Runs both for loaded and newly placed gates, once the gate is
+		// in the world.
+		scheduleTick(1);
+	}
+
 	public void onNeighborBlockChange(Block block) {
 		if (logic instanceof GateLogicDummy || !getWorld().isSideSolid(getPos().offset(getSide()), getSide().getOpposite())) {
 			IBlockState state = world.getBlockState(pos);
@@ -496,10 +533,6 @@ public class PartGate extends TileBase implements IRenderComparable<PartGate>, I
 		}
 		tag.setBoolean("m", mirrored);
 		tag.setByte("o", (byte) orientation.ordinal());
-		if (!isClient && pendingTick != 0) {
-			tag.setByte("p", (byte) pendingTick);
-			tag.setBoolean("pch", pendingChange);
-		}
 		return tag;
 	}
 
@@ -530,10 +563,6 @@ public class PartGate extends TileBase implements IRenderComparable<PartGate>, I
 		if (tag.hasKey("m")) {
 			mirrored = tag.getBoolean("m");
 		}
-		if (tag.hasKey("p")) {
-			pendingTick = tag.getByte("p");
-			pendingChange = tag.getBoolean("pch");
-		}
 		orientation = Orientation.getOrientation(tag.getByte("o"));
 
 		if (isClient) {
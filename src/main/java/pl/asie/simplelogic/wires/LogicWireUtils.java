@@ -60,7 +60,10 @@ public final class LogicWireUtils {
 	}
 
 	public static int getInsulatedWireLevel(IBlockAccess world, BlockPos pos, WireFace face, int color) {
-		Wire wire = WireUtils.getWire(world, pos, face);
+		return getInsulatedWireLevel(WireUtils.getWire(world, pos, face), color);
+	}
+
+	public static int getInsulatedWireLevel(Wire wire, int color) {
 		if (wire instanceof PartWireSignalBase) {
 			PartWireSignalBase signalWire = (PartWireSignalBase) wire;
 			switch (signalWire.getWireType()) {
@@ -77,7 +80,10 @@ public final class LogicWireUtils {
 	}
 
 	public static int getBundledWireLevel(IBlockAccess world, BlockPos pos, WireFace face, int color) {
-		Wire wire = WireUtils.getWire(world, pos, face);
+		return getBundledWireLevel(WireUtils.getWire(world, pos, face), color);
+	}
+
+	public static int getBundledWireLevel(Wire wire, int color) {
 		if (wire instanceof PartWireSignalBase) {
 			PartWireSignalBase signalWire = (PartWireSignalBase) wire;
 			switch (signalWire.getWireType()) {
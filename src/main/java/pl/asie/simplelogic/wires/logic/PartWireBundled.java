@@ -43,7 +43,6 @@ import pl.asie.charset.lib.wires.IWireContainer;
 import pl.asie.charset.lib.wires.Wire;
 import pl.asie.charset.lib.wires.WireProvider;
 import pl.asie.charset.lib.wires.WireUtils;
-import pl.asie.simplelogic.wires.LogicWireUtils;
 
 import javax.annotation.Nonnull;
 
@@ -99,7 +98,7 @@ public class PartWireBundled extends PartWireSignalBase implements IBundledRecei
 
 	@Override
 	public int renderHashCode() {
-		return Objects.hash(super.renderHashCode(), getInsulatedColorCache());
+		return Objects.hash(super.renderHashCode(), Arrays.hashCode(getInsulatedColorCache()));
 	}
 
 	@Override
@@ -129,55 +128,27 @@ public class PartWireBundled extends PartWireSignalBase implements IBundledRecei
 		return nbt;
 	}
 
-	private void propagate(int color, byte[][] nValues) {
-		boolean[] isWire = new boolean[7];
-		int[] neighborLevel = new int[7];
-
-		int maxSignal = 0;
-		int oldSignal = signalLevel[color];
-
-		PartWireSignalBase.PROPAGATING = true;
-
-		for (WireFace location : WireFace.VALUES) {
-			if (connectsInternal(location)) {
-				isWire[location.ordinal()] = true;
-				neighborLevel[location.ordinal()] = LogicWireUtils.getBundledWireLevel(getContainer().world(), getContainer().pos(), location, color);
-			}
-		}
-
-		for (EnumFacing facing : EnumFacing.VALUES) {
-			if (connectsExternal(facing)) {
-				if (nValues[facing.ordinal()] != null) {
-					int nv = nValues[facing.ordinal()][color];
-					// clamp nv
-					if (nv < 0 || nv > 0x0F) nv = 0x0F;
-
-					int v = nv << 8;
-					if (v != 0) {
-						neighborLevel[facing.ordinal()] = v | 0xFF;
-					}
-				} else {
-					BlockPos pos = getContainer().pos().offset(facing);
-					Wire wire = WireUtils.getWire(getContainer().world(), pos, getLocation());
-
-					if (wire instanceof PartWireSignalBase) {
-						isWire[facing.ordinal()] = true;
-						neighborLevel[facing.ordinal()] = LogicWireUtils.getBundledWireLevel(getContainer().world(), pos, getLocation(), color);
-					}
+	private static void getWireLevels(PartWireSignalBase wire, int[] levels) {
+		switch (wire.getWireType()) {
+			case INSULATED:
+				levels[wire.getColor() & 15] = wire.getSignalLevel();
+				break;
+			case BUNDLED:
+				for (int i = 0; i < 16; i++) {
+					levels[i] = wire.getBundledSignalLevel(i);
 				}
-			} else if (connectsCorner(facing)) {
-				BlockPos cornerPos = getContainer().pos().offset(facing).offset(getLocation().facing);
-				Wire wire = WireUtils.getWire(getContainer().world(), cornerPos, getLocation());
-
-				if (wire instanceof PartWireSignalBase) {
-					isWire[facing.ordinal()] = true;
-					neighborLevel[facing.ordinal()] = LogicWireUtils.getBundledWireLevel(getContainer().world(), cornerPos, WireFace.get(facing.getOpposite()), color);
-				}
-			}
+				break;
 		}
+	}
 
-		PartWireSignalBase.PROPAGATING = false;
+	private void propagate(int color, int[][] levels, boolean[] isWire) {
+		int[] neighborLevel = SignalPropagator.INSTANCE.neighborLevel;
+		for (int j = 0; j < 7; j++) {
+			neighborLevel[j] = levels[j][color];
+		}
 
+		int maxSignal = 0;
+		int oldSignal = signalLevel[color];
 		int maxSignalNonWire = 0;
 
 		for (int j = 0; j < 7; j++) {
@@ -215,21 +186,21 @@ public class PartWireBundled extends PartWireSignalBase implements IBundledRecei
 			System.out.println("Switch: " + oldSignal + " -> " + newSignal);
 		}
 
+		propagatingDecay = newSignal < oldSignal;
+
 		if (newSignal == 0) {
 			// If we lost signal, propagate only to those which have a signal.
 			// This is an optimization.
 			for (WireFace nLoc : WireFace.VALUES) {
 				if (connectsInternal(nLoc)) {
 					if (neighborLevel[nLoc.ordinal()] > 0) {
-						Wire wire = WireUtils.getWire(getContainer().world(), getContainer().pos(), nLoc);
-						if (wire instanceof PartWireSignalBase) ((PartWireSignalBase) wire).onSignalChanged(color);
+						notifyWire(getNeighborWire(nLoc.ordinal()), color);
 					}
 				} else if (nLoc != WireFace.CENTER) {
 					EnumFacing facing = nLoc.facing;
 
 					if (connectsExternal(facing)) {
-						Wire wire = WireUtils.getWire(getContainer().world(), getContainer().pos().offset(facing), getLocation());
-						if (!(wire instanceof PartWireSignalBase) || neighborLevel[facing.ordinal()] > 0) {
+						if (getNeighborWire(NEIGHBOR_SIDE + facing.ordinal()) == null || neighborLevel[facing.ordinal()] > 0) {
 							propagateNotify(facing, color);
 						}
 					} else if (connectsCorner(facing)) {
@@ -243,8 +214,7 @@ public class PartWireBundled extends PartWireSignalBase implements IBundledRecei
 			for (WireFace nLoc : WireFace.VALUES) {
 				if (neighborLevel[nLoc.ordinal()] < newSignal - 1 || neighborLevel[nLoc.ordinal()] > (newSignal + 1)) {
 					if (connectsInternal(nLoc)) {
-						Wire wire = WireUtils.getWire(getContainer().world(), getContainer().pos(), nLoc);
-						if (wire instanceof PartWireSignalBase) ((PartWireSignalBase) wire).onSignalChanged(color);
+						notifyWire(getNeighborWire(nLoc.ordinal()), color);
 					} else if (nLoc != WireFace.CENTER) {
 						EnumFacing facing = nLoc.facing;
 
@@ -257,41 +227,80 @@ public class PartWireBundled extends PartWireSignalBase implements IBundledRecei
 				}
 			}
 		}
-
-		finishPropagation();
 	}
 
 	@Override
 	public void propagate(int color) {
 		if (DEBUG) {
 			System.out.println("--- B! PROPAGATE " + getContainer().pos().toString() + " " + getLocation().name() + " --- " + color);
-// TODO			System.out.println("ConnectionCache: " + Integer.toBinaryString(internalConnections) + " " + Integer.toBinaryString(externalConnections) + " " + Integer.toBinaryString(cornerConnections));
 		}
 
-		byte[][] nValues = new byte[6][];
-
-		for (EnumFacing facing : EnumFacing.VALUES) {
-			if (connectsExternal(facing)) {
-				IBundledEmitter emitter = null;
+		// Gather the levels of all channels from all neighbours in one pass,
+		// using the cached neighbour wires.
+		SignalPropagator propagator = SignalPropagator.INSTANCE;
+		propagator.clearScratch();
+		boolean[] isWire = propagator.isWire;
+		int[][] levels = propagator.bundledLevels;
+		for (int[] channelLevels : levels) {
+			Arrays.fill(channelLevels, 0);
+		}
 
-				BlockPos pos = getContainer().pos().offset(facing);
-				if (WireUtils.hasCapability(this, pos, Capabilities.BUNDLED_EMITTER, facing.getOpposite(), true)) {
-					emitter = WireUtils.getCapability(this, pos, Capabilities.BUNDLED_EMITTER, facing.getOpposite(), true);
+		propagator.beginSampling(getContainer().world());
+		try {
+			for (WireFace location : WireFace.VALUES) {
+				if (connectsInternal(location)) {
+					PartWireSignalBase wire = getNeighborWire(location.ordinal());
+					isWire[location.ordinal()] = true;
+					if (wire != null) {
+						getWireLevels(wire, levels[location.ordinal()]);
+					}
 				}
+			}
+
+			for (EnumFacing facing : EnumFacing.VALUES) {
+				if (connectsExternal(facing) || connectsCorner(facing)) {
+					PartWireSignalBase wire = getNeighborWire(NEIGHBOR_SIDE + facing.ordinal());
+					if (wire != null) {
+						isWire[facing.ordinal()] = true;
+						getWireLevels(wire, levels[facing.ordinal()]);
+					} else if (connectsExternal(facing)) {
+						BlockPos pos = getContainer().pos().offset(facing);
+						byte[] values = null;
+						if (WireUtils.hasCapability(this, pos, Capabilities.BUNDLED_EMITTER, facing.getOpposite(), true)) {
+							IBundledEmitter emitter = WireUtils.getCapability(this, pos, Capabilities.BUNDLED_EMITTER, facing.getOpposite(), true);
+							if (emitter != null) {
+								values = emitter.getBundledSignal();
+							}
+						}
 
-				if (emitter != null) {
-					nValues[facing.ordinal()] = emitter.getBundledSignal();
+						if (values != null) {
+							for (int i = 0; i < 16; i++) {
+								int nv = values[i];
+								// clamp nv
+								if (nv < 0 || nv > 0x0F) nv = 0x0F;
+
+								int v = nv << 8;
+								if (v != 0) {
+									levels[facing.ordinal()][i] = v | 0xFF;
+								}
+							}
+						}
+					}
 				}
 			}
+		} finally {
+			propagator.endSampling(getContainer().world());
 		}
 
 		if (color < 0) {
 			for (int i = 0; i < 16; i++) {
-				propagate(i, nValues);
+				propagate(i, levels, isWire);
 			}
 		} else {
-			propagate(color, nValues);
+			propagate(color, levels, isWire);
 		}
+
+		finishPropagation();
 	}
 
 	@Override
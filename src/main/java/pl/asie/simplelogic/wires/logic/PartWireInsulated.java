@@ -20,9 +20,7 @@
 package pl.asie.simplelogic.wires.logic;
 
 import net.minecraft.item.EnumDyeColor;
-import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.text.translation.I18n;
-import net.minecraft.world.IBlockAccess;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
 import pl.asie.charset.api.wires.IWireInsulated;
@@ -48,8 +46,8 @@ public class PartWireInsulated extends PartWireNormal implements IWireInsulated
 	}
 
 	@Override
-	protected int getWireRedstoneLevel(IBlockAccess world, BlockPos pos, WireFace location) {
-		return LogicWireUtils.getInsulatedWireLevel(world, pos, location, getColor());
+	protected int getWireRedstoneLevel(PartWireSignalBase wire) {
+		return LogicWireUtils.getInsulatedWireLevel(wire, getColor());
 	}
 
 	@Override
@@ -34,7 +34,6 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.EnumFacing;
 
 import net.minecraft.util.text.translation.I18n;
-import net.minecraft.world.IBlockAccess;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.util.Constants;
 import net.minecraftforge.fml.relauncher.Side;
@@ -89,9 +88,8 @@ public class PartWireNormal extends PartWireSignalBase implements IRedstoneEmitt
 		}
 	}
 
-	protected int getWireRedstoneLevel(IBlockAccess world, BlockPos pos, WireFace location) {
-		Wire wire = WireUtils.getWire(world, pos, location);
-		return wire instanceof PartWireSignalBase ? ((PartWireSignalBase) wire).getSignalLevel() : 0;
+	protected int getWireRedstoneLevel(PartWireSignalBase wire) {
+		return wire != null ? wire.getSignalLevel() : 0;
 	}
 
 	@Override
@@ -100,99 +98,101 @@ public class PartWireNormal extends PartWireSignalBase implements IRedstoneEmitt
 			System.out.println("--- PROPAGATE " + getContainer().pos().toString() + " " + getLocation().name() + " (" + getContainer().world().getTotalWorldTime() + ") ---");
 		}
 
-		boolean[] isWire = new boolean[7];
-		int[] neighborLevel = new int[7];
+		SignalPropagator propagator = SignalPropagator.INSTANCE;
+		propagator.clearScratch();
+		boolean[] isWire = propagator.isWire;
+		int[] neighborLevel = propagator.neighborLevel;
 
 		int maxSignal = 0;
 		int oldSignal = signalLevel;
 
-		PartWireSignalBase.PROPAGATING = true;
-
-		// First, get the strength from the full block we're placed on, if any.
-		if (getWireType() == WireType.NORMAL) {
-			if (getLocation() != WireFace.CENTER) {
-				EnumFacing facing = getLocation().facing;
+		propagator.beginSampling(getContainer().world());
+		try {
+			// First, get the strength from the full block we're placed on, if any.
+			if (getWireType() == WireType.NORMAL) {
+				if (getLocation() != WireFace.CENTER) {
+					EnumFacing facing = getLocation().facing;
 
-				BlockPos pos = getContainer().pos().offset(facing);
-				IBlockState state = getContainer().world().getBlockState(pos);
+					BlockPos pos = getContainer().pos().offset(facing);
+					IBlockState state = getContainer().world().getBlockState(pos);
 
-				// Weak power (on block)
-				int power = LogicWireUtils.getWeakRedstoneLevel(this, pos, state, facing, getLocation());
+					// Weak power (on block)
+					int power = LogicWireUtils.getWeakRedstoneLevel(this, pos, state, facing, getLocation());
 
-				if (power < 15) {
-					// Strong power (on surrounding blocks)
-					for (EnumFacing enumfacing : EnumFacing.values()) {
-						if (enumfacing == facing.getOpposite()) {
-							continue;
-						}
+					if (power < 15) {
+						// Strong power (on surrounding blocks)
+						for (EnumFacing enumfacing : EnumFacing.values()) {
+							if (enumfacing == facing.getOpposite()) {
+								continue;
+							}
 
-						state = getContainer().world().getBlockState(pos.offset(enumfacing));
-						Block block = state.getBlock();
+							state = getContainer().world().getBlockState(pos.offset(enumfacing));
+							Block block = state.getBlock();
 
-						if (!(block instanceof BlockRedstoneWire)) {
-							int currPower = LogicWireUtils.getStrongRedstoneLevel(this, pos.offset(enumfacing), state, enumfacing, getLocation());
+							if (!(block instanceof BlockRedstoneWire)) {
+								int currPower = LogicWireUtils.getStrongRedstoneLevel(this, pos.offset(enumfacing), state, enumfacing, getLocation());
 
-							if (currPower >= 15) {
-								power = 15;
-								break;
-							} else if (currPower > power) {
-								power = currPower;
+								if (currPower >= 15) {
+									power = 15;
+									break;
+								} else if (currPower > power) {
+									power = currPower;
+								}
 							}
 						}
 					}
-				}
 
-				if (power > 0) {
-					neighborLevel[facing.ordinal()] = (Math.min(power, 15) << 8) | 0xFF;
+					if (power > 0) {
+						neighborLevel[facing.ordinal()] = (Math.min(power, 15) << 8) | 0xFF;
+					}
 				}
 			}
-		}
 
-		// Check for internal connections (wires only)
-		for (WireFace location : WireFace.VALUES) {
-			if (connectsInternal(location)) {
-				isWire[location.ordinal()] = true;
-				neighborLevel[location.ordinal()] = getWireRedstoneLevel(getContainer().world(), getContainer().pos(), location);
+			// Check for internal connections (wires only)
+			for (WireFace location : WireFace.VALUES) {
+				if (connectsInternal(location)) {
+					isWire[location.ordinal()] = true;
+					neighborLevel[location.ordinal()] = getWireRedstoneLevel(getNeighborWire(location.ordinal()));
+				}
 			}
-		}
 
-		// Check for external connections (one block away)
-		for (EnumFacing facing : EnumFacing.VALUES) {
-			int facidx = facing.ordinal();
+			// Check for external connections (one block away)
+			for (EnumFacing facing : EnumFacing.VALUES) {
+				int facidx = facing.ordinal();
 
-			if (connectsExternal(facing)) {
-				BlockPos pos = getContainer().pos().offset(facing);
-				Wire wire = WireUtils.getWire(getContainer().world(), pos, getLocation());
+				if (connectsExternal(facing)) {
+					BlockPos pos = getContainer().pos().offset(facing);
+					PartWireSignalBase wire = getNeighborWire(NEIGHBOR_SIDE + facidx);
 
-				// If we have a wire, treat it as a wire. If not, treat it as a block.
-				if (wire instanceof PartWireSignalBase) {
-					isWire[facidx] = true;
-					neighborLevel[facidx] = getWireRedstoneLevel(getContainer().world(), pos, getLocation());
-				} else {
-					IBlockState state = getContainer().world().getBlockState(pos);
-					int power = LogicWireUtils.getWeakRedstoneLevel(this, pos, state, facing, getLocation());
-
-					if (state.getBlock() instanceof BlockRedstoneWire || state.getBlock().getRegistryName().equals(REDSTONE_PASTE_BLOCK)) {
+					// If we have a wire, treat it as a wire. If not, treat it as a block.
+					if (wire != null) {
 						isWire[facidx] = true;
-						power--;
-					}
+						neighborLevel[facidx] = getWireRedstoneLevel(wire);
+					} else {
+						IBlockState state = getContainer().world().getBlockState(pos);
+						int power = LogicWireUtils.getWeakRedstoneLevel(this, pos, state, facing, getLocation());
+
+						if (state.getBlock() instanceof BlockRedstoneWire || state.getBlock().getRegistryName().equals(REDSTONE_PASTE_BLOCK)) {
+							isWire[facidx] = true;
+							power--;
+						}
 
-					if (power > 0) {
-						neighborLevel[facidx] = (Math.min(power, 15) << 8) | 0xFF;
+						if (power > 0) {
+							neighborLevel[facidx] = (Math.min(power, 15) << 8) | 0xFF;
+						}
+					}
+				} else if (connectsCorner(facing)) {
+					PartWireSignalBase wire = getNeighborWire(NEIGHBOR_SIDE + facidx);
+					if (wire != null) {
+						isWire[facidx] = true;
+						neighborLevel[facidx] = getWireRedstoneLevel(wire);
 					}
-				}
-			} else if (connectsCorner(facing)) {
-				BlockPos pos = getContainer().pos().offset(facing).offset(getLocation().facing);
-				Wire wire = WireUtils.getWire(getContainer().world(), pos, WireFace.get(facing.getOpposite()));
-				if (wire instanceof PartWireSignalBase) {
-					isWire[facidx] = true;
-					neighborLevel[facidx] = getWireRedstoneLevel(getContainer().world(), pos, WireFace.get(facing.getOpposite()));
 				}
 			}
+		} finally {
+			propagator.endSampling(getContainer().world());
 		}
 
-		PartWireSignalBase.PROPAGATING = false;
-
 		int maxSignalNonWire = 0;
 
 		for (int i = 0; i < 7; i++) {
@@ -226,21 +226,21 @@ public class PartWireNormal extends PartWireSignalBase implements IRedstoneEmitt
 			System.out.println("Switch: " + oldSignal + " -> " + signalLevel);
 		}
 
+		propagatingDecay = signalLevel < oldSignal;
+
 		if (signalLevel == 0) {
 			// If we lost signal, propagate only to those which have a signal.
 			// This is an optimization.
 			for (WireFace nLoc : WireFace.VALUES) {
 				if (connectsInternal(nLoc)) {
 					if (neighborLevel[nLoc.ordinal()] > 0) {
-						Wire wire = WireUtils.getWire(getContainer().world(), getContainer().pos(), nLoc);
-						if (wire instanceof PartWireSignalBase) ((PartWireSignalBase) wire).onSignalChanged(getColor());
+						notifyWire(getNeighborWire(nLoc.ordinal()), getColor());
 					}
 				} else if (nLoc != WireFace.CENTER) {
 					EnumFacing facing = nLoc.facing;
 
 					if (connectsExternal(facing)) {
-						Wire wire = WireUtils.getWire(getContainer().world(), getContainer().pos().offset(facing), getLocation());
-						if (!(wire instanceof PartWireSignalBase) || neighborLevel[facing.ordinal()] > 0) {
+						if (getNeighborWire(NEIGHBOR_SIDE + facing.ordinal()) == null || neighborLevel[facing.ordinal()] > 0) {
 							propagateNotify(facing, getColor());
 						}
 					} else if (connectsCorner(facing)) {
@@ -261,15 +261,13 @@ public class PartWireNormal extends PartWireSignalBase implements IRedstoneEmitt
 				boolean nChanged = neighborLevel[nLoc.ordinal()] < (signalLevel - 1) || neighborLevel[nLoc.ordinal()] > (signalLevel + 1);
 				if (connectsInternal(nLoc)) {
 					if (nChanged) {
-						Wire wire = WireUtils.getWire(getContainer().world(), getContainer().pos(), nLoc);
-						if (wire instanceof PartWireSignalBase) ((PartWireSignalBase) wire).onSignalChanged(getColor());
+						notifyWire(getNeighborWire(nLoc.ordinal()), getColor());
 					}
 				} else if (nLoc != WireFace.CENTER) {
 					EnumFacing facing = nLoc.facing;
 
 					if (connectsExternal(facing)) {
-						Wire wire = WireUtils.getWire(getContainer().world(), getContainer().pos().offset(facing), getLocation());
-						if (!(wire instanceof PartWireSignalBase) || nChanged) {
+						if (getNeighborWire(NEIGHBOR_SIDE + facing.ordinal()) == null || nChanged) {
 							propagateNotify(facing, getColor());
 						}
 					} else if (connectsCorner(facing)) {
@@ -352,7 +350,7 @@ public class PartWireNormal extends PartWireSignalBase implements IRedstoneEmitt
 	@Override
 	@Deprecated
 	public int getRedstoneSignal() {
-		return !PROPAGATING ? getRedstoneLevel() : 0;
+		return !isSampling() ? getRedstoneLevel() : 0;
 	}
 
 	@Override
@@ -34,6 +34,7 @@ import pl.asie.charset.api.lib.IDebuggable;
 import pl.asie.charset.api.wires.IWire;
 import pl.asie.charset.api.wires.WireFace;
 import pl.asie.charset.api.wires.WireType;
+import pl.asie.charset.lib.block.TileBase;
 import pl.asie.charset.lib.capability.Capabilities;
 import pl.asie.charset.lib.utils.redstone.RedstoneUtils;
 import pl.asie.charset.lib.wires.*;
@@ -44,11 +45,21 @@ public abstract class PartWireSignalBase extends Wire implements IWire, IDebugga
 	@SuppressWarnings("PointlessBooleanExpression")
 	public static boolean DEBUG = false && ModCharset.INDEV;
 
-	public static boolean PROPAGATING = false;
 	public static boolean WIRES_CONNECT_REDSTONE = true;
 	private final EnumSet<EnumFacing> propagationDirs = EnumSet.noneOf(EnumFacing.class);
 	private boolean logicUpdateNeeded = true;
 	private int color = -1;
+	// SignalPropagator state
+	int queuedColor = SignalPropagator.NOT_QUEUED;
+	boolean queuedDecay;
+	// Set during propagate() - whether this wire's signal has decreased.
+	protected boolean propagatingDecay;
+	// Cached adjacent signal wires: indexed by WireFace ordinal for
+	// internal connections, and NEIGHBOR_SIDE + EnumFacing ordinal for
+	// external and corner connections (which are mutually exclusive).
+	private PartWireSignalBase[] neighborWires;
+	private int unresolvedNeighborMask;
+	protected static final int NEIGHBOR_SIDE = 7;
 
 	public PartWireSignalBase(@Nonnull IWireContainer container, @Nonnull WireProvider factory, @Nonnull WireFace location) {
 		super(container, factory, location);
@@ -70,6 +81,7 @@ public abstract class PartWireSignalBase extends Wire implements IWire, IDebugga
 
 	protected void scheduleLogicUpdate() {
 		logicUpdateNeeded = true;
+		requestUpdate();
 	}
 
 	@Override
@@ -78,7 +90,7 @@ public abstract class PartWireSignalBase extends Wire implements IWire, IDebugga
 
 		if (logicUpdateNeeded) {
 			if (!getContainer().world().isRemote) {
-				onSignalChanged(-1);
+				SignalPropagator.INSTANCE.schedule(this, -1, false);
 			}
 			logicUpdateNeeded = false;
 		}
@@ -170,8 +182,91 @@ public abstract class PartWireSignalBase extends Wire implements IWire, IDebugga
 		return super.writeNBTData(nbt, isClient);
 	}
 
+	/**
+	 * @return The adjacent signal wire in a given cache slot, or null.
+	 */
+	protected final PartWireSignalBase getNeighborWire(int slot) {
+		if (neighborWires == null) {
+			neighborWires = new PartWireSignalBase[NEIGHBOR_SIDE + 6];
+			unresolvedNeighborMask = 0;
+			for (WireFace location : WireFace.VALUES) {
+				if (connectsInternal(location)) {
+					unresolvedNeighborMask |= 1 << location.ordinal();
+				}
+			}
+			for (EnumFacing facing : EnumFacing.VALUES) {
+				if (connectsExternal(facing) || connectsCorner(facing)) {
+					unresolvedNeighborMask |= 1 << (NEIGHBOR_SIDE + facing.ordinal());
+				}
+			}
+		}
+
+		PartWireSignalBase wire = neighborWires[slot];
+		if (wire != null && wire.isRemoved()) {
+			// The neighbour may have gone away without clearing this
+			// cache, as it only clears the caches of wires it resolved.
+			neighborWires[slot] = null;
+			unresolvedNeighborMask |= 1 << slot;
+		}
+
+		if ((unresolvedNeighborMask & (1 << slot)) != 0) {
+			// Connections to blocks, or to wires in unloaded chunks, are
+			// looked up every time.
+			wire = findNeighborWire(slot);
+			if (wire != null && !wire.isRemoved()) {
+				neighborWires[slot] = wire;
+				unresolvedNeighborMask &= ~(1 << slot);
+			} else {
+				wire = null;
+			}
+		}
+
+		return wire;
+	}
+
+	private PartWireSignalBase findNeighborWire(int slot) {
+		BlockPos pos = getContainer().pos();
+		Wire wire;
+
+		if (slot < NEIGHBOR_SIDE) {
+			wire = WireUtils.getWire(getContainer().world(), pos, WireFace.VALUES[slot]);
+		} else {
+			EnumFacing facing = EnumFacing.byIndex(slot - NEIGHBOR_SIDE);
+			if (connectsExternal(facing)) {
+				wire = WireUtils.getWire(getContainer().world(), pos.offset(facing), getLocation());
+			} else {
+				wire = WireUtils.getWire(getContainer().world(), pos.offset(facing).offset(getLocation().facing), WireFace.get(facing.getOpposite()));
+			}
+		}
+
+		return wire instanceof PartWireSignalBase ? (PartWireSignalBase) wire : null;
+	}
+
+	/**
+	 * Drop this wire's cached neighbours, as well as this wire from the
+	 * caches of its neighbours.
+	 */
+	protected final void invalidateNeighborWires() {
+		if (neighborWires != null) {
+			for (PartWireSignalBase wire : neighborWires) {
+				if (wire != null) {
+					wire.neighborWires = null;
+				}
+			}
+			neighborWires = null;
+		}
+	}
+
+	@Override
+	public void invalidate(TileBase.InvalidationType type) {
+		super.invalidate(type);
+		invalidateNeighborWires();
+	}
+
 	@Override
 	protected void updateConnections() {
+		invalidateNeighborWires();
+
 		for (int j = 0; j < 6; j++) {
 			EnumFacing facing = EnumFacing.byIndex(j);
 			TileEntity tile = getContainer().world().getTileEntity(getContainer().pos().offset(facing));
@@ -193,17 +288,20 @@ public abstract class PartWireSignalBase extends Wire implements IWire, IDebugga
 		scheduleLogicUpdate();
 	}
 
-	protected void propagateNotifyCorner(EnumFacing side, EnumFacing direction, int color) {
-		Wire wire = WireUtils.getWire(getContainer().world(), getContainer().pos().offset(side).offset(direction), WireFace.get(direction.getOpposite()));
-		if (wire != null && wire instanceof PartWireSignalBase) {
-			((PartWireSignalBase) wire).onSignalChanged(color);
+	protected void notifyWire(Wire wire, int color) {
+		if (wire instanceof PartWireSignalBase) {
+			SignalPropagator.INSTANCE.schedule((PartWireSignalBase) wire, color, propagatingDecay);
 		}
 	}
 
+	protected void propagateNotifyCorner(EnumFacing side, EnumFacing direction, int color) {
+		notifyWire(getNeighborWire(NEIGHBOR_SIDE + direction.ordinal()), color);
+	}
+
 	protected void propagateNotify(EnumFacing facing, int color) {
-		Wire wire = WireUtils.getWire(getContainer().world(), getContainer().pos().offset(facing), getLocation());
-		if (wire != null && wire instanceof PartWireSignalBase) {
-			((PartWireSignalBase) wire).onSignalChanged(color);
+		Wire wire = getNeighborWire(NEIGHBOR_SIDE + facing.ordinal());
+		if (wire != null) {
+			notifyWire(wire, color);
 		} else {
 			propagationDirs.add(facing);
 		}
@@ -236,7 +334,16 @@ public abstract class PartWireSignalBase extends Wire implements IWire, IDebugga
 	}
 
 	protected final void neighborChanged(BlockPos neighborPos) {
-		getContainer().world().neighborChanged(neighborPos, CharsetLibWires.blockWire, getContainer().pos());
+		SignalPropagator.INSTANCE.neighborChanged(getContainer().world(), neighborPos, CharsetLibWires.blockWire, getContainer().pos());
+	}
+
+	/**
+	 * @return Whether a wire in this wire's world is currently reading the
+	 * power of its neighbours, in which case wires emit no power so that
+	 * they can't power themselves through blocks.
+	 */
+	protected final boolean isSampling() {
+		return SignalPropagator.INSTANCE.isSampling(getContainer().world());
 	}
 
 	public int getBundledSignalLevel(int i) {
@@ -250,7 +357,7 @@ public abstract class PartWireSignalBase extends Wire implements IWire, IDebugga
 
 	@Override
 	public int getWeakPower(EnumFacing facing) {
-		if (!PROPAGATING && connectsWeak(facing)) {
+		if (!isSampling() && connectsWeak(facing)) {
 			return getRedstoneLevel();
 		} else {
 			return 0;
@@ -281,7 +388,7 @@ public abstract class PartWireSignalBase extends Wire implements IWire, IDebugga
 
 	@Override
 	public int getStrongPower(EnumFacing facing) {
-		if (!PROPAGATING && getSignalFactory().type == WireType.NORMAL && getLocation().facing == facing) {
+		if (!isSampling() && getSignalFactory().type == WireType.NORMAL && getLocation().facing == facing) {
 			return getRedstoneLevel();
 		} else {
 			return 0;
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2015, 2016, 2017, 2018 Adrian Siekierka
+ *
+ * This file is part of Charset.
+ *
+ * Charset is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Charset is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Charset.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package pl.asie.simplelogic.wires.logic;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Iterative signal propagation for logic wires.
+ *
+ * Instead of recursing into neighbouring wires, wires affected by a signal
+ * change are queued, so that each wire is only evaluated once per queued
+ * change. Wires losing signal are queued for decay, which is always fully
+ * processed before any wire gaining signal is re-raised. Block updates
+ * caused by propagation are collected and fired once per position after
+ * all queued wires have been evaluated.
+ */
+final class SignalPropagator {
+	static final SignalPropagator INSTANCE = new SignalPropagator();
+	static final int NOT_QUEUED = Integer.MIN_VALUE;
+
+	// Scratch space for wire evaluation; safe to share as evaluations
+	// never nest.
+	final boolean[] isWire = new boolean[7];
+	final int[] neighborLevel = new int[7];
+	final int[][] bundledLevels = new int[7][16];
+
+	private final ArrayDeque<PartWireSignalBase> decayQueue = new ArrayDeque<>();
+	private final ArrayDeque<PartWireSignalBase> raiseQueue = new ArrayDeque<>();
+	private final Map<NeighborUpdate, NeighborUpdate> neighborUpdates = new LinkedHashMap<>();
+	// Worlds in which a wire is reading its neighbours' power, with the
+	// nesting depth; only ever touched on the server thread.
+	private final Reference2IntMap<World> samplingDepth = new Reference2IntOpenHashMap<>();
+	private boolean running;
+
+	private static final class NeighborUpdate {
+		private final World world;
+		private final BlockPos pos;
+		private final Block block;
+		private final BlockPos fromPos;
+
+		NeighborUpdate(World world, BlockPos pos, Block block, BlockPos fromPos) {
+			this.world = world;
+			this.pos = pos;
+			this.block = block;
+			this.fromPos = fromPos;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof NeighborUpdate)) {
+				return false;
+			}
+
+			NeighborUpdate o = (NeighborUpdate) other;
+			return o.world == world && o.pos.equals(pos);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(System.identityHashCode(world), pos);
+		}
+	}
+
+	private SignalPropagator() {
+
+	}
+
+	void beginSampling(World world) {
+		samplingDepth.put(world, samplingDepth.getInt(world) + 1);
+	}
+
+	void endSampling(World world) {
+		int depth = samplingDepth.getInt(world) - 1;
+		if (depth > 0) {
+			samplingDepth.put(world, depth);
+		} else {
+			samplingDepth.removeInt(world);
+		}
+	}
+
+	boolean isSampling(World world) {
+		// Client-side wires never propagate; don't read the map off-thread.
+		return world != null && !world.isRemote && !samplingDepth.isEmpty() && samplingDepth.getInt(world) > 0;
+	}
+
+	void clearScratch() {
+		for (int i = 0; i < 7; i++) {
+			isWire[i] = false;
+			neighborLevel[i] = 0;
+		}
+	}
+
+	/**
+	 * Queue a wire for re-evaluation, and process the queue unless it is
+	 * already being processed further up the stack.
+	 *
+	 * @param color The affected color, or -1 for all.
+	 * @param decay Whether the change was caused by a neighbour losing signal.
+	 */
+	void schedule(PartWireSignalBase wire, int color, boolean decay) {
+		if (wire.queuedColor == NOT_QUEUED) {
+			wire.queuedColor = color;
+			wire.queuedDecay = decay;
+			(decay ? decayQueue : raiseQueue).add(wire);
+		} else {
+			if (wire.queuedColor != color) {
+				wire.queuedColor = -1;
+			}
+
+			if (decay && !wire.queuedDecay) {
+				// The raise queue entry will be skipped.
+				wire.queuedDecay = true;
+				decayQueue.add(wire);
+			}
+		}
+
+		run();
+	}
+
+	void neighborChanged(World world, BlockPos pos, Block block, BlockPos fromPos) {
+		if (running) {
+			NeighborUpdate update = new NeighborUpdate(world, pos, block, fromPos);
+			neighborUpdates.putIfAbsent(update, update);
+		} else {
+			world.neighborChanged(pos, block, fromPos);
+		}
+	}
+
+	private void run() {
+		if (running) {
+			return;
+		}
+
+		running = true;
+		try {
+			while (true) {
+				PartWireSignalBase wire = decayQueue.poll();
+				if (wire == null) {
+					wire = raiseQueue.poll();
+					if (wire != null && (wire.queuedColor == NOT_QUEUED || wire.queuedDecay)) {
+						continue;
+					}
+				}
+
+				if (wire != null) {
+					int color = wire.queuedColor;
+					wire.queuedColor = NOT_QUEUED;
+					wire.queuedDecay = false;
+					wire.onSignalChanged(color);
+				} else if (!neighborUpdates.isEmpty()) {
+					// Block updates may cause further wire changes; these
+					// are queued and processed in the next pass.
+					Iterator<NeighborUpdate> it = neighborUpdates.keySet().iterator();
+					NeighborUpdate update = it.next();
+					it.remove();
+					update.world.neighborChanged(update.pos, update.block, update.fromPos);
+				} else {
+					break;
+				}
+			}
+		} finally {
+			running = false;
+			if (!decayQueue.isEmpty() || !raiseQueue.isEmpty()) {
+				// Exception thrown; don't leave wires stuck in the queue.
+				for (PartWireSignalBase wire : decayQueue) {
+					wire.queuedColor = NOT_QUEUED;
+					wire.queuedDecay = false;
+				}
+				for (PartWireSignalBase wire : raiseQueue) {
+					wire.queuedColor = NOT_QUEUED;
+					wire.queuedDecay = false;
+				}
+				decayQueue.clear();
+				raiseQueue.clear();
+			}
+			neighborUpdates.clear();
+		}
+	}
+}
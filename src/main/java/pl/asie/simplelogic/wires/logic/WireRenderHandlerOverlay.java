@@ -69,7 +69,7 @@ public class WireRenderHandlerOverlay extends WireRenderHandler implements IWire
 	@Override
 	@SideOnly(Side.CLIENT)
 	public TextureAtlasSprite getTexture(TextureType type, Wire wire, EnumFacing facing, int connMask) {
-		return (type == TextureType.TOP && getColor(type, wire, facing) != 0) ? top : null;
+		return (type == TextureType.TOP && (wire == null || getColor(type, wire, facing) != 0)) ? top : null;
 	}
 
 	@Override